@@ -0,0 +1,110 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketAddress;
+
+import com.wl4g.shell.common.codec.SignalCodec;
+import com.wl4g.shell.common.handler.BaseSignalHandler;
+import com.wl4g.shell.common.registry.ShellHandlerRegistrar;
+
+/**
+ * Signal channel of the benchmarks, which is a loopback client of the
+ * embedded server, or writes to nothing by {@link #discarding()}.
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+class BenchmarkChannel extends BaseSignalHandler {
+
+    BenchmarkChannel(Socket socket) {
+        super(new ShellHandlerRegistrar(), socket, line -> null);
+    }
+
+    /**
+     * Blocking read a message.
+     */
+    Object read() throws IOException, ClassNotFoundException {
+        return readMessage();
+    }
+
+    /**
+     * Uses the codec without negotiation, e.g. the discarding channel.
+     */
+    void useCodec(SignalCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public void run() {
+    }
+
+    /**
+     * New channel that all the written bytes are discarded.
+     */
+    static BenchmarkChannel discarding() {
+        return new BenchmarkChannel(new DiscardingSocket());
+    }
+
+    /**
+     * Unconnected socket that discards the output.
+     */
+    static class DiscardingSocket extends Socket {
+        private final SocketAddress remote = new InetSocketAddress("127.0.0.1", 0);
+        private final OutputStream out = new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        };
+        private final InputStream in = new InputStream() {
+            @Override
+            public int read() {
+                return -1;
+            }
+        };
+
+        @Override
+        public OutputStream getOutputStream() {
+            return out;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return in;
+        }
+
+        @Override
+        public boolean isConnected() {
+            return true;
+        }
+
+        @Override
+        public SocketAddress getRemoteSocketAddress() {
+            return remote;
+        }
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.benchmark;
+
+import static java.lang.System.currentTimeMillis;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.wl4g.shell.core.cache.codec.ShellCacheCodec;
+import com.wl4g.shell.core.cache.codec.ShellCacheCodecs;
+import com.wl4g.shell.core.locks.ShellLockManager;
+import com.wl4g.shell.core.session.ShellSession;
+import com.wl4g.shell.core.utils.AuthUtils;
+
+/**
+ * Values encoding and decoding of the redis backed shell cache, the session
+ * and the lock value, by the json and binary codecs. The payload bytes are
+ * printed at the setup (the lock value depends on the process serial), e.g.
+ *
+ * <pre>
+ * $ java -jar shell-benchmarks/target/benchmarks.jar CacheCodecBenchmark
+ * # Payload bytes of json: session=170, lock=...
+ * # Payload bytes of binary: session=50, lock=...
+ * </pre>
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheCodecBenchmark {
+
+    @Param({ "json", "binary" })
+    private String codec;
+
+    private ShellCacheCodec cacheCodec;
+    private ShellSession session;
+    private String lockValue;
+    private byte[] sessionData;
+    private byte[] lockData;
+
+    @Setup
+    public void setup() {
+        cacheCodec = ShellCacheCodecs.getCodec(codec);
+        long now = currentTimeMillis();
+        session = new ShellSession(AuthUtils.genSessionID(), "admin", true, "10.0.0.12", now - 60_000L, now);
+        lockValue = ShellLockManager.getThreadCurrentProcessId();
+        sessionData = cacheCodec.encode(session);
+        lockData = cacheCodec.encode(lockValue);
+        System.out.printf("# Payload bytes of %s: session=%s, lock=%s%n", codec, sessionData.length, lockData.length);
+    }
+
+    @Benchmark
+    public byte[] encodeSession() {
+        return cacheCodec.encode(session);
+    }
+
+    @Benchmark
+    public ShellSession decodeSession() {
+        return cacheCodec.decode(sessionData, ShellSession.class);
+    }
+
+    @Benchmark
+    public byte[] encodeLock() {
+        return cacheCodec.encode(lockValue);
+    }
+
+    @Benchmark
+    public String decodeLock() {
+        return cacheCodec.decode(lockData, String.class);
+    }
+
+}
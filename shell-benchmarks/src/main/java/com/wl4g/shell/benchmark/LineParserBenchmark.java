@@ -0,0 +1,111 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.benchmark;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.apache.commons.lang3.StringUtils.split;
+import static org.apache.commons.lang3.StringUtils.startsWith;
+import static org.apache.commons.lang3.StringUtils.trimToEmpty;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.wl4g.shell.common.utils.LineUtils;
+
+/**
+ * Compares the command line parsing of the previous
+ * (repair/split/trim/LinkedList) implementation and the single-pass
+ * {@link com.wl4g.shell.common.utils.LineTokens}, the equivalence of both is
+ * verified by the unit tests of shell-common.
+ *
+ * <pre>
+ * $ java -jar shell-benchmarks/target/benchmarks.jar LineParserBenchmark
+ * </pre>
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LineParserBenchmark {
+
+    @Param({ "add -a 10 -b 20", "arg1 -l x1, x2 -m a1=b1, a2 = b2 -p aa1=bb1,aa2= bb2 -s x3, , x4",
+            "deploy --cluster prod --image registry/app:1.0 --replicas 3 --env a=1,b=2 --force" })
+    private String line;
+
+    @Benchmark
+    public Object previous() {
+        return previousParse(line);
+    }
+
+    @Benchmark
+    public Object tokenize() {
+        return LineUtils.tokenize(line);
+    }
+
+    @Benchmark
+    public Object tokenizeAndGet() {
+        List<String> tokens = LineUtils.tokenize(line);
+        for (int i = 0; i < tokens.size(); i++) {
+            tokens.get(i);
+        }
+        return tokens;
+    }
+
+    /**
+     * The previous implementation of {@link LineUtils#parse(String)}.
+     */
+    static LinkedList<String> previousParse(String line) {
+        if (isBlank(line)) {
+            return new LinkedList<>();
+        }
+        line = trimToEmpty(line);
+        StringBuffer newLine = new StringBuffer();
+        String args[] = split(line, " ");
+        if (args.length > 2) {
+            for (String arg : args) {
+                if (startsWith(arg, "-")) {
+                    newLine.append(" ");
+                    newLine.append(arg);
+                    newLine.append(" ");
+                } else {
+                    newLine.append(arg);
+                }
+            }
+        } else {
+            newLine.append(line);
+        }
+        return LineUtils.parse(split(newLine.toString(), " "));
+    }
+
+}
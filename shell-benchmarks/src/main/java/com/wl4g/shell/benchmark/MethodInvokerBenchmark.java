@@ -0,0 +1,97 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.benchmark;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.lang.reflect.Method;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.wl4g.shell.common.annotation.ShellMethod;
+import com.wl4g.shell.common.annotation.ShellOption;
+import com.wl4g.shell.common.registry.TargetMethodWrapper;
+
+/**
+ * Compares the dispatch overhead of the {@link ShellMethod} by the reflective
+ * {@link Method#invoke(Object, Object...)} and the precompiled invoker of
+ * {@link TargetMethodWrapper#invoke(Object[])}, the direct call is the
+ * baseline.
+ *
+ * <pre>
+ * $ mvn -pl shell-benchmarks -am package -DskipTests
+ * $ java -jar shell-benchmarks/target/benchmarks.jar MethodInvokerBenchmark
+ * </pre>
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MethodInvokerBenchmark {
+
+    private BenchmarkCommands commands;
+    private Method method;
+    private TargetMethodWrapper wrapper;
+    private Object[] args;
+
+    @Setup
+    public void setup() throws Exception {
+        commands = new BenchmarkCommands();
+        method = BenchmarkCommands.class.getMethod("sum", int.class, int.class);
+        wrapper = new TargetMethodWrapper(method.getAnnotation(ShellMethod.class), method, commands);
+        args = new Object[] { 1, 2 };
+    }
+
+    @Benchmark
+    public Object direct() {
+        return commands.sum((Integer) args[0], (Integer) args[1]);
+    }
+
+    @Benchmark
+    public Object reflective() throws Exception {
+        return method.invoke(commands, args);
+    }
+
+    @Benchmark
+    public Object methodHandle() throws Exception {
+        return wrapper.invoke(args);
+    }
+
+    public static class BenchmarkCommands {
+
+        @ShellMethod(keys = "sum", group = "benchmark", help = "Sum of the two numbers")
+        public int sum(@ShellOption(opt = "a", lopt = "augend", help = "Augend") int a,
+                @ShellOption(opt = "b", lopt = "addend", help = "Addend") int b) {
+            return a + b;
+        }
+    }
+
+}
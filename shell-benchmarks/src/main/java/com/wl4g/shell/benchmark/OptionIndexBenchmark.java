@@ -0,0 +1,238 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.benchmark;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.apache.commons.lang3.StringUtils.equalsAny;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.wl4g.shell.common.annotation.ShellMethod;
+import com.wl4g.shell.common.annotation.ShellOption;
+import com.wl4g.shell.common.cli.HelpOption;
+import com.wl4g.shell.common.registry.TargetMethodWrapper;
+import com.wl4g.shell.common.registry.TargetMethodWrapper.TargetParameter;
+
+/**
+ * Compares resolving the option tokens of a command with 52 options by the
+ * previous scan over all the parameters attributes and by the
+ * {@link com.wl4g.shell.common.registry.OptionIndex}, and binding the whole
+ * command.
+ *
+ * <pre>
+ * $ java -jar shell-benchmarks/target/benchmarks.jar OptionIndexBenchmark
+ * </pre>
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OptionIndexBenchmark {
+
+    private TargetMethodWrapper wrapper;
+    private List<String> optionNames;
+    private List<String> commands;
+
+    @Setup
+    public void setup() throws Exception {
+        Method method = WideCommands.class.getMethod("wide", WideArgument.class);
+        wrapper = new TargetMethodWrapper(method.getAnnotation(ShellMethod.class), method, new WideCommands());
+        optionNames = new ArrayList<>();
+        commands = new ArrayList<>();
+        for (TargetParameter parameter : wrapper.getParameters()) {
+            for (HelpOption option : parameter.getAttributes().keySet()) {
+                optionNames.add(option.getLongOpt());
+                commands.add("--" + option.getLongOpt());
+                commands.add("value");
+            }
+        }
+    }
+
+    @Benchmark
+    public void scanResolve(Blackhole bh) {
+        for (String name : optionNames) {
+            bh.consume(scanSureParamName(name));
+        }
+    }
+
+    @Benchmark
+    public void indexResolve(Blackhole bh) {
+        for (String name : optionNames) {
+            bh.consume(wrapper.getSureParamName(name));
+        }
+    }
+
+    @Benchmark
+    public Object bind() throws Exception {
+        return wrapper.getBindingPlan().bind(commands);
+    }
+
+    /**
+     * The previous implementation of
+     * {@link TargetMethodWrapper#getSureParamName(String)}.
+     */
+    private String scanSureParamName(String argname) {
+        for (TargetParameter parameter : wrapper.getParameters()) {
+            for (Entry<HelpOption, String> attr : parameter.getAttributes().entrySet()) {
+                HelpOption option = attr.getKey();
+                if (equalsAny(argname, option.getOpt(), option.getLongOpt())) {
+                    if (isNotBlank(attr.getValue())) {
+                        return attr.getValue();
+                    }
+                }
+            }
+        }
+        return argname;
+    }
+
+    public static class WideCommands {
+
+        @ShellMethod(keys = "wide", group = "benchmark", help = "Command with wide bean parameter")
+        public String wide(WideArgument arg) {
+            return "ok";
+        }
+    }
+
+    public static class WideArgument {
+        @ShellOption(opt = "a", lopt = "option-00", help = "Option 00", required = false)
+        private String field00;
+        @ShellOption(opt = "b", lopt = "option-01", help = "Option 01", required = false)
+        private String field01;
+        @ShellOption(opt = "c", lopt = "option-02", help = "Option 02", required = false)
+        private String field02;
+        @ShellOption(opt = "d", lopt = "option-03", help = "Option 03", required = false)
+        private String field03;
+        @ShellOption(opt = "e", lopt = "option-04", help = "Option 04", required = false)
+        private String field04;
+        @ShellOption(opt = "f", lopt = "option-05", help = "Option 05", required = false)
+        private String field05;
+        @ShellOption(opt = "g", lopt = "option-06", help = "Option 06", required = false)
+        private String field06;
+        @ShellOption(opt = "h", lopt = "option-07", help = "Option 07", required = false)
+        private String field07;
+        @ShellOption(opt = "i", lopt = "option-08", help = "Option 08", required = false)
+        private String field08;
+        @ShellOption(opt = "j", lopt = "option-09", help = "Option 09", required = false)
+        private String field09;
+        @ShellOption(opt = "k", lopt = "option-10", help = "Option 10", required = false)
+        private String field10;
+        @ShellOption(opt = "l", lopt = "option-11", help = "Option 11", required = false)
+        private String field11;
+        @ShellOption(opt = "m", lopt = "option-12", help = "Option 12", required = false)
+        private String field12;
+        @ShellOption(opt = "n", lopt = "option-13", help = "Option 13", required = false)
+        private String field13;
+        @ShellOption(opt = "o", lopt = "option-14", help = "Option 14", required = false)
+        private String field14;
+        @ShellOption(opt = "p", lopt = "option-15", help = "Option 15", required = false)
+        private String field15;
+        @ShellOption(opt = "q", lopt = "option-16", help = "Option 16", required = false)
+        private String field16;
+        @ShellOption(opt = "r", lopt = "option-17", help = "Option 17", required = false)
+        private String field17;
+        @ShellOption(opt = "s", lopt = "option-18", help = "Option 18", required = false)
+        private String field18;
+        @ShellOption(opt = "t", lopt = "option-19", help = "Option 19", required = false)
+        private String field19;
+        @ShellOption(opt = "u", lopt = "option-20", help = "Option 20", required = false)
+        private String field20;
+        @ShellOption(opt = "v", lopt = "option-21", help = "Option 21", required = false)
+        private String field21;
+        @ShellOption(opt = "w", lopt = "option-22", help = "Option 22", required = false)
+        private String field22;
+        @ShellOption(opt = "x", lopt = "option-23", help = "Option 23", required = false)
+        private String field23;
+        @ShellOption(opt = "y", lopt = "option-24", help = "Option 24", required = false)
+        private String field24;
+        @ShellOption(opt = "z", lopt = "option-25", help = "Option 25", required = false)
+        private String field25;
+        @ShellOption(opt = "A", lopt = "option-26", help = "Option 26", required = false)
+        private String field26;
+        @ShellOption(opt = "B", lopt = "option-27", help = "Option 27", required = false)
+        private String field27;
+        @ShellOption(opt = "C", lopt = "option-28", help = "Option 28", required = false)
+        private String field28;
+        @ShellOption(opt = "D", lopt = "option-29", help = "Option 29", required = false)
+        private String field29;
+        @ShellOption(opt = "E", lopt = "option-30", help = "Option 30", required = false)
+        private String field30;
+        @ShellOption(opt = "F", lopt = "option-31", help = "Option 31", required = false)
+        private String field31;
+        @ShellOption(opt = "G", lopt = "option-32", help = "Option 32", required = false)
+        private String field32;
+        @ShellOption(opt = "H", lopt = "option-33", help = "Option 33", required = false)
+        private String field33;
+        @ShellOption(opt = "I", lopt = "option-34", help = "Option 34", required = false)
+        private String field34;
+        @ShellOption(opt = "J", lopt = "option-35", help = "Option 35", required = false)
+        private String field35;
+        @ShellOption(opt = "K", lopt = "option-36", help = "Option 36", required = false)
+        private String field36;
+        @ShellOption(opt = "L", lopt = "option-37", help = "Option 37", required = false)
+        private String field37;
+        @ShellOption(opt = "M", lopt = "option-38", help = "Option 38", required = false)
+        private String field38;
+        @ShellOption(opt = "N", lopt = "option-39", help = "Option 39", required = false)
+        private String field39;
+        @ShellOption(opt = "O", lopt = "option-40", help = "Option 40", required = false)
+        private String field40;
+        @ShellOption(opt = "P", lopt = "option-41", help = "Option 41", required = false)
+        private String field41;
+        @ShellOption(opt = "Q", lopt = "option-42", help = "Option 42", required = false)
+        private String field42;
+        @ShellOption(opt = "R", lopt = "option-43", help = "Option 43", required = false)
+        private String field43;
+        @ShellOption(opt = "S", lopt = "option-44", help = "Option 44", required = false)
+        private String field44;
+        @ShellOption(opt = "T", lopt = "option-45", help = "Option 45", required = false)
+        private String field45;
+        @ShellOption(opt = "U", lopt = "option-46", help = "Option 46", required = false)
+        private String field46;
+        @ShellOption(opt = "V", lopt = "option-47", help = "Option 47", required = false)
+        private String field47;
+        @ShellOption(opt = "W", lopt = "option-48", help = "Option 48", required = false)
+        private String field48;
+        @ShellOption(opt = "X", lopt = "option-49", help = "Option 49", required = false)
+        private String field49;
+        @ShellOption(opt = "Y", lopt = "option-50", help = "Option 50", required = false)
+        private String field50;
+        @ShellOption(opt = "Z", lopt = "option-51", help = "Option 51", required = false)
+        private String field51;
+    }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.benchmark;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.wl4g.shell.common.annotation.ShellMethod;
+import com.wl4g.shell.common.annotation.ShellOption;
+import com.wl4g.shell.common.handler.GenericShellHandler;
+import com.wl4g.shell.common.registry.ShellHandlerRegistrar;
+import com.wl4g.shell.common.registry.TargetMethodWrapper;
+import com.wl4g.shell.core.config.ServerShellProperties;
+
+/**
+ * Resolving the method arguments of the parsed commands by
+ * {@link GenericShellHandler#resolveParameters(List, TargetMethodWrapper)},
+ * the simple parameters and the java bean parameter (with nested bean).
+ *
+ * <pre>
+ * $ java -jar shell-benchmarks/target/benchmarks.jar ResolveParametersBenchmark
+ * </pre>
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResolveParametersBenchmark {
+
+    private ResolvingShellHandler handler;
+    private TargetMethodWrapper simple;
+    private TargetMethodWrapper bean;
+    private List<String> simpleCommands;
+    private List<String> beanCommands;
+
+    @Setup
+    public void setup() {
+        ShellHandlerRegistrar registrar = new ShellHandlerRegistrar().register(new ResolveCommands());
+        handler = new ResolvingShellHandler(registrar);
+        simple = registrar.getTargetMethod("add");
+        bean = registrar.getTargetMethod("deploy");
+        simpleCommands = asList("-a", "10", "--b-value", "20");
+        beanCommands = asList("-n", "shell-example", "--replicas", "3", "-l", "app=shell,tier=backend", "-i",
+                "registry.example.com/shell:1.0", "--pull", "true");
+    }
+
+    @Benchmark
+    public List<Object> simpleParameters() throws Exception {
+        return handler.resolve(simpleCommands, simple);
+    }
+
+    @Benchmark
+    public List<Object> beanParameter() throws Exception {
+        return handler.resolve(beanCommands, bean);
+    }
+
+    /**
+     * Exposes the resolving of the generic handler.
+     */
+    static class ResolvingShellHandler extends GenericShellHandler {
+
+        ResolvingShellHandler(ShellHandlerRegistrar registrar) {
+            super(new ServerShellProperties(), registrar);
+        }
+
+        List<Object> resolve(List<String> commands, TargetMethodWrapper tm) throws Exception {
+            return resolveParameters(commands, tm);
+        }
+    }
+
+    public static class ResolveCommands {
+
+        @ShellMethod(keys = "add", group = "benchmark", help = "Adds the two numbers")
+        public int add(@ShellOption(opt = "a", lopt = "a-value", help = "Augend") int a,
+                @ShellOption(opt = "b", lopt = "b-value", help = "Addend", defaultValue = "1") int b) {
+            return a + b;
+        }
+
+        @ShellMethod(keys = "deploy", group = "benchmark", help = "Deploys the application")
+        public String deploy(DeployArgument arg) {
+            return arg.name;
+        }
+    }
+
+    public static class DeployArgument {
+        @ShellOption(opt = "n", lopt = "name", help = "Application name")
+        private String name;
+        @ShellOption(opt = "r", lopt = "replicas", help = "Replicas", defaultValue = "1", required = false)
+        private int replicas;
+        @ShellOption(opt = "l", lopt = "labels", help = "Labels", required = false)
+        private List<String> labels;
+        private ImageArgument image;
+    }
+
+    public static class ImageArgument {
+        @ShellOption(opt = "i", lopt = "image", help = "Image name")
+        private String name;
+        @ShellOption(opt = "p", lopt = "pull", help = "Always pull the image", defaultValue = "false", required = false)
+        private boolean pull;
+    }
+
+}
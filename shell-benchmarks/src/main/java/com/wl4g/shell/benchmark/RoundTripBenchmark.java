@@ -0,0 +1,137 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.benchmark;
+
+import static com.wl4g.infra.common.lang.Assert2.isInstanceOf;
+import static com.wl4g.infra.common.lang.Assert2.isTrue;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.wl4g.shell.common.annotation.ShellMethod;
+import com.wl4g.shell.common.annotation.ShellOption;
+import com.wl4g.shell.common.codec.SignalCodecs;
+import com.wl4g.shell.common.signal.EOFStdoutSignal;
+import com.wl4g.shell.common.signal.MetaSignal;
+import com.wl4g.shell.common.signal.StdinSignal;
+import com.wl4g.shell.core.EmbeddedShellServerBuilder;
+import com.wl4g.shell.core.cache.MemoryShellCache;
+import com.wl4g.shell.core.config.ServerShellProperties;
+import com.wl4g.shell.core.handler.EmbeddedShellServer;
+
+/**
+ * End-to-end command round trip of the loopback embedded server, i.e. sends
+ * the {@link StdinSignal} and waits for the {@link EOFStdoutSignal}, includes
+ * the parsing, resolving, locking, invoking and the signals encoding of both
+ * sides.
+ *
+ * <pre>
+ * $ java -jar shell-benchmarks/target/benchmarks.jar RoundTripBenchmark
+ * </pre>
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoundTripBenchmark {
+
+    @Param({ "bio", "nio" })
+    private String transport;
+
+    @Param({ "java", "binary" })
+    private String codec;
+
+    private EmbeddedShellServer server;
+    private BenchmarkChannel client;
+    private String sessionId;
+
+    @Setup
+    public void setup() throws Exception {
+        ServerShellProperties config = new ServerShellProperties();
+        int port = freePort();
+        config.setPortRange(port + ":" + (port + 1));
+        config.getNio().setEnabled("nio".equals(transport));
+        server = EmbeddedShellServerBuilder.newBuilder()
+                .withAppName("benchmark")
+                .withConfiguration(config)
+                .withShellCache(new MemoryShellCache(config))
+                .register(new EchoCommands())
+                .build();
+        server.start();
+
+        client = new BenchmarkChannel(new Socket(InetAddress.getLoopbackAddress(), port));
+        isTrue(client.proposeCodec(SignalCodecs.getCodec(codec), 3000), "Unable to negotiate codec: %s", codec);
+        client.writeFlush(new MetaSignal());
+        Object meta = client.read();
+        isInstanceOf(MetaSignal.class, meta);
+        sessionId = ((MetaSignal) meta).getSessionId();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        client.close();
+        server.close();
+    }
+
+    @Benchmark
+    public int echo() throws Exception {
+        StdinSignal stdin = new StdinSignal("echo -m hello");
+        stdin.setSessionId(sessionId);
+        client.writeFlush(stdin);
+        int signals = 0;
+        while (!(client.read() instanceof EOFStdoutSignal)) {
+            ++signals;
+        }
+        return signals;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    public static class EchoCommands {
+
+        @ShellMethod(keys = "echo", group = "benchmark", help = "Echo the message")
+        public String echo(@ShellOption(opt = "m", lopt = "message", help = "Message") String message) {
+            return message;
+        }
+    }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.benchmark;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import java.util.concurrent.locks.Lock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.wl4g.shell.core.cache.MemoryShellCache;
+import com.wl4g.shell.core.config.ServerShellProperties;
+import com.wl4g.shell.core.locks.ShellLockManager;
+
+/**
+ * Acquiring and releasing the {@link ShellLockManager} locks on the
+ * {@link MemoryShellCache}, uncontended, reentrant and contended by 4 threads
+ * (the failed try is also measured), and the blocking handoff by 4 threads.
+ *
+ * <pre>
+ * $ java -jar shell-benchmarks/target/benchmarks.jar ShellLockBenchmark
+ * </pre>
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShellLockBenchmark {
+
+    @Benchmark
+    public boolean uncontended(ThreadLock state) {
+        return acquireRelease(state.exclusive);
+    }
+
+    @Benchmark
+    public boolean reentrant(ThreadLock state) {
+        Lock lock = state.exclusive;
+        if (lock.tryLock()) {
+            try {
+                return acquireRelease(lock);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean contended(ThreadLock state) {
+        return acquireRelease(state.shared);
+    }
+
+    /**
+     * Blocking handoff between 4 threads, i.e. the waiters are woken up by the
+     * release notification.
+     */
+    @Benchmark
+    @Threads(4)
+    public void handoff(ThreadLock state) {
+        state.shared.lock();
+        state.shared.unlock();
+    }
+
+    private static boolean acquireRelease(Lock lock) {
+        if (lock.tryLock()) {
+            lock.unlock();
+            return true;
+        }
+        return false;
+    }
+
+    @State(Scope.Benchmark)
+    public static class LockManager {
+        private ShellLockManager lockManager;
+
+        @Setup
+        public void setup() {
+            lockManager = new ShellLockManager(new MemoryShellCache(new ServerShellProperties()));
+        }
+    }
+
+    /**
+     * The lock is bound to the creating thread.
+     */
+    @State(Scope.Thread)
+    public static class ThreadLock {
+        private Lock exclusive;
+        private Lock shared;
+
+        @Setup
+        public void setup(LockManager manager) {
+            exclusive = manager.lockManager.getLock("benchmark.exclusive." + Thread.currentThread().getId());
+            shared = manager.lockManager.getLock("benchmark.shared");
+        }
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.benchmark;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.wl4g.shell.common.codec.SignalCodecs;
+import com.wl4g.shell.common.handler.BaseSignalHandler;
+import com.wl4g.shell.common.signal.EOFStdoutSignal;
+import com.wl4g.shell.common.signal.ProgressSignal;
+import com.wl4g.shell.common.signal.StdoutSignal;
+
+/**
+ * Signals serialization and writing of {@link BaseSignalHandler#writeFlush(Object)}
+ * (the socket output is discarded), by the java serialization and the binary
+ * codecs.
+ *
+ * <pre>
+ * $ java -jar shell-benchmarks/target/benchmarks.jar SignalWriteBenchmark
+ * </pre>
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SignalWriteBenchmark {
+
+    @Param({ "java", "binary" })
+    private String codec;
+
+    private BenchmarkChannel channel;
+    private StdoutSignal stdout;
+    private ProgressSignal progress;
+    private EOFStdoutSignal eof;
+
+    @Setup
+    public void setup() {
+        channel = BenchmarkChannel.discarding();
+        channel.useCodec(SignalCodecs.getCodec(codec));
+        stdout = new StdoutSignal("2021-07-12 10:00:00.000 INFO  [main] c.w.s.e.ExampleService - processing the batch 1024 of 4096");
+        stdout.setSessionId("b1946ac92492d2347c6235b4d2611184");
+        progress = new ProgressSignal("Deploying", 100, 42);
+        progress.setSessionId(stdout.getSessionId());
+        eof = new EOFStdoutSignal();
+        eof.setSessionId(stdout.getSessionId());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        channel.close();
+    }
+
+    @Benchmark
+    public void writeStdout() throws IOException {
+        channel.writeFlush(stdout);
+    }
+
+    @Benchmark
+    public void writeProgress() throws IOException {
+        channel.writeFlush(progress);
+    }
+
+    @Benchmark
+    public void writeEof() throws IOException {
+        channel.writeFlush(eof);
+    }
+
+}
@@ -22,6 +22,7 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import com.wl4g.shell.common.cli.HelpOptions;
+import com.wl4g.shell.common.registry.OptionIndex;
 import com.wl4g.shell.common.registry.ShellHandlerRegistrar;
 import com.wl4g.shell.common.registry.TargetMethodWrapper;
 
@@ -40,6 +41,11 @@ public class ClientShellHandlerRegistrar extends ShellHandlerRegistrar {
      */
     private final Map<String, HelpOptions> helpOptions = new ConcurrentHashMap<>(16);
 
+    /**
+     * Local and remote registed shell target methods options index.
+     */
+    private final Map<String, OptionIndex> optionIndexes = new ConcurrentHashMap<>(16);
+
     public static final ClientShellHandlerRegistrar getSingle() {
         return Holder.INSTANCE;
     }
@@ -57,6 +63,7 @@ public class ClientShellHandlerRegistrar extends ShellHandlerRegistrar {
         getTargetMethods().forEach((argname, tm) -> {
             state(helpOptions.putIfAbsent(argname, tm.getOptions()) == null,
                     format("Already local registed commands: '%s'", argname));
+            optionIndexes.put(argname, tm.getOptionIndex());
         });
 
         // Registion from remote registed.
@@ -64,6 +71,7 @@ public class ClientShellHandlerRegistrar extends ShellHandlerRegistrar {
             state(helpOptions.putIfAbsent(argname, tm.getOptions()) == null, format(
                     "Already remote registed commands: '%s', It is recommended to replace the shell definition @ShellMethod(name=xx)",
                     argname));
+            optionIndexes.put(argname, tm.getOptionIndex());
         });
 
         return this;
@@ -73,6 +81,16 @@ public class ClientShellHandlerRegistrar extends ShellHandlerRegistrar {
         return helpOptions;
     }
 
+    /**
+     * Gets the options index of command.
+     * 
+     * @param argname
+     * @return options index, or null if the command not exists.
+     */
+    public OptionIndex getOptionIndex(String argname) {
+        return optionIndexes.get(argname);
+    }
+
     private static final class Holder {
         final private static ClientShellHandlerRegistrar INSTANCE = new ClientShellHandlerRegistrar();
     }
@@ -16,7 +16,9 @@
 package com.wl4g.shell.cli.config;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.commons.cli.Option;
 import org.jline.reader.Candidate;
@@ -28,7 +30,9 @@ import org.jline.reader.impl.completer.StringsCompleter;
 import static com.wl4g.infra.common.lang.Assert2.*;
 import static com.wl4g.shell.common.annotation.ShellOption.*;
 
+import com.wl4g.shell.common.cli.HelpOption;
 import com.wl4g.shell.common.cli.HelpOptions;
+import com.wl4g.shell.common.registry.OptionIndex;
 import com.wl4g.shell.common.utils.LineUtils;
 
 /**
@@ -63,8 +67,12 @@ public class DynamicCompleter implements Completer {
 			HelpOptions options = registry.getHelpOptions().get(commands.get(0));
 			// Continue before completion
 			if (completingCompleted(commands, options)) {
+				Set<String> specified = getSpecifiedOptions(commands);
 				List<String> candes = new ArrayList<>();
 				for (Option opt : options.getOptions()) {
+					if (specified.contains(opt.getOpt())) {
+						continue;
+					}
 					candes.add(GNU_CMD_SHORT + opt.getOpt());
 					candes.add(GNU_CMD_LONG + opt.getLongOpt());
 				}
@@ -87,4 +95,25 @@ public class DynamicCompleter implements Completer {
 		return options != null && ((commands.size() - 1) / 2) != options.getOptions().size();
 	}
 
+	/**
+	 * Gets the short options that have been specified with value (either by
+	 * short or long option), which are no longer candidates.
+	 * 
+	 * @param commands
+	 * @return
+	 */
+	private Set<String> getSpecifiedOptions(List<String> commands) {
+		Set<String> specified = new HashSet<>();
+		OptionIndex index = registry.getOptionIndex(commands.get(0));
+		if (index != null) {
+			for (int i = 1; i < commands.size() - 1; i += 2) {
+				HelpOption option = index.getOption(LineUtils.clean(commands.get(i)));
+				if (option != null) {
+					specified.add(option.getOpt());
+				}
+			}
+		}
+		return specified;
+	}
+
 }
\ No newline at end of file
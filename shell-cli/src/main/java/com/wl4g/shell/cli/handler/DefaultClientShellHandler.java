@@ -45,7 +45,6 @@ import static org.jline.reader.LineReader.HISTORY_FILE;
 import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
-import java.io.ObjectInputStream;
 import java.net.Socket;
 import java.net.SocketException;
 import java.text.SimpleDateFormat;
@@ -61,6 +60,8 @@ import org.jline.utils.AttributedString;
 import com.wl4g.shell.cli.command.DefaultBuiltInCommand;
 import com.wl4g.shell.cli.config.ClientShellConfiguration;
 import com.wl4g.shell.cli.config.DynamicCompleter;
+import com.wl4g.shell.common.codec.SignalCodec;
+import com.wl4g.shell.common.codec.SignalCodecs;
 import com.wl4g.shell.common.handler.BaseSignalHandler;
 import com.wl4g.shell.common.handler.GenericShellHandler;
 import com.wl4g.shell.common.registry.ShellHandlerRegistrar;
@@ -94,6 +95,17 @@ public abstract class DefaultClientShellHandler extends GenericShellHandler impl
      */
     public static final String ARG_PROMPT = "prompt";
 
+    /**
+     * Signal wire codec (e.g. binary|java), if the server does not support it
+     * will fallback to java serialization.
+     */
+    public static final String ARG_CODEC = "codec";
+
+    /**
+     * Wait for the server reply negotiation timeout.
+     */
+    public static final int NEGOTIATE_TIMEOUT = 3_000;
+
     /**
      * Enable debugging
      */
@@ -317,20 +329,36 @@ public abstract class DefaultClientShellHandler extends GenericShellHandler impl
             Object[] point = determineServPoint();
             printDebug(format("Connecting to %s:%s ... \n", point[0], point[1]));
 
-            Socket s = null;
-            try {
-                s = new Socket((String) point[0], (int) point[1]);
-            } catch (IOException e) {
-                String errmsg = format("Connecting to '%s'(%s) failure! cause by: %s", getProperty(ARG_SERV_NAME), point[1],
-                        getRootCauseMessage(e));
-                throw new IllegalStateException(errmsg);
+            ClientSignalHandler channel = new ClientSignalHandler(this, connect(point), result -> null);
+            SignalCodec codec = SignalCodecs.getCodec(getProperty(ARG_CODEC));
+            if (!channel.proposeCodec(codec, NEGOTIATE_TIMEOUT)) {
+                // The earlier server, reconnect with java serialization.
+                printDebug(format("Unsupported codec negotiation, fallback to java serialization of %s:%s ... \n", point[0],
+                        point[1]));
+                channel.close();
+                channel = new ClientSignalHandler(this, connect(point), result -> null);
             }
-
-            clientChannel = new ClientSignalHandler(this, s, result -> null).starting();
+            clientChannel = channel.starting();
         }
 
     }
 
+    /**
+     * Connecting to server point.
+     * 
+     * @param point
+     * @return
+     */
+    private Socket connect(Object[] point) {
+        try {
+            return new Socket((String) point[0], (int) point[1]);
+        } catch (IOException e) {
+            String errmsg = format("Connecting to '%s'(%s) failure! cause by: %s", getProperty(ARG_SERV_NAME), point[1],
+                    getRootCauseMessage(e));
+            throw new IllegalStateException(errmsg);
+        }
+    }
+
     /**
      * Determine the corresponding server port (identified by PID) of the
      * current client
@@ -428,7 +456,7 @@ public abstract class DefaultClientShellHandler extends GenericShellHandler impl
             while (!boss.isInterrupted() && isActive()) {
                 try {
                     // Read a string command process result
-                    Object input = new ObjectInputStream(_in).readObject();
+                    Object input = readMessage();
 
                     // Post process
                     afterShellExecution(input);
@@ -69,6 +69,21 @@ public @interface ShellMethod {
      */
     boolean lock() default true;
 
+    /**
+     * @return Scope of the concurrent execution lock (only if {@link #lock()}
+     *         is true), the locks of different scopes are independent, e.g.
+     *         the commands of different groups are executed in parallel if
+     *         {@link LockScope#GROUP}. Default: {@link LockScope#GLOBAL}
+     */
+    LockScope lockScope() default LockScope.GLOBAL;
+
+    /**
+     * @return Option name (opt/lopt) from whose input value the lock is
+     *         derived, only if {@link LockScope#ARGUMENT}, e.g. the commands
+     *         for different instances are executed in parallel.
+     */
+    String lockArgument() default "";
+
     /**
      * @return Command help description.
      */
@@ -78,4 +93,22 @@ public @interface ShellMethod {
         ALLOW, NOT_ALLOW
     }
 
+    public static enum LockScope {
+
+        /** All the commands are mutually exclusive. */
+        GLOBAL,
+
+        /** The commands of the same {@link ShellMethod#group()}. */
+        GROUP,
+
+        /** The executions of the same command. */
+        COMMAND,
+
+        /**
+         * The executions of the same command with the same value of
+         * {@link ShellMethod#lockArgument()}.
+         */
+        ARGUMENT
+    }
+
 }
\ No newline at end of file
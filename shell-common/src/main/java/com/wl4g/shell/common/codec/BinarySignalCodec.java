@@ -0,0 +1,297 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.common.codec;
+
+import static com.wl4g.infra.common.lang.Assert2.isTrue;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.wl4g.shell.common.registry.TargetMethodWrapper;
+import com.wl4g.shell.common.signal.AckInterruptSignal;
+import com.wl4g.shell.common.signal.AskInterruptSignal;
+import com.wl4g.shell.common.signal.BOFStdoutSignal;
+import com.wl4g.shell.common.signal.EOFStdoutSignal;
+import com.wl4g.shell.common.signal.LoginSignal;
+import com.wl4g.shell.common.signal.MetaSignal;
+import com.wl4g.shell.common.signal.PreInterruptSignal;
+import com.wl4g.shell.common.signal.PreLoginSignal;
+import com.wl4g.shell.common.signal.ProgressSignal;
+import com.wl4g.shell.common.signal.Signal;
+import com.wl4g.shell.common.signal.StderrSignal;
+import com.wl4g.shell.common.signal.StdinSignal;
+import com.wl4g.shell.common.signal.StdoutSignal;
+
+/**
+ * Compact length-prefixed binary codec, the frame layout is:
+ *
+ * <pre>
+ * +----------------+----------+-----------------+--------------------+
+ * | length(int32)  | tag(1)   | sessionId(str)  | signal fields ...  |
+ * +----------------+----------+-----------------+--------------------+
+ * </pre>
+ *
+ * The string is encoded as int32 length(-1 means null) and UTF-8 bytes. The
+ * rarely sent payloads(e.g. throwable of {@link StderrSignal} and the methods
+ * of {@link MetaSignal}) and the unknown signals are embedded as java
+ * serialization bytes.
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+public class BinarySignalCodec implements SignalCodec {
+
+    public static final byte ID = 1;
+
+    /** Maximum frame length, to prevent a corrupted length from OOM. */
+    public static final int MAX_FRAME_LENGTH = 64 * 1024 * 1024;
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public byte[] encode(Object message) throws IOException {
+        FrameOutputStream buf = new FrameOutputStream();
+        DataOutputStream out = new DataOutputStream(buf);
+        out.writeInt(0); // Placeholder of length.
+        // Exact type matching, the subclasses are serialized as a whole.
+        Class<?> type = message.getClass();
+        if (type == StdoutSignal.class) {
+            writeHeader(out, TAG_STDOUT, (Signal) message);
+            writeString(out, ((StdoutSignal) message).getContent());
+        } else if (type == StdinSignal.class) {
+            writeHeader(out, TAG_STDIN, (Signal) message);
+            writeString(out, ((StdinSignal) message).getLine());
+        } else if (type == BOFStdoutSignal.class) {
+            writeHeader(out, TAG_BOF, (Signal) message);
+        } else if (type == EOFStdoutSignal.class) {
+            writeHeader(out, TAG_EOF, (Signal) message);
+        } else if (type == ProgressSignal.class) {
+            ProgressSignal progress = (ProgressSignal) message;
+            writeHeader(out, TAG_PROGRESS, progress);
+            writeString(out, progress.getTitle());
+            out.writeInt(progress.getWhole());
+            out.writeInt(progress.getProgress());
+        } else if (type == StderrSignal.class) {
+            writeHeader(out, TAG_STDERR, (Signal) message);
+            writeSerializable(out, ((StderrSignal) message).getThrowable());
+        } else if (type == LoginSignal.class) {
+            LoginSignal login = (LoginSignal) message;
+            writeHeader(out, TAG_LOGIN, login);
+            out.writeBoolean(login.isAuthenticated());
+            writeString(out, login.getDesc());
+        } else if (type == PreLoginSignal.class) {
+            PreLoginSignal login = (PreLoginSignal) message;
+            writeHeader(out, TAG_PRE_LOGIN, login);
+            writeString(out, login.getUsername());
+            writeString(out, login.getPassword());
+        } else if (type == PreInterruptSignal.class) {
+            writeHeader(out, TAG_PRE_INTERRUPT, (Signal) message);
+            out.writeBoolean(((PreInterruptSignal) message).isForce());
+        } else if (type == AskInterruptSignal.class) {
+            writeHeader(out, TAG_ASK_INTERRUPT, (Signal) message);
+            writeString(out, ((AskInterruptSignal) message).getSubject());
+        } else if (type == AckInterruptSignal.class) {
+            writeHeader(out, TAG_ACK_INTERRUPT, (Signal) message);
+            out.writeBoolean(((AckInterruptSignal) message).getConfirm());
+        } else if (type == MetaSignal.class) {
+            MetaSignal meta = (MetaSignal) message;
+            writeHeader(out, TAG_META, meta);
+            out.writeBoolean(meta.isEnabledAcl());
+            writeSerializable(out, new HashMap<>(meta.getRegistedMethods()));
+        } else {
+            out.writeByte(TAG_SERIALIZED);
+            writeSerializable(out, message);
+        }
+        out.flush();
+        return buf.toFrame();
+    }
+
+    @Override
+    public Object decode(InputStream in) throws IOException, ClassNotFoundException {
+        DataInputStream din = new DataInputStream(in);
+        byte[] frame = new byte[checkFrameLength(din.readInt())];
+        din.readFully(frame);
+        return decodeFrame(frame, 0, frame.length);
+    }
+
+    @Override
+    public Object decode(ByteBuffer buf) throws IOException, ClassNotFoundException {
+        isTrue(buf.hasArray(), "The buffer must be array backed.");
+        if (buf.remaining() < 4) {
+            return null;
+        }
+        int length = checkFrameLength(buf.getInt(buf.position()));
+        if (buf.remaining() < 4 + length) { // Incomplete
+            return null;
+        }
+        Object message = decodeFrame(buf.array(), buf.arrayOffset() + buf.position() + 4, length);
+        buf.position(buf.position() + 4 + length);
+        return message;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object decodeFrame(byte[] frame, int offset, int length) throws IOException, ClassNotFoundException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(frame, offset, length));
+        byte tag = in.readByte();
+        if (tag == TAG_SERIALIZED) {
+            return readSerializable(in);
+        }
+        String sessionId = readString(in);
+
+        Signal signal;
+        switch (tag) {
+        case TAG_STDOUT:
+            signal = new StdoutSignal(readString(in));
+            break;
+        case TAG_STDIN:
+            signal = new StdinSignal(readString(in));
+            break;
+        case TAG_BOF:
+            signal = new BOFStdoutSignal();
+            break;
+        case TAG_EOF:
+            signal = new EOFStdoutSignal();
+            break;
+        case TAG_PROGRESS:
+            signal = new ProgressSignal(readString(in), in.readInt(), in.readInt());
+            break;
+        case TAG_STDERR:
+            signal = new StderrSignal((Throwable) readSerializable(in));
+            break;
+        case TAG_LOGIN:
+            signal = new LoginSignal(in.readBoolean()).withDesc(readString(in));
+            break;
+        case TAG_PRE_LOGIN:
+            signal = new PreLoginSignal(readString(in), readString(in));
+            break;
+        case TAG_PRE_INTERRUPT:
+            signal = new PreInterruptSignal(in.readBoolean());
+            break;
+        case TAG_ASK_INTERRUPT:
+            signal = new AskInterruptSignal(readString(in));
+            break;
+        case TAG_ACK_INTERRUPT:
+            signal = new AckInterruptSignal(in.readBoolean());
+            break;
+        case TAG_META:
+            boolean enabledAcl = in.readBoolean();
+            signal = new MetaSignal((Map<String, TargetMethodWrapper>) readSerializable(in), sessionId, enabledAcl);
+            break;
+        default:
+            throw new StreamCorruptedException(format("Unknown signal tag: %s", tag));
+        }
+        signal.setSessionId(sessionId);
+        return signal;
+    }
+
+    private int checkFrameLength(int length) throws StreamCorruptedException {
+        if (length <= 0 || length > MAX_FRAME_LENGTH) {
+            throw new StreamCorruptedException(format("Invalid signal frame length: %s", length));
+        }
+        return length;
+    }
+
+    private void writeHeader(DataOutputStream out, byte tag, Signal signal) throws IOException {
+        out.writeByte(tag);
+        writeString(out, signal.getSessionId());
+    }
+
+    private void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = s.getBytes(UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private void writeSerializable(DataOutputStream out, Object obj) throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream(256);
+        ObjectOutputStream oos = new ObjectOutputStream(buf);
+        oos.writeObject(obj);
+        oos.flush();
+        out.writeInt(buf.size());
+        buf.writeTo(out);
+    }
+
+    private Object readSerializable(DataInputStream in) throws IOException, ClassNotFoundException {
+        byte[] bytes = new byte[checkFrameLength(in.readInt())];
+        in.readFully(bytes);
+        return new ObjectInputStream(new ByteArrayInputStream(bytes)).readObject();
+    }
+
+    /**
+     * Frame buffer, the length header is patched in place after the body is
+     * written.
+     */
+    static class FrameOutputStream extends ByteArrayOutputStream {
+        FrameOutputStream() {
+            super(128);
+        }
+
+        byte[] toFrame() {
+            int length = count - 4;
+            buf[0] = (byte) (length >>> 24);
+            buf[1] = (byte) (length >>> 16);
+            buf[2] = (byte) (length >>> 8);
+            buf[3] = (byte) length;
+            return toByteArray();
+        }
+    }
+
+    // Signal type tags.
+    static final byte TAG_SERIALIZED = 0;
+    static final byte TAG_STDOUT = 1;
+    static final byte TAG_STDIN = 2;
+    static final byte TAG_BOF = 3;
+    static final byte TAG_EOF = 4;
+    static final byte TAG_PROGRESS = 5;
+    static final byte TAG_STDERR = 6;
+    static final byte TAG_LOGIN = 7;
+    static final byte TAG_PRE_LOGIN = 8;
+    static final byte TAG_PRE_INTERRUPT = 9;
+    static final byte TAG_ASK_INTERRUPT = 10;
+    static final byte TAG_ACK_INTERRUPT = 11;
+    static final byte TAG_META = 12;
+
+}
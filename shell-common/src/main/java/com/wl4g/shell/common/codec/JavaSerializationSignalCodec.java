@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.common.codec;
+
+import static com.wl4g.infra.common.lang.Assert2.isTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Legacy java serialization codec, that is, a complete java serialization
+ * stream (with header) per message. It's compatible with the earlier clients
+ * and servers that do not negotiate.
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+public class JavaSerializationSignalCodec implements SignalCodec {
+
+    public static final byte ID = 0;
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public byte[] encode(Object message) throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream(256);
+        ObjectOutputStream out = new ObjectOutputStream(buf);
+        out.writeObject(message);
+        out.flush();
+        return buf.toByteArray();
+    }
+
+    @Override
+    public Object decode(InputStream in) throws IOException, ClassNotFoundException {
+        return new ObjectInputStream(in).readObject();
+    }
+
+    @Override
+    public Object decode(ByteBuffer buf) throws IOException, ClassNotFoundException {
+        isTrue(buf.hasArray(), "The buffer must be array backed.");
+        if (!buf.hasRemaining()) {
+            return null;
+        }
+        ByteArrayInputStream in = new ByteArrayInputStream(buf.array(), buf.arrayOffset() + buf.position(), buf.remaining());
+        Object message;
+        try {
+            message = new ObjectInputStream(in).readObject();
+        } catch (EOFException e) { // Incomplete
+            return null;
+        }
+        buf.position(buf.limit() - in.available());
+        return message;
+    }
+
+}
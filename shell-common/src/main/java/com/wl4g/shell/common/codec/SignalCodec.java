@@ -0,0 +1,75 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.common.codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import javax.annotation.Nullable;
+
+/**
+ * Shell channel wire codec of {@link com.wl4g.shell.common.signal.Signal},
+ * which codec is used by the channel is negotiated when connecting, see:
+ * {@link SignalCodecs}
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+public interface SignalCodec {
+
+    /**
+     * Gets the unique codec ID of negotiation.
+     *
+     * @return
+     */
+    byte getId();
+
+    /**
+     * Encode message to a complete frame of wire bytes.
+     *
+     * @param message
+     * @return
+     * @throws IOException
+     */
+    byte[] encode(Object message) throws IOException;
+
+    /**
+     * Blocking read and decode a complete message from the input stream.
+     *
+     * @param in
+     * @return
+     * @throws IOException
+     * @throws ClassNotFoundException
+     */
+    Object decode(InputStream in) throws IOException, ClassNotFoundException;
+
+    /**
+     * Try to decode a complete message from the received bytes, if the bytes
+     * is incomplete, then return null and the buffer position is unchanged,
+     * otherwise the buffer position advanced to the end of the message.
+     *
+     * @param buf
+     *            array backed buffer.
+     * @return
+     * @throws IOException
+     * @throws ClassNotFoundException
+     */
+    @Nullable
+    Object decode(ByteBuffer buf) throws IOException, ClassNotFoundException;
+
+}
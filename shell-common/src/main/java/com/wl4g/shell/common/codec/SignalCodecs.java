@@ -0,0 +1,96 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.common.codec;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Signal codecs registry and the connecting negotiation.
+ *
+ * <p>
+ * Negotiation: after connected, the client sends a preamble of
+ * {@link #PREAMBLE_LENGTH} bytes: <code>'W' 'S' codecId</code>, and the server
+ * replies the preamble of the codec it accepted, afterwards both sides use the
+ * accepted codec. Since the java serialization stream always starts with
+ * <code>0xAC</code>, the server can tell from the first byte that the client
+ * does not negotiate, then keeps {@link #JAVA} codec. Conversely an earlier
+ * server will not reply the preamble, then the client reconnects with
+ * {@link #JAVA} codec.
+ * </p>
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+public abstract class SignalCodecs {
+
+    public static final SignalCodec JAVA = new JavaSerializationSignalCodec();
+
+    public static final SignalCodec BINARY = new BinarySignalCodec();
+
+    /** Negotiation preamble magic. */
+    public static final byte MAGIC0 = 'W', MAGIC1 = 'S';
+
+    public static final int PREAMBLE_LENGTH = 3;
+
+    /**
+     * Gets the codec by ID, if not supported then fallback to {@link #JAVA}.
+     *
+     * @param id
+     * @return
+     */
+    public static SignalCodec getCodec(byte id) {
+        return (id == BINARY.getId()) ? BINARY : JAVA;
+    }
+
+    /**
+     * Gets the codec by name(case insensitive, e.g. java|binary), if null then
+     * use {@link #BINARY} by default.
+     *
+     * @param name
+     * @return
+     */
+    public static SignalCodec getCodec(String name) {
+        if (isNull(name) || "binary".equalsIgnoreCase(name)) {
+            return BINARY;
+        } else if ("java".equalsIgnoreCase(name)) {
+            return JAVA;
+        }
+        throw new IllegalArgumentException("Unsupported signal codec: " + name);
+    }
+
+    /**
+     * Gets negotiation preamble of codec.
+     *
+     * @param codec
+     * @return
+     */
+    public static byte[] preamble(SignalCodec codec) {
+        return new byte[] { MAGIC0, MAGIC1, codec.getId() };
+    }
+
+    /**
+     * Check whether the received bytes is a valid negotiation preamble.
+     *
+     * @param buf
+     * @param offset
+     * @return
+     */
+    public static boolean isPreamble(byte[] buf, int offset) {
+        return buf[offset] == MAGIC0 && buf[offset + 1] == MAGIC1;
+    }
+
+}
@@ -20,14 +20,20 @@ import static java.lang.String.format;
 import static java.lang.System.err;
 import static org.apache.commons.lang3.exception.ExceptionUtils.getStackTrace;
 
+import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.ObjectOutputStream;
 import java.io.OutputStream;
+import java.io.PushbackInputStream;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
 
+import com.wl4g.shell.common.codec.SignalCodec;
+import com.wl4g.shell.common.codec.SignalCodecs;
 import com.wl4g.shell.common.exception.ChannelShellException;
 import com.wl4g.shell.common.registry.ShellHandlerRegistrar;
 
@@ -60,6 +66,17 @@ public abstract class BaseSignalHandler extends SignalHandler {
      */
     protected OutputStream _out;
 
+    /**
+     * Signal codec of negotiated, the java serialization by default.
+     */
+    protected volatile SignalCodec codec = SignalCodecs.JAVA;
+
+    /**
+     * Output write lock, uses explicit lock instead of monitor so that the
+     * virtual threads are not pinned while blocking writing.
+     */
+    protected final ReentrantLock writeLock = new ReentrantLock();
+
     public BaseSignalHandler(ShellHandlerRegistrar registrar, Socket socket, Function<String, Object> function) {
         super(registrar, function);
         notNull(socket, "Socket client is null, please check configure");
@@ -89,10 +106,146 @@ public abstract class BaseSignalHandler extends SignalHandler {
         if (!isActive()) {
             throw new ChannelShellException("No socket active!");
         }
-        ObjectOutputStream out = new ObjectOutputStream(_out);
-        out.writeObject(message);
-        out.flush();
-        _out.flush();
+        writeBytes(encode(message));
+    }
+
+    /**
+     * Write and flush the encoded bytes, the bytes of a message must be
+     * written atomically.
+     * 
+     * @param data
+     *            encoded bytes.
+     * @throws IOException
+     *             Trigger when IO exception occurs
+     */
+    protected void writeBytes(byte[] data) throws IOException {
+        writeLock.lock();
+        try {
+            _out.write(data);
+            _out.flush();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Encode message to the wire bytes by the negotiated codec.
+     * 
+     * @param message
+     *            message object.
+     * @return encoded bytes.
+     * @throws IOException
+     *             Trigger when IO exception occurs
+     */
+    protected byte[] encode(Object message) throws IOException {
+        return codec.encode(message);
+    }
+
+    /**
+     * Blocking read a complete message by the negotiated codec.
+     * 
+     * @return message object.
+     * @throws IOException
+     *             Trigger when IO exception occurs
+     * @throws ClassNotFoundException
+     */
+    protected Object readMessage() throws IOException, ClassNotFoundException {
+        return codec.decode(_in);
+    }
+
+    /**
+     * Server side blocking negotiation, must be called before reading the
+     * first message. If the client does not send the preamble, the java
+     * serialization codec is kept.
+     * 
+     * @throws IOException
+     *             Trigger when IO exception occurs
+     */
+    protected void acceptCodec() throws IOException {
+        PushbackInputStream in = new PushbackInputStream(_in, 1);
+        this._in = in;
+        int first = in.read();
+        if (first < 0) {
+            throw new EOFException();
+        }
+        if (first != SignalCodecs.MAGIC0) {
+            in.unread(first);
+            return;
+        }
+        byte[] preamble = new byte[SignalCodecs.PREAMBLE_LENGTH];
+        preamble[0] = (byte) first;
+        new DataInputStream(in).readFully(preamble, 1, preamble.length - 1);
+        acceptCodec(preamble, 0, preamble.length);
+    }
+
+    /**
+     * Server side non-blocking negotiation of the received bytes.
+     * 
+     * @param buf
+     * @param offset
+     * @param length
+     * @return the number of preamble bytes consumed, or -1 if the bytes are
+     *         not enough to determine.
+     * @throws IOException
+     *             Trigger when IO exception occurs
+     */
+    protected int acceptCodec(byte[] buf, int offset, int length) throws IOException {
+        if (length < 1) {
+            return -1;
+        }
+        if (buf[offset] != SignalCodecs.MAGIC0) { // Not negotiated
+            return 0;
+        }
+        if (length < SignalCodecs.PREAMBLE_LENGTH) {
+            return -1;
+        }
+        if (!SignalCodecs.isPreamble(buf, offset)) {
+            return 0; // Let the codec reports the corrupted stream.
+        }
+        SignalCodec accepted = SignalCodecs.getCodec(buf[offset + 2]);
+        writeBytes(SignalCodecs.preamble(accepted));
+        this.codec = accepted;
+        return SignalCodecs.PREAMBLE_LENGTH;
+    }
+
+    /**
+     * Client side negotiation, must be called before sending the first
+     * message.
+     * 
+     * @param proposed
+     *            the proposed codec.
+     * @param timeoutMs
+     *            wait for the server reply timeout.
+     * @return true if the server replied the negotiation, otherwise the
+     *         channel can't be used any more (because the earlier server may
+     *         have consumed the preamble as a corrupted stream) and should be
+     *         reconnected with java serialization codec.
+     * @throws IOException
+     *             Trigger when IO exception occurs
+     */
+    public boolean proposeCodec(SignalCodec proposed, int timeoutMs) throws IOException {
+        if (proposed.getId() == codec.getId()) {
+            return true;
+        }
+        writeBytes(SignalCodecs.preamble(proposed));
+        int originalTimeout = socket.getSoTimeout();
+        try {
+            socket.setSoTimeout(timeoutMs);
+            byte[] reply = new byte[SignalCodecs.PREAMBLE_LENGTH];
+            new DataInputStream(_in).readFully(reply);
+            // The server may accept another codec it supported.
+            if (SignalCodecs.isPreamble(reply, 0)) {
+                this.codec = SignalCodecs.getCodec(reply[2]);
+                return true;
+            }
+        } catch (SocketTimeoutException | EOFException e) {
+            // Ignore, the server not supported.
+        } finally {
+            if (!socket.isClosed()) {
+                socket.setSoTimeout(originalTimeout);
+            }
+        }
+        return false;
     }
 
     /**
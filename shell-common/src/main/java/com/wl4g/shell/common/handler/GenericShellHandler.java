@@ -16,7 +16,6 @@
 package com.wl4g.shell.common.handler;
 
 import static com.wl4g.infra.common.lang.Assert2.hasLength;
-import static com.wl4g.infra.common.lang.Assert2.hasText;
 import static com.wl4g.infra.common.lang.Assert2.isTrue;
 import static com.wl4g.infra.common.lang.Assert2.notEmpty;
 import static com.wl4g.infra.common.lang.Assert2.notNull;
@@ -24,39 +23,25 @@ import static com.wl4g.infra.common.lang.Assert2.notNullOf;
 import static com.wl4g.infra.common.lang.Exceptions.getRootCauses;
 import static com.wl4g.infra.common.lang.Exceptions.getRootCausesString;
 import static com.wl4g.infra.common.lang.SystemUtils2.LOCAL_PROCESS_ID;
-import static com.wl4g.infra.common.reflect.ReflectionUtils2.doFullWithFields;
-import static com.wl4g.infra.common.reflect.ReflectionUtils2.isGenericModifier;
 import static com.wl4g.shell.common.i18n.I18nResourceMessageBundles.getMessage;
-import static com.wl4g.shell.common.utils.ShellUtils.instantiateWithInitOptionValue;
 import static java.lang.String.format;
 import static java.lang.System.err;
 import static java.lang.System.getProperty;
 import static java.lang.System.out;
 import static java.util.Locale.US;
-import static org.apache.commons.lang3.StringUtils.equalsAny;
-import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.apache.commons.lang3.StringUtils.isEmpty;
 import static org.apache.commons.lang3.StringUtils.trimToEmpty;
 
 import java.nio.charset.Charset;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Objects;
-import java.util.Optional;
 import java.util.zip.CRC32;
 
-import com.wl4g.infra.common.reflect.TypeUtils2;
-import com.wl4g.shell.common.annotation.ShellOption;
 import com.wl4g.shell.common.config.BaseShellProperties;
 import com.wl4g.shell.common.exception.ShellException;
 import com.wl4g.shell.common.registry.ShellHandlerRegistrar;
 import com.wl4g.shell.common.registry.TargetMethodWrapper;
-import com.wl4g.shell.common.registry.TargetMethodWrapper.TargetParameter;
 import com.wl4g.shell.common.utils.LineUtils;
 
 /**
@@ -147,7 +132,7 @@ public abstract class GenericShellHandler implements ShellHandler {
      */
     protected Object doInvoke(String line, List<String> commands, String mainArg, TargetMethodWrapper tm, List<Object> args)
             throws Exception {
-        return tm.getMethod().invoke(tm.getTarget(), args.toArray());
+        return tm.invoke(args.toArray());
     }
 
     /**
@@ -168,85 +153,10 @@ public abstract class GenericShellHandler implements ShellHandler {
     protected List<Object> resolveParameters(List<String> commands, TargetMethodWrapper tm)
             throws IllegalArgumentException, IllegalAccessException, InstantiationException {
         notNull(tm, "Error, Should targetMethodWrapper not be null?");
+        notNull(tm.getBindingPlan(), "No parameters binding plan of shell method: %s", tm);
 
-        /*
-         * Commands to javaBean map and validate protected. (javaBean.fieldName
-         * or params.index(native type))->value
-         */
-        final Map<String, String> beanMap = new HashMap<>();
-        if (commands != null && !commands.isEmpty()) {
-            for (int i = 0; i < commands.size() - 1; i++) {
-                if (i % 2 == 0) {
-                    // Input opt
-                    String argname = commands.get(i);
-                    hasText(argname, format("Unable to get parameter name, i:%s", i));
-                    // Value(May be empty) See:[MARK3]
-                    String value = commands.get(i + 1);
-
-                    // Convert and save
-                    beanMap.put(convertIfNecessary(argname, tm), value);
-                }
-            }
-        }
-
-        // Method arguments.
-        final List<Object> args = new ArrayList<>();
-        for (TargetParameter parameter : tm.getParameters()) {
-            // [MARK1]: To native parameter, See:[TargetParameter.MARK7]
-            if (parameter.simpleType()) {
-                ShellOption shOpt = parameter.getShellOption();
-                // Matching argument value
-                Optional<Entry<String, String>> val = beanMap.entrySet().stream()
-                        .filter(arg -> equalsAny(arg.getKey(), shOpt.opt(), shOpt.lopt())).findFirst();
-
-                // Default value
-                String value = shOpt.defaultValue();
-                if (val.isPresent()) {
-                    value = val.get().getValue();
-                }
-
-                // Validate argument(if required)
-                if (shOpt.required() && !beanMap.containsKey(shOpt.opt()) && !beanMap.containsKey(shOpt.lopt())
-                        && isBlank(shOpt.defaultValue())) {
-                    throw new IllegalArgumentException(format("option: '-%s', '--%s' is required", shOpt.opt(), shOpt.lopt()));
-                }
-                args.add(TypeUtils2.instantiate(value, parameter.getParamType()));
-            }
-            // Convert javaBean parameter.
-            // See: TargetMethodWrapper#initialize
-            else {
-                Object paramBean = parameter.getParamType().newInstance();
-
-                // Recursive full traversal De-serialization.
-                doFullWithFields(paramBean, field -> {
-                    // [MARK4],See:[ShellUtils.MARK0][TargetParameter.MARK1]
-                    return isGenericModifier(field.getModifiers());
-                }, (field, objOfField) -> {
-                    if (Objects.isNull(objOfField)) {
-                        objOfField = TypeUtils2.instantiate(null, field.getType());
-                    }
-
-                    ShellOption shOpt = field.getDeclaredAnnotation(ShellOption.class);
-                    notNull(shOpt, "Error, Should shellOption not be null?");
-                    Object value = beanMap.get(field.getName());
-                    if (Objects.isNull(value)) {
-                        value = shOpt.defaultValue();
-                    }
-                    // Validate argument(if required)
-                    if (shOpt.required() && !beanMap.containsKey(field.getName()) && isBlank(shOpt.defaultValue())) {
-                        throw new IllegalArgumentException(
-                                format("option: '-%s', '--%s' is required", shOpt.opt(), shOpt.lopt()));
-                    }
-
-                    value = instantiateWithInitOptionValue((String) value, field.getType());
-                    field.setAccessible(true);
-                    field.set(objOfField, value);
-                });
-                args.add(paramBean);
-            }
-        }
-
-        return args;
+        // See: TargetMethodWrapper#initialize
+        return tm.getBindingPlan().bind(commands);
     }
 
     /**
@@ -285,19 +195,6 @@ public abstract class GenericShellHandler implements ShellHandler {
     protected void afterShellExecution(Object output) throws Exception {
     }
 
-    /**
-     * Convert argument to java bean actual param field name
-     * 
-     * @param argname
-     *            main command name.
-     * @param tm
-     *            target command execution method wrapper.
-     * @return java bean actual param field name or index(if native type)
-     */
-    protected String convertIfNecessary(String argname, TargetMethodWrapper tm) {
-        return tm.getSureParamName(LineUtils.clean(argname));
-    }
-
     /**
      * Resolve source commands
      * 
@@ -306,7 +203,7 @@ public abstract class GenericShellHandler implements ShellHandler {
      * @return resolved commands.
      */
     protected List<String> resolveCommands(String line) {
-        List<String> commands = LineUtils.parse(line);
+        List<String> commands = LineUtils.tokenize(line);
         notEmpty(commands, "Commands must not be empty");
         return commands;
     }
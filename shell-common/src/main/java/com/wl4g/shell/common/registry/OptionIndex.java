@@ -0,0 +1,95 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.common.registry;
+
+import static java.util.Collections.unmodifiableMap;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.wl4g.shell.common.cli.HelpOption;
+import com.wl4g.shell.common.registry.TargetMethodWrapper.TargetParameter;
+
+/**
+ * Immutable short/long options index of the shell method, so that resolving
+ * an option token is O(1) instead of scanning all the parameters attributes.
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+public class OptionIndex {
+
+    /**
+     * Option(opt and longOpt) to help option.
+     */
+    private final Map<String, HelpOption> options;
+
+    /**
+     * Option(opt and longOpt) to java bean actual param field name.
+     */
+    private final Map<String, String> paramNames;
+
+    public OptionIndex(List<TargetParameter> parameters) {
+        Map<String, HelpOption> options = new HashMap<>(8);
+        Map<String, String> paramNames = new HashMap<>(8);
+        for (TargetParameter parameter : parameters) {
+            for (Entry<HelpOption, String> attr : parameter.getAttributes().entrySet()) {
+                HelpOption option = attr.getKey();
+                options.put(option.getOpt(), option);
+                options.put(option.getLongOpt(), option);
+                // See:[TargetMethodWrapper.MARK0][AbstractActuator.MARK3]
+                if (isNotBlank(attr.getValue())) {
+                    paramNames.put(option.getOpt(), attr.getValue());
+                    paramNames.put(option.getLongOpt(), attr.getValue());
+                }
+            }
+        }
+        this.options = unmodifiableMap(options);
+        this.paramNames = unmodifiableMap(paramNames);
+    }
+
+    /**
+     * Gets help option by opt or longOpt.
+     *
+     * @param name
+     *            cleaned option name.
+     * @return help option, or null if not exists.
+     */
+    public HelpOption getOption(String name) {
+        return options.get(name);
+    }
+
+    public boolean contains(String name) {
+        return options.containsKey(name);
+    }
+
+    /**
+     * Acutal method parameter name, i.e. the field name of the java bean
+     * parameter option, otherwise is the option name itself.
+     *
+     * @param name
+     *            cleaned option name.
+     * @return Ensured parameter name.
+     */
+    public String getSureParamName(String name) {
+        return paramNames.getOrDefault(name, name);
+    }
+
+}
@@ -0,0 +1,358 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.common.registry;
+
+import static com.wl4g.infra.common.lang.Assert2.hasText;
+import static com.wl4g.infra.common.reflect.ReflectionUtils2.isGenericModifier;
+import static com.wl4g.infra.common.reflect.TypeUtils2.instantiateSimpleType;
+import static com.wl4g.infra.common.reflect.TypeUtils2.isSimpleType;
+import static com.wl4g.shell.common.registry.TargetMethodWrapper.TargetParameter.simpleType;
+import static com.wl4g.shell.common.utils.ShellUtils.instantiateWithInitOptionValue;
+import static java.lang.String.format;
+import static java.lang.System.err;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.wl4g.infra.common.reflect.TypeUtils2;
+import com.wl4g.shell.common.annotation.ShellOption;
+import com.wl4g.shell.common.registry.TargetMethodWrapper.TargetParameter;
+import com.wl4g.shell.common.utils.LineUtils;
+
+/**
+ * Precompiled parameters binding plan of the shell method. The options are
+ * indexed to the value slots, and the converters, default values, bean
+ * constructors and fields are resolved once at registration, so that binding
+ * the input commands is one pass without reflective lookups.
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+public class ParameterBindingPlan {
+
+    /**
+     * Option name(opt/lopt, and the field name of the bean parameter) to value
+     * slot index.
+     */
+    private final Map<String, Integer> slotIndex = new HashMap<>(8);
+
+    /**
+     * Value slots of all the options.
+     */
+    private final List<OptionSlot> slots = new ArrayList<>(8);
+
+    /**
+     * Method parameters binders (excluding {@link ShellAware}).
+     */
+    private final ParameterBinder[] binders;
+
+    ParameterBindingPlan(List<TargetParameter> parameters) {
+        this.binders = new ParameterBinder[parameters.size()];
+        for (int i = 0; i < binders.length; i++) {
+            TargetParameter parameter = parameters.get(i);
+            Class<?> paramType = parameter.getParamType();
+            if (parameter.simpleType()) {
+                ShellOption shOpt = parameter.getShellOption();
+                int slot = addSlot(new OptionSlot(shOpt, value -> TypeUtils2.instantiate(value, paramType), null, null),
+                        shOpt.opt(), shOpt.lopt());
+                binders[i] = new SimpleParameterBinder(slots.get(slot));
+            } else {
+                List<OptionSlot> fieldSlots = new ArrayList<>(8);
+                Class<?> cls = paramType;
+                do {
+                    compileFields(cls, new Field[0], fieldSlots);
+                } while (nonNull(cls = cls.getSuperclass()));
+                binders[i] = new BeanParameterBinder(paramType, findConstructor(paramType), fieldSlots);
+            }
+        }
+        // The field names are also accepted(lower priority than options).
+        for (int i = 0; i < slots.size(); i++) {
+            OptionSlot slot = slots.get(i);
+            if (nonNull(slot.field)) {
+                slotIndex.putIfAbsent(slot.field.getName(), i);
+            }
+        }
+    }
+
+    /**
+     * Binding the input commands (pairs of option and value) to the method
+     * arguments.
+     *
+     * @param commands
+     *            input commands excluding the main command.
+     * @return resolved method arguments.
+     * @throws IllegalAccessException
+     * @throws InstantiationException
+     */
+    public List<Object> bind(List<String> commands) throws IllegalAccessException, InstantiationException {
+        final String[] values = new String[slots.size()];
+        final boolean[] present = new boolean[values.length];
+        if (nonNull(commands)) {
+            for (int i = 0; i < commands.size() - 1; i += 2) {
+                String argname = commands.get(i);
+                hasText(argname, format("Unable to get parameter name, i:%s", i));
+                // Value(May be empty) See:[MARK3]
+                Integer slot = slotIndex.get(LineUtils.clean(argname));
+                if (nonNull(slot)) {
+                    values[slot] = commands.get(i + 1);
+                    present[slot] = true;
+                }
+            }
+        }
+
+        final List<Object> args = new ArrayList<>(binders.length + 1);
+        for (ParameterBinder binder : binders) {
+            args.add(binder.bind(values, present));
+        }
+        return args;
+    }
+
+    /**
+     * Whether the option name (opt/lopt, or the field name of the bean
+     * parameter) exists.
+     *
+     * @param name
+     * @return
+     */
+    public boolean hasOption(String name) {
+        return slotIndex.containsKey(name);
+    }
+
+    /**
+     * Gets the input value of the option, without converting, if absent then
+     * return the default value.
+     *
+     * @param commands
+     *            input commands excluding the main command.
+     * @param name
+     *            option name (opt/lopt, or the field name of the bean
+     *            parameter).
+     * @return the raw value, or null if no such option.
+     */
+    public String getOptionValue(List<String> commands, String name) {
+        Integer slot = slotIndex.get(name);
+        if (isNull(slot)) {
+            return null;
+        }
+        String value = slots.get(slot).option.defaultValue();
+        if (nonNull(commands)) {
+            for (int i = 0; i < commands.size() - 1; i += 2) {
+                if (slot.equals(slotIndex.get(LineUtils.clean(commands.get(i))))) {
+                    value = commands.get(i + 1);
+                }
+            }
+        }
+        return value;
+    }
+
+    private int addSlot(OptionSlot slot, String... names) {
+        int index = slots.size();
+        slot.index = index;
+        slots.add(slot);
+        for (String name : names) {
+            slotIndex.put(name, index);
+        }
+        return index;
+    }
+
+    /**
+     * Compile the option fields of bean, same as the
+     * {@link TargetParameter#populateArgumentDeepOptions(Class, TargetParameter)}
+     * the nested bean fields are recursive. The simple fields without
+     * {@link ShellOption} are never bound, and warned once at registration.
+     *
+     * @param clazz
+     * @param path
+     *            fields path from the parameter bean to the owner of fields.
+     * @param fieldSlots
+     */
+    private void compileFields(Class<?> clazz, Field[] path, List<OptionSlot> fieldSlots) {
+        for (Field f : clazz.getDeclaredFields()) {
+            Class<?> ftype = f.getType();
+            // [MARK4],See:[ShellUtils.MARK0][TargetParameter.MARK1]
+            if (ShellAware.class.isAssignableFrom(ftype) || !isGenericModifier(f.getModifiers())) {
+                continue;
+            }
+            f.setAccessible(true);
+            if (simpleType(ftype)) {
+                ShellOption shOpt = f.getAnnotation(ShellOption.class);
+                if (nonNull(shOpt)) {
+                    ValueConverter converter = isSimpleType(ftype) ? value -> instantiateSimpleType(value, ftype)
+                            : value -> instantiateWithInitOptionValue(value, ftype);
+                    OptionSlot slot = new OptionSlot(shOpt, converter, f, path);
+                    addSlot(slot, shOpt.opt(), shOpt.lopt());
+                    fieldSlots.add(slot);
+                } else {
+                    err.println(format(
+                            "WARNINGS: The field: '%s' is not annotated by @%s, it will not be bound from the input options, and keeps the initial value.",
+                            f, ShellOption.class.getSimpleName()));
+                }
+            } else {
+                Field[] nested = Arrays.copyOf(path, path.length + 1);
+                nested[path.length] = f;
+                compileFields(ftype, nested, fieldSlots);
+            }
+        }
+    }
+
+    private static Constructor<?> findConstructor(Class<?> clazz) {
+        try {
+            Constructor<?> constructor = clazz.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor;
+        } catch (NoSuchMethodException | SecurityException e) {
+            return null; // Fails when binding, same as before.
+        }
+    }
+
+    private static Object newInstance(Class<?> clazz, Constructor<?> constructor)
+            throws InstantiationException, IllegalAccessException {
+        if (isNull(constructor)) {
+            throw new InstantiationException(format("No default constructor of shell parameter type: %s", clazz));
+        }
+        try {
+            return constructor.newInstance();
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException(e.getTargetException());
+        }
+    }
+
+    /**
+     * Value converter of option.
+     */
+    @FunctionalInterface
+    static interface ValueConverter {
+        Object convert(String value);
+    }
+
+    /**
+     * Value slot of option.
+     */
+    static class OptionSlot {
+        final ShellOption option;
+        final ValueConverter converter;
+        /** Null if the option of simple parameter. */
+        final Field field;
+        final Field[] path;
+        final Constructor<?>[] pathConstructors;
+        /** Pre-converted immutable default value, or null. */
+        final Object defaultValue;
+        final boolean requiredWithoutDefault;
+        int index;
+
+        OptionSlot(ShellOption option, ValueConverter converter, Field field, Field[] path) {
+            this.option = option;
+            this.converter = converter;
+            this.field = field;
+            this.path = isNull(path) ? new Field[0] : path;
+            this.pathConstructors = new Constructor<?>[this.path.length];
+            for (int i = 0; i < this.path.length; i++) {
+                pathConstructors[i] = findConstructor(this.path[i].getType());
+            }
+            this.defaultValue = preConvertDefault(option, converter);
+            this.requiredWithoutDefault = option.required() && isBlank(option.defaultValue());
+        }
+
+        Object resolve(String[] values, boolean[] present) {
+            if (present[index]) {
+                return converter.convert(values[index]);
+            }
+            // Validate argument(if required)
+            if (requiredWithoutDefault) {
+                throw new IllegalArgumentException(format("option: '-%s', '--%s' is required", option.opt(), option.lopt()));
+            }
+            return nonNull(defaultValue) ? defaultValue : converter.convert(option.defaultValue());
+        }
+
+        /**
+         * Only the immutable default values are shared by invocations, e.g. the
+         * collections are converted per invocation.
+         */
+        private static Object preConvertDefault(ShellOption option, ValueConverter converter) {
+            try {
+                Object value = converter.convert(option.defaultValue());
+                if (value instanceof String || value instanceof Number || value instanceof Boolean
+                        || value instanceof Character || value instanceof Enum) {
+                    return value;
+                }
+            } catch (Exception e) {
+                // Invalid default value fails when binding, same as before.
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Binder of method parameter.
+     */
+    static interface ParameterBinder {
+        Object bind(String[] values, boolean[] present) throws IllegalAccessException, InstantiationException;
+    }
+
+    static class SimpleParameterBinder implements ParameterBinder {
+        final OptionSlot slot;
+
+        SimpleParameterBinder(OptionSlot slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        public Object bind(String[] values, boolean[] present) {
+            return slot.resolve(values, present);
+        }
+    }
+
+    static class BeanParameterBinder implements ParameterBinder {
+        final Class<?> beanClass;
+        final Constructor<?> constructor;
+        final OptionSlot[] fieldSlots;
+
+        BeanParameterBinder(Class<?> beanClass, Constructor<?> constructor, List<OptionSlot> fieldSlots) {
+            this.beanClass = beanClass;
+            this.constructor = constructor;
+            this.fieldSlots = fieldSlots.toArray(new OptionSlot[0]);
+        }
+
+        @Override
+        public Object bind(String[] values, boolean[] present) throws IllegalAccessException, InstantiationException {
+            Object bean = newInstance(beanClass, constructor);
+            for (OptionSlot slot : fieldSlots) {
+                Object owner = bean;
+                for (int i = 0; i < slot.path.length; i++) {
+                    Object nested = slot.path[i].get(owner);
+                    if (isNull(nested)) {
+                        nested = newInstance(slot.path[i].getType(), slot.pathConstructors[i]);
+                        slot.path[i].set(owner, nested);
+                    }
+                    owner = nested;
+                }
+                slot.field.set(owner, slot.resolve(values, present));
+            }
+            return bean;
+        }
+    }
+
+}
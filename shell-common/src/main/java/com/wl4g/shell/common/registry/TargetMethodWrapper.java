@@ -28,26 +28,28 @@ import static com.wl4g.shell.common.registry.TargetMethodWrapper.TargetParameter
 import static com.wl4g.shell.common.registry.TargetMethodWrapper.TargetParameter.simpleType;
 import static java.lang.String.format;
 import static java.lang.System.err;
+import static java.lang.invoke.MethodType.methodType;
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
-import static org.apache.commons.lang3.StringUtils.equalsAny;
 import static org.apache.commons.lang3.StringUtils.isAlpha;
-import static org.apache.commons.lang3.StringUtils.isNotBlank;
 
 import java.io.Serializable;
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.stream.Collectors;
 
-import org.apache.commons.cli.Option;
-
 import com.wl4g.shell.common.annotation.ShellMethod;
+import com.wl4g.shell.common.annotation.ShellMethod.LockScope;
 import com.wl4g.shell.common.annotation.ShellOption;
 import com.wl4g.shell.common.cli.BuiltInCommand;
 import com.wl4g.shell.common.cli.HelpOption;
@@ -78,6 +80,22 @@ public class TargetMethodWrapper implements Serializable {
      */
     private transient final Object target;
 
+    /**
+     * Precompiled invoker of the target method which bound to the target
+     * object, the type is (Object[])Object.
+     */
+    private transient final MethodHandle invoker;
+
+    /**
+     * Precompiled parameters binding plan.
+     */
+    private transient final ParameterBindingPlan bindingPlan;
+
+    /**
+     * Immutable options index, lazy built (also after deserialized).
+     */
+    private transient volatile OptionIndex optionIndex;
+
     /**
      * Method parameters information
      */
@@ -113,6 +131,12 @@ public class TargetMethodWrapper implements Serializable {
 
         // Initialization
         initialize();
+        this.invoker = buildInvoker(method, target);
+        this.bindingPlan = new ParameterBindingPlan(parameters);
+        if (sm.lock() && sm.lockScope() == LockScope.ARGUMENT) {
+            isTrue(bindingPlan.hasOption(sm.lockArgument()),
+                    String.format("The lock argument: '%s' of shell method: '%s' is not an option.", sm.lockArgument(), method));
+        }
     }
 
     public ShellMethod getShellMethod() {
@@ -131,6 +155,56 @@ public class TargetMethodWrapper implements Serializable {
         return parameters;
     }
 
+    /**
+     * Gets the precompiled parameters binding plan, it's null if deserialized
+     * from remote.
+     * 
+     * @return
+     */
+    public ParameterBindingPlan getBindingPlan() {
+        return bindingPlan;
+    }
+
+    /**
+     * Invoking the target method with the precompiled invoker, the exception
+     * thrown by the target method is propagated directly (not wrapped), also
+     * on the reflective fallback.
+     * 
+     * @param args
+     *            target method arguments.
+     * @return the target method return value.
+     * @throws Exception
+     */
+    public Object invoke(Object[] args) throws Exception {
+        // e.g. deserialized from remote meta.
+        if (isNull(invoker)) {
+            try {
+                return getMethod().invoke(getTarget(), args);
+            } catch (InvocationTargetException e) {
+                throw rethrow(e.getTargetException());
+            }
+        }
+        try {
+            return (Object) invoker.invokeExact(args);
+        } catch (Throwable th) {
+            throw rethrow(th);
+        }
+    }
+
+    /**
+     * The exception of target method to rethrow as is, the errors are thrown
+     * directly, and the other throwables are wrapped.
+     */
+    private static Exception rethrow(Throwable th) {
+        if (th instanceof Error) {
+            throw (Error) th;
+        }
+        if (th instanceof Exception) {
+            return (Exception) th;
+        }
+        return new IllegalStateException(th);
+    }
+
     public HelpOptions getOptions() {
         final HelpOptions options = new HelpOptions(getShellMethod());
         getParameters().forEach(parameter -> {
@@ -147,19 +221,21 @@ public class TargetMethodWrapper implements Serializable {
      * @return Ensured parameter name.
      */
     public String getSureParamName(String argname) {
-        for (TargetParameter parameter : getParameters()) {
-            for (Entry<HelpOption, String> attr : parameter.getAttributes().entrySet()) {
-                Option option = attr.getKey();
-                if (equalsAny(argname, option.getOpt(), option.getLongOpt())) {
-                    // See:[MARK0][AbstractActuator.MARK3]
-                    if (isNotBlank(attr.getValue())) {
-                        return attr.getValue();
-                    }
-                }
-            }
-        }
+        return getOptionIndex().getSureParamName(argname);
+    }
 
-        return argname;
+    /**
+     * Gets the short/long options index.
+     * 
+     * @return
+     */
+    public OptionIndex getOptionIndex() {
+        OptionIndex index = optionIndex;
+        if (isNull(index)) {
+            // Immutable, it doesn't matter if built repeatedly.
+            optionIndex = index = new OptionIndex(getParameters());
+        }
+        return index;
     }
 
     @Override
@@ -231,6 +307,27 @@ public class TargetMethodWrapper implements Serializable {
 
     }
 
+    /**
+     * Build the method invoker of type (Object[])Object, which is bound to the
+     * target object and spreads the arguments array.
+     * 
+     * @param method
+     * @param target
+     * @return
+     */
+    private static MethodHandle buildInvoker(Method method, Object target) {
+        try {
+            method.setAccessible(true);
+            MethodHandle mh = MethodHandles.lookup().unreflect(method);
+            if (!Modifier.isStatic(method.getModifiers())) {
+                mh = mh.bindTo(notNull(target, "Shell target object must not be null, method: %s", method));
+            }
+            return mh.asSpreader(Object[].class, method.getParameterCount()).asType(methodType(Object.class, Object[].class));
+        } catch (IllegalAccessException | SecurityException e) {
+            throw new IllegalStateException(format("Cannot build invoker of shell method: %s", method), e);
+        }
+    }
+
     /**
      * Find shell option annotation configuration
      * 
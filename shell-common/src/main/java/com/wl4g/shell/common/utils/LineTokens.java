@@ -0,0 +1,331 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.common.utils;
+
+import static java.util.Arrays.copyOf;
+import static org.apache.commons.lang3.StringUtils.EMPTY;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Single-pass command line tokenizer, the result is an index-based tokens view
+ * over the original line, i.e. the tokens are sub-strings materialized on
+ * demand, only the quoted, escaped or repaired tokens are copied.
+ *
+ * <p>
+ * The tokens are the main command followed by the pairs of option and value,
+ * the same as before:
+ * </p>
+ *
+ * <pre>
+ * add -a 10 -b -c                  =&gt; [add, -a, 10, -b, , -c, ]
+ * arg1 -l x1, x2 -m a1=b1, a2 = b2 =&gt; [arg1, -l, x1,x2, -m, a1=b1,a2=b2]
+ * help add                         =&gt; [help, add, ]
+ * </pre>
+ *
+ * And supports quoting and escapes, the quoted or escaped value is never
+ * treated as an option:
+ *
+ * <pre>
+ * echo -m "hello  world" -n '-5'   =&gt; [echo, -m, hello  world, -n, -5]
+ * echo -m \-5 -p a\ b              =&gt; [echo, -m, -5, -p, a b]
+ * </pre>
+ *
+ * The escapable chars are <code>" ' \ -</code> and space, otherwise the
+ * backslash is literal (e.g. windows path).
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+public final class LineTokens extends AbstractList<String> implements RandomAccess {
+
+    private final String line;
+    private int size;
+    /** Offsets of token in the line, the materialized tokens are ignored. */
+    private int[] starts;
+    private int[] ends;
+    /** Materialized tokens, the others are sub-strings on demand. */
+    private String[] values;
+
+    private LineTokens(String line, int capacity) {
+        this.line = line;
+        this.starts = new int[capacity];
+        this.ends = new int[capacity];
+        this.values = new String[capacity];
+    }
+
+    public String getLine() {
+        return line;
+    }
+
+    @Override
+    public String get(int index) {
+        checkIndex(index);
+        String value = values[index];
+        if (value == null) {
+            value = values[index] = line.substring(starts[index], ends[index]);
+        }
+        return value;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes the token, e.g. removes the main command.
+     */
+    @Override
+    public String remove(int index) {
+        String old = get(index);
+        int moved = size - index - 1;
+        if (moved > 0) {
+            System.arraycopy(starts, index + 1, starts, index, moved);
+            System.arraycopy(ends, index + 1, ends, index, moved);
+            System.arraycopy(values, index + 1, values, index, moved);
+        }
+        values[--size] = null;
+        ++modCount;
+        return old;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private void add(int start, int end, String value) {
+        starts[size] = start;
+        ends[size] = end;
+        values[size] = value;
+        ++size;
+    }
+
+    /**
+     * Tokenize the command line.
+     *
+     * @param line
+     *            input commands line string.
+     * @return tokens view.
+     */
+    public static LineTokens tokenize(String line) {
+        if (line == null) {
+            return new LineTokens(EMPTY, 0);
+        }
+        // Trim, same as trimToEmpty
+        int from = 0, to = line.length();
+        while (from < to && line.charAt(from) <= ' ') {
+            ++from;
+        }
+        while (to > from && line.charAt(to - 1) <= ' ') {
+            --to;
+        }
+        Words words = Words.scan(line, from, to);
+
+        // Groups of words, the consecutive non-option words are joined,
+        // e.g. arg1 -l x1, x2 => arg1 -l x1,x2 (unless only 2 words, e.g.
+        // help add).
+        Words groups = words;
+        if (words.size > 2) {
+            groups.join(line);
+        }
+
+        // Main command followed by the pairs of option and value.
+        LineTokens tokens = new LineTokens(line, groups.size * 2);
+        for (int i = 0; i < groups.size; i++) {
+            if (i == 0) {
+                tokens.add(groups.starts[i], groups.ends[i], groups.values[i]);
+                continue;
+            }
+            groups.addTrimmed(line, i, tokens);
+            if (i < groups.size - 1 && !groups.isOption(line, i + 1)) {
+                groups.addTrimmed(line, ++i, tokens);
+            } else { // Example(-b/-c): $> add -a 10 -b -c
+                tokens.add(0, 0, EMPTY);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Words separated by space of the line.
+     */
+    private static final class Words {
+        int size;
+        int[] starts;
+        int[] ends;
+        /** Decoded(quoted/escaped) or joined words, otherwise null. */
+        String[] values;
+        /** Flags of {@link #DASH} and {@link #DECODED}. */
+        byte[] flags;
+
+        Words(int capacity) {
+            starts = new int[capacity];
+            ends = new int[capacity];
+            values = new String[capacity];
+            flags = new byte[capacity];
+        }
+
+        void add(int start, int end, String value, byte flag) {
+            if (size == starts.length) {
+                int capacity = size * 2;
+                starts = copyOf(starts, capacity);
+                ends = copyOf(ends, capacity);
+                values = copyOf(values, capacity);
+                flags = copyOf(flags, capacity);
+            }
+            starts[size] = start;
+            ends[size] = end;
+            values[size] = value;
+            flags[size] = flag;
+            ++size;
+        }
+
+        boolean isDash(int i) {
+            return (flags[i] & DASH) != 0;
+        }
+
+        boolean isDecoded(int i) {
+            return (flags[i] & DECODED) != 0;
+        }
+
+        String text(String line, int i) {
+            return (values[i] != null) ? values[i] : line.substring(starts[i], ends[i]);
+        }
+
+        /**
+         * Joins the consecutive non-option words in place.
+         */
+        void join(String line) {
+            int n = 0;
+            boolean prevDash = true;
+            for (int i = 0; i < size; i++) {
+                boolean dash = isDash(i);
+                if (!dash && !prevDash) {
+                    values[n - 1] = text(line, n - 1).concat(text(line, i));
+                    ends[n - 1] = ends[i];
+                } else {
+                    starts[n] = starts[i];
+                    ends[n] = ends[i];
+                    values[n] = values[i];
+                    flags[n] = flags[i];
+                    ++n;
+                }
+                prevDash = dash;
+            }
+            size = n;
+        }
+
+        /**
+         * Whether the group is an option, the decoded group is an option only
+         * if starts with an unquoted dash.
+         */
+        boolean isOption(String line, int i) {
+            if (isDecoded(i)) {
+                return isDash(i);
+            }
+            if (values[i] != null) {
+                return values[i].trim().startsWith("-");
+            }
+            int start = starts[i], end = ends[i];
+            while (start < end && line.charAt(start) <= ' ') {
+                ++start;
+            }
+            return start < end && line.charAt(start) == '-';
+        }
+
+        /**
+         * Adds the trimmed group (the quoted is not trimmed) to tokens.
+         */
+        void addTrimmed(String line, int i, LineTokens tokens) {
+            if (isDecoded(i)) {
+                tokens.add(starts[i], ends[i], values[i]);
+            } else if (values[i] != null) {
+                tokens.add(starts[i], ends[i], values[i].trim());
+            } else {
+                int start = starts[i], end = ends[i];
+                while (start < end && line.charAt(start) <= ' ') {
+                    ++start;
+                }
+                while (end > start && line.charAt(end - 1) <= ' ') {
+                    --end;
+                }
+                tokens.add(start, end, null);
+            }
+        }
+
+        /**
+         * Scan the words of line in single pass.
+         */
+        static Words scan(String line, int from, int to) {
+            Words words = new Words(8);
+            int i = from;
+            while (i < to) {
+                char c = line.charAt(i);
+                if (c == ' ') {
+                    ++i;
+                    continue;
+                }
+                int start = i;
+                boolean dash = (c == '-');
+                StringBuilder decoded = null;
+                while (i < to && (c = line.charAt(i)) != ' ') {
+                    if (c == '"' || c == '\'') { // Quoted, e.g. "a b" or 'a b'
+                        if (decoded == null) {
+                            decoded = new StringBuilder(to - start).append(line, start, i);
+                        }
+                        char quote = c;
+                        for (++i; i < to && (c = line.charAt(i)) != quote; ++i) {
+                            if (c == '\\' && quote == '"' && i + 1 < to && isEscapable(line.charAt(i + 1))) {
+                                c = line.charAt(++i);
+                            }
+                            decoded.append(c);
+                        }
+                        ++i; // Closing quote(if any)
+                    } else if (c == '\\' && i + 1 < to && isEscapable(line.charAt(i + 1))) {
+                        if (decoded == null) {
+                            decoded = new StringBuilder(to - start).append(line, start, i);
+                        }
+                        decoded.append(line.charAt(i + 1));
+                        i += 2;
+                    } else {
+                        if (decoded != null) {
+                            decoded.append(c);
+                        }
+                        ++i;
+                    }
+                }
+                byte flag = (byte) ((dash ? DASH : 0) | (decoded != null ? DECODED : 0));
+                words.add(start, Math.min(i, to), (decoded == null) ? null : decoded.toString(), flag);
+            }
+            return words;
+        }
+
+        private static boolean isEscapable(char c) {
+            return c == '"' || c == '\'' || c == '\\' || c == '-' || c == ' ';
+        }
+
+        /** Starts with an unquoted and unescaped dash. */
+        static final byte DASH = 1;
+        /** Quoted or escaped. */
+        static final byte DECODED = 2;
+    }
+
+}
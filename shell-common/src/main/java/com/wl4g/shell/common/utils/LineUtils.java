@@ -16,16 +16,14 @@
 package com.wl4g.shell.common.utils;
 
 import static org.apache.commons.lang3.StringUtils.EMPTY;
-import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
-import static org.apache.commons.lang3.StringUtils.split;
 import static org.apache.commons.lang3.StringUtils.startsWith;
-import static org.apache.commons.lang3.StringUtils.trimToEmpty;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.LinkedList;
+import java.util.List;
 
 import org.apache.commons.exec.CommandLine;
 import org.apache.commons.exec.DefaultExecutor;
@@ -44,18 +42,26 @@ public abstract class LineUtils {
     public static final Charset UTF_8 = Charset.forName("UTF-8");
 
     /**
-     * Resolve source commands
+     * Resolve source commands, see {@link LineTokens}
      * 
      * @param line
      *            input commands line string.
-     * @return Parsed commands array.
+     * @return Parsed commands list.
+     * @see #tokenize(String)
      */
     public static LinkedList<String> parse(String line) {
-        if (isBlank(line)) {
-            return new LinkedList<>();
-        }
-        String[] args = split(repairLineSpace(line), " ");
-        return parse(args);
+        return new LinkedList<>(LineTokens.tokenize(line));
+    }
+
+    /**
+     * Resolve source commands without copying, see {@link LineTokens}
+     * 
+     * @param line
+     *            input commands line string.
+     * @return Parsed commands tokens view.
+     */
+    public static List<String> tokenize(String line) {
+        return LineTokens.tokenize(line);
     }
 
     /**
@@ -155,49 +161,11 @@ public abstract class LineUtils {
         return argname;
     }
 
-    /**
-     * Repair input line.
-     * 
-     * <pre>
-     * e.g. arg1 -l x1, x2 -m a1=b1, a2 = b2 -p aa1=bb1,aa2= bb2 -s x3, , x4 
-     * =>  arg1 -l x1,x2 -m a1=b1,a2=b2 -p aa1=bb1,aa2=bb2 -s x3,,x4
-     * </pre>
-     * 
-     * @param line
-     *            input commands line string.
-     * @return repaired line string.
-     */
-    private static String repairLineSpace(String line) {
-        line = trimToEmpty(line);
-        StringBuffer newLine = new StringBuffer();
-        String args[] = split(line, " ");
-
-        // e.g. arg1 -l x1, x2 -m a1=b1, a2 = b2 -p aa1=bb1,aa2= bb2 -s x3, , x4
-        if (args.length > 2) {
-            for (String arg : args) {
-                if (startsWith(arg, "-")) {
-                    newLine.append(" ");
-                    newLine.append(arg);
-                    newLine.append(" ");
-                } else {
-                    newLine.append(arg);
-                }
-            }
-        }
-        // e.g. help mycmd/mycmd --help
-        else {
-            newLine.append(line);
-        }
-
-        return newLine.toString();
-    }
-
     public static void main(String[] args) {
         // System.out.println(parse("add1 -a 11 -b "));
         // System.out.println(parse(" ").size());
         // System.out.println(execAsString("cmd.exe /p /h C:\\Document"));
         String s = "arg1 -l x1, x2 -m a1=b1, a2 = b2 -p aa1=bb1,aa2= bb2 -s x3, , x4 ";
-        System.out.println(repairLineSpace(s));
         System.out.println(parse(s));
     }
 
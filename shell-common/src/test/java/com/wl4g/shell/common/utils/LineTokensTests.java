@@ -0,0 +1,127 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.common.utils;
+
+import static java.util.Arrays.asList;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.apache.commons.lang3.StringUtils.split;
+import static org.apache.commons.lang3.StringUtils.splitPreserveAllTokens;
+import static org.apache.commons.lang3.StringUtils.startsWith;
+import static org.apache.commons.lang3.StringUtils.trimToEmpty;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * {@link LineTokensTests}, the unquoted lines must be parsed exactly the same
+ * as the previous (repair/split/trim) implementation.
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+public class LineTokensTests {
+
+    @Test
+    public void testGoldenLines() {
+        for (String line : GOLDEN_LINES) {
+            assertTokens(line, previousParse(line), LineUtils.tokenize(line));
+        }
+    }
+
+    @Test
+    public void testQuotedGoldenLines() {
+        for (String[] golden : QUOTED_GOLDEN_LINES) {
+            assertTokens(golden[0], asList(splitPreserveAllTokens(golden[1], "|")), LineUtils.tokenize(golden[0]));
+        }
+    }
+
+    @Test
+    public void testFuzzLines() {
+        Random random = new Random(20210712L);
+        char[] alphabet = { ' ', ' ', ' ', '-', '-', 'a', 'b', '1', ',', '=', '\t', 'x' };
+        for (int n = 0; n < 100_000; n++) {
+            char[] chars = new char[random.nextInt(24)];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = alphabet[random.nextInt(alphabet.length)];
+            }
+            String line = new String(chars);
+            assertTokens(line, previousParse(line), LineUtils.tokenize(line));
+        }
+    }
+
+    @Test
+    public void testParseReturnsLinkedList() {
+        LinkedList<String> commands = LineUtils.parse("add -a 10 -b -c");
+        assertEquals(asList("add", "-a", "10", "-b", "", "-c", ""), commands);
+        assertEquals("add", commands.removeFirst());
+    }
+
+    @Test
+    public void testRemoveMainCommand() {
+        List<String> commands = LineUtils.tokenize("add -a 10");
+        assertEquals("add", commands.remove(0));
+        assertEquals(asList("-a", "10"), new ArrayList<>(commands));
+        assertTrue(LineUtils.tokenize("  ").isEmpty());
+    }
+
+    private static void assertTokens(String line, List<String> expected, List<String> actual) {
+        assertEquals("line: '" + line + "'", new ArrayList<>(expected), new ArrayList<>(actual));
+    }
+
+    /**
+     * The previous implementation of {@link LineUtils#parse(String)}.
+     */
+    private static LinkedList<String> previousParse(String line) {
+        if (isBlank(line)) {
+            return new LinkedList<>();
+        }
+        line = trimToEmpty(line);
+        StringBuffer newLine = new StringBuffer();
+        String args[] = split(line, " ");
+        if (args.length > 2) {
+            for (String arg : args) {
+                if (startsWith(arg, "-")) {
+                    newLine.append(" ");
+                    newLine.append(arg);
+                    newLine.append(" ");
+                } else {
+                    newLine.append(arg);
+                }
+            }
+        } else {
+            newLine.append(line);
+        }
+        return LineUtils.parse(split(newLine.toString(), " "));
+    }
+
+    static final String[] GOLDEN_LINES = { "", " ", "add", "add -a 10 -b 20", "add -a 10 -b -c", "add -a 10 -b ", "help add",
+            "add --help", "  add   -a   1  ", "arg1 -l x1, x2 -m a1=b1, a2 = b2 -p aa1=bb1,aa2= bb2 -s x3, , x4 ",
+            "add foo -a 1", "add -a -1", "add -a x y z -b", "-x", "--x y", "add\t-a 1", "add -a\t1 -b" };
+
+    /** Line and the expected tokens separated by '|'. */
+    static final String[][] QUOTED_GOLDEN_LINES = { { "echo -m \"hello  world\" -n '-5'", "echo|-m|hello  world|-n|-5" },
+            { "echo -m \\-5 -p a\\ b", "echo|-m|-5|-p|a b" }, { "echo -m \"a \\\"b\\\"\"", "echo|-m|a \"b\"" },
+            { "echo -m '' -n x", "echo|-m||-n|x" }, { "echo -p C:\\dir\\file", "echo|-p|C:\\dir\\file" },
+            { "echo -m \"unterminated", "echo|-m|unterminated" } };
+
+}
@@ -24,6 +24,8 @@ import com.wl4g.shell.core.cache.MemoryShellCache;
 import com.wl4g.shell.core.cache.ShellCache;
 import com.wl4g.shell.core.config.ServerShellProperties;
 import com.wl4g.shell.core.handler.EmbeddedShellServer;
+import com.wl4g.shell.core.handler.NioEmbeddedShellServer;
+import com.wl4g.shell.core.handler.ShellExecutorFactory;
 
 /**
  * Budiler of {@link EmbeddedShellServer}
@@ -46,6 +48,9 @@ public class EmbeddedShellServerBuilder {
     /** {@link ShellHandlerRegistrar} */
     private ShellHandlerRegistrar registrar = new ShellHandlerRegistrar();
 
+    /** {@link ShellExecutorFactory} */
+    private ShellExecutorFactory executorFactory;
+
     private EmbeddedShellServerBuilder() {
     }
 
@@ -102,6 +107,19 @@ public class EmbeddedShellServerBuilder {
         return this;
     }
 
+    /**
+     * Sets executor factory of the channel readers and the commands process
+     * workers of {@link ShellExecutorFactory}, if not set then create by
+     * {@link ServerShellProperties#isVirtualThreads()}.
+     * 
+     * @param executorFactory
+     * @return
+     */
+    public EmbeddedShellServerBuilder withExecutorFactory(ShellExecutorFactory executorFactory) {
+        this.executorFactory = notNullOf(executorFactory, "executorFactory");
+        return this;
+    }
+
     /**
      * Registration shell component instance.
      * 
@@ -118,7 +136,10 @@ public class EmbeddedShellServerBuilder {
     }
 
     public EmbeddedShellServer build() {
-        return new EmbeddedShellServer(config, appName, registrar, shellCache);
+        if (config.getNio().isEnabled()) {
+            return new NioEmbeddedShellServer(config, appName, registrar, shellCache, executorFactory);
+        }
+        return new EmbeddedShellServer(config, appName, registrar, shellCache, executorFactory);
     }
 
 }
@@ -15,8 +15,30 @@
  */
 package com.wl4g.shell.core.cache;
 
+import static com.wl4g.infra.common.lang.Assert2.hasTextOf;
 import static com.wl4g.infra.common.lang.Assert2.notNullOf;
+import static com.wl4g.infra.common.log.SmartLoggerFactory.getLogger;
+import static com.wl4g.infra.common.lang.Assert2.state;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyIterator;
+import static java.util.Objects.nonNull;
 
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+import com.wl4g.infra.common.log.SmartLogger;
+import com.wl4g.shell.core.cache.ShellCachePipeline.Operation;
+import com.wl4g.shell.core.cache.codec.ShellCacheCodec;
+import com.wl4g.shell.core.cache.codec.ShellCacheCodecs;
 import com.wl4g.shell.core.config.ServerShellProperties;
 
 /**
@@ -28,17 +50,264 @@ import com.wl4g.shell.core.config.ServerShellProperties;
  */
 public abstract class AbstractRedisShellCache implements ShellCache {
     protected static final String UNLOCK_LUA = "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end";
+    protected static final byte[] RAW_UNLOCK_LUA = UNLOCK_LUA.getBytes(UTF_8);
+    protected static final String EXPIRE_LUA = "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end";
+    protected static final byte[] RAW_EXPIRE_LUA = EXPIRE_LUA.getBytes(UTF_8);
 
     protected final ServerShellProperties config;
 
+    /** Codec of the values, the keys are always UTF-8. */
+    protected final ShellCacheCodec codec;
+
+    private final byte[] rawOpsKey;
+
     public AbstractRedisShellCache(ServerShellProperties config) {
         this.config = notNullOf(config, "config");
+        this.codec = ShellCacheCodecs.getCodec(config.getCacheCodec());
+        this.rawOpsKey = rawKey(getOpsKey());
     }
 
     protected String getOpsKey() {
         return SESSION_KEY_PREFIX;
     }
 
+    protected byte[] getRawOpsKey() {
+        return rawOpsKey;
+    }
+
+    protected byte[] encode(Object value) {
+        return codec.encode(value);
+    }
+
+    protected <V> V decode(byte[] data, Class<V> valueClass) {
+        return codec.decode(data, valueClass);
+    }
+
+    /**
+     * Encode the values of fields.
+     * 
+     * @param values
+     * @return
+     */
+    protected <V> Map<byte[], byte[]> encodeValues(Map<String, V> values) {
+        Map<byte[], byte[]> rawValues = new LinkedHashMap<>(values.size() * 2);
+        for (Entry<String, V> ent : values.entrySet()) {
+            rawValues.put(rawKey(ent.getKey()), encode(ent.getValue()));
+        }
+        return rawValues;
+    }
+
+    /**
+     * Decode the values of batch get.
+     * 
+     * @param rawValues
+     * @param valueClass
+     * @return
+     */
+    protected <V> List<V> decodeValues(Collection<byte[]> rawValues, Class<V> valueClass) {
+        List<V> values = new ArrayList<>(rawValues.size());
+        for (byte[] value : rawValues) {
+            values.add(decode(value, valueClass));
+        }
+        return values;
+    }
+
+    /**
+     * Arguments of {@link #RAW_EXPIRE_LUA}, the argument is encoded the same
+     * as the value.
+     * 
+     * @param arg
+     * @param expireMs
+     * @return
+     */
+    protected List<byte[]> expireArgs(String arg, long expireMs) {
+        return asList(encode(arg), rawKey(String.valueOf(expireMs)));
+    }
+
+    /**
+     * Convert the raw replies of pipeline to the results of
+     * {@link ShellCachePipeline}.
+     * 
+     * @param operations
+     * @param replies
+     * @return
+     */
+    protected List<Object> convertPipelineReplies(List<Operation> operations, List<?> replies) {
+        state(operations.size() == replies.size(), "Mismatched pipeline replies: %s, operations: %s", replies.size(),
+                operations.size());
+        List<Object> results = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            Operation op = operations.get(i);
+            Object reply = replies.get(i);
+            switch (op.getType()) {
+            case HGET:
+            case GET:
+                results.add(decode((byte[]) reply, op.getValueClass()));
+                break;
+            case INCR:
+                results.add(reply);
+                break;
+            case HSET:
+                // The reply is 0 if overwritten, it's also written.
+                results.add(nonNull(reply));
+                break;
+            default:
+                results.add(isSuccessReply(reply));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Whether the reply of write command is success, e.g. OK or the number of
+     * affected greater than 0.
+     */
+    protected static boolean isSuccessReply(Object reply) {
+        if (reply instanceof Boolean) {
+            return (Boolean) reply;
+        } else if (reply instanceof Number) {
+            return ((Number) reply).longValue() > 0;
+        }
+        return "OK".equalsIgnoreCase(String.valueOf(reply));
+    }
+
+    protected static byte[] rawKey(String key) {
+        return key.getBytes(UTF_8);
+    }
+
+    protected static byte[][] rawKeys(Collection<String> keys) {
+        byte[][] rawKeys = new byte[keys.size()][];
+        int i = 0;
+        for (String key : keys) {
+            rawKeys[i++] = rawKey(key);
+        }
+        return rawKeys;
+    }
+
+    /**
+     * Subscription on a dedicated background thread, the subscribing (e.g.
+     * SUBSCRIBE of jedis) blocks the thread until unsubscribed, and is retried
+     * after the failure until closed.
+     */
+    protected static abstract class BackgroundSubscription implements Closeable {
+        protected final SmartLogger log = getLogger(getClass());
+        private final String channel;
+        private final Thread subscriber;
+        private volatile boolean closed;
+
+        protected BackgroundSubscription(String channel) {
+            this.channel = hasTextOf(channel, "channel");
+            this.subscriber = new Thread(() -> run(), "shell-subscriber-" + channel);
+            this.subscriber.setDaemon(true);
+        }
+
+        public BackgroundSubscription start() {
+            subscriber.start();
+            return this;
+        }
+
+        public boolean isClosed() {
+            return closed;
+        }
+
+        private void run() {
+            while (!closed) {
+                try {
+                    subscribe(); // Blocking
+                } catch (Throwable e) {
+                    if (!closed) {
+                        log.warn("Subscription of '{}' failed, retry after {}ms. caused by: {}", channel,
+                                SUBSCRIBE_RETRY_INTERVAL_MS, e.getMessage());
+                    }
+                }
+                if (!closed) {
+                    try {
+                        Thread.sleep(SUBSCRIBE_RETRY_INTERVAL_MS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Dispatch the message to listener, the failure of listener does not
+         * break the subscription.
+         */
+        protected void dispatch(Consumer<String> listener, String message) {
+            try {
+                listener.accept(message);
+            } catch (Throwable e) {
+                log.warn("Failed to handle message of '{}'. caused by: {}", channel, e.getMessage());
+            }
+        }
+
+        /**
+         * Subscribe the channel, blocks until unsubscribed or failure.
+         */
+        protected abstract void subscribe() throws Exception;
+
+        /**
+         * Unsubscribe the channel, then the {@link #subscribe()} returns.
+         */
+        protected abstract void unsubscribe() throws Exception;
+
+        @Override
+        public void close() {
+            closed = true;
+            try {
+                unsubscribe();
+            } catch (Exception e) {
+                log.warn("Failed to unsubscribe of '{}'. caused by: {}", channel, e.getMessage());
+            }
+            subscriber.interrupt();
+        }
+    }
+
+    /**
+     * Iterator of the elements (e.g. keys of SCAN, or values of HSCAN)
+     * fetched page by page by the cursor, the iteration is finished when the
+     * cursor returns to {@link #SCAN_START_CURSOR}.
+     */
+    protected static abstract class ScanCursorIterator<T> implements Iterator<T> {
+        private String cursor = SCAN_START_CURSOR;
+        private boolean finished;
+        private Iterator<T> page = emptyIterator();
+
+        @Override
+        public boolean hasNext() {
+            // The page may be empty but the iteration is not finished.
+            while (!page.hasNext() && !finished) {
+                List<T> elements = new ArrayList<>();
+                cursor = scanPage(cursor, elements);
+                finished = SCAN_START_CURSOR.equals(cursor);
+                page = elements.iterator();
+            }
+            return page.hasNext();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return page.next();
+        }
+
+        /**
+         * Scan a page of elements.
+         * 
+         * @param cursor
+         * @param elements
+         *            output of the elements of page.
+         * @return next cursor.
+         */
+        protected abstract String scanPage(String cursor, List<T> elements);
+    }
+
     public static final String SESSION_KEY_PREFIX = "shell:cache:";
+    public static final String SCAN_START_CURSOR = "0";
+    public static final long SUBSCRIBE_RETRY_INTERVAL_MS = 3_000L;
 
 }
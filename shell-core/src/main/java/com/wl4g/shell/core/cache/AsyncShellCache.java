@@ -0,0 +1,133 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.core.cache;
+
+import static java.util.Objects.nonNull;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+
+import com.wl4g.shell.core.cache.ShellCachePipeline.Operation;
+
+/**
+ * Non-blocking variant of {@link ShellCache}, the operations are sent without
+ * waiting for the replies, so that the independent operations (e.g. the
+ * session lookup and the lock acquiring) are overlapped on the connection,
+ * i.e. pipelined automatically.
+ *
+ * <p>
+ * The stages are completed on the I/O threads of client (e.g. the event loop
+ * of lettuce), the dependent actions must not block. By default, the
+ * operations are delegated to the blocking operations and completed on the
+ * caller thread.
+ * </p>
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ * @see LettuceShellCache
+ */
+public interface AsyncShellCache extends ShellCache {
+
+    default <V> CompletionStage<V> hgetAsync(String key, Class<V> valueClass) {
+        return completedFuture(hget(key, valueClass));
+    }
+
+    default <V> CompletionStage<Boolean> hsetAsync(String key, V value) {
+        return completedFuture(hset(key, value));
+    }
+
+    default CompletionStage<Boolean> hdelAsync(String key) {
+        return completedFuture(hdel(key));
+    }
+
+    default <V> CompletionStage<V> getAsync(String key, Class<V> valueClass) {
+        return completedFuture(get(key, valueClass));
+    }
+
+    default <V> CompletionStage<Boolean> setAsync(String key, V value, long expireMs) {
+        return completedFuture(set(key, value, expireMs));
+    }
+
+    /**
+     * @see #setnx(String, Object, long)
+     */
+    default <V> CompletionStage<Boolean> setnxAsync(String key, V value, long expireMs) {
+        return completedFuture(setnx(key, value, expireMs));
+    }
+
+    default CompletionStage<Boolean> delAsync(String key) {
+        return completedFuture(del(key));
+    }
+
+    /**
+     * @see #deleq(String, String)
+     */
+    default CompletionStage<Object> deleqAsync(String key, String arg) {
+        return completedFuture(deleq(key, arg));
+    }
+
+    /**
+     * @see #incr(String)
+     */
+    default CompletionStage<Long> incrAsync(String key) {
+        return completedFuture(incr(key));
+    }
+
+    /**
+     * @see #expireeq(String, String, long)
+     */
+    default CompletionStage<Boolean> expireeqAsync(String key, String arg, long expireMs) {
+        return completedFuture(expireeq(key, arg, expireMs));
+    }
+
+    /**
+     * Execute the operations of pipeline without waiting.
+     *
+     * @param operations
+     * @return results in the order of the operations.
+     * @see ShellCachePipeline#async()
+     */
+    default CompletionStage<List<Object>> executePipelineAsync(List<Operation> operations) {
+        return completedFuture(executePipeline(operations));
+    }
+
+    /**
+     * Wait for the result of async, i.e. the blocking operations, the failure
+     * is rethrown as is if unchecked.
+     *
+     * @param stage
+     * @return
+     */
+    public static <T> T await(CompletionStage<T> stage) {
+        try {
+            return stage.toCompletableFuture().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException | CompletionException e) {
+            Throwable cause = nonNull(e.getCause()) ? e.getCause() : e;
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.core.cache;
+
+import static java.lang.System.currentTimeMillis;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.springframework.util.Assert.isTrue;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Bounded local key-value store with the expiration per entry, the entries are
+ * also indexed in the order of expiration (the never expired are ordered by
+ * the latest write after all), so that:
+ *
+ * <ul>
+ * <li>the expired entries are swept incrementally from the head of index on
+ * each write, at most {@link #SWEEP_BATCH} per write, i.e. never scans all
+ * entries, and the expired but not swept yet are invisible to reads.</li>
+ * <li>if evictable, the soonest to expire (or the least recently written
+ * never expired) entry is evicted when the capacity is exceeded, i.e. the
+ * volatile-ttl policy of redis. Otherwise the new keys are rejected when
+ * full, i.e. the noeviction policy of redis, so that the live entries (e.g.
+ * the held locks) are never lost. The capacity is approximate under
+ * concurrent writes.</li>
+ * </ul>
+ *
+ * The entries are immutable, and replaced atomically per key (e.g. the
+ * renewal of expiration), the index is updated in the same critical section
+ * of the key.
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+class ExpiringMemoryStore {
+
+    private final int maxSize;
+    private final boolean evictable;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>(16);
+    private final ConcurrentSkipListSet<Entry> expiryIndex = new ConcurrentSkipListSet<>(EXPIRY_ORDER);
+    private final AtomicLong sequence = new AtomicLong();
+
+    ExpiringMemoryStore(int maxSize, boolean evictable) {
+        isTrue(maxSize > 0, "maxSize must greater than 0");
+        this.maxSize = maxSize;
+        this.evictable = evictable;
+    }
+
+    Object get(String key) {
+        Entry entry = entries.get(key);
+        if (isNull(entry)) {
+            return null;
+        }
+        if (entry.isExpired(currentTimeMillis())) {
+            remove(entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Put the value, and replace the existing.
+     *
+     * @param key
+     * @param value
+     * @param expireMs
+     *            if &lt;=0 then never expired.
+     * @return false if rejected, i.e. the new key of full and not evictable.
+     */
+    boolean put(String key, Object value, long expireMs) {
+        long now = currentTimeMillis();
+        if (isRejected(key, now)) {
+            return false;
+        }
+        entries.compute(key, (k, existing) -> replace(existing, newEntry(k, value, expireMs, now)));
+        afterWrite(now);
+        return true;
+    }
+
+    /**
+     * Put the value if absent or the existing is expired.
+     *
+     * @param key
+     * @param value
+     * @param expireMs
+     *            if &lt;=0 then never expired.
+     * @return true if put, false if exists or rejected (i.e. full and not
+     *         evictable).
+     */
+    boolean putIfAbsent(String key, Object value, long expireMs) {
+        long now = currentTimeMillis();
+        if (isRejected(key, now)) {
+            return false;
+        }
+        boolean[] put = { false };
+        entries.compute(key, (k, existing) -> {
+            if (nonNull(existing) && !existing.isExpired(now)) {
+                return existing;
+            }
+            put[0] = true;
+            return replace(existing, newEntry(k, value, expireMs, now));
+        });
+        afterWrite(now);
+        return put[0];
+    }
+
+    /**
+     * Remove the entry if the value is equal to the expected (or any if the
+     * expected is null).
+     *
+     * @param key
+     * @param expected
+     * @return true if removed the not expired entry.
+     */
+    boolean remove(String key, Object expected) {
+        long now = currentTimeMillis();
+        boolean[] removed = { false };
+        entries.computeIfPresent(key, (k, existing) -> {
+            if (isNull(expected) || Objects.equals(existing.value, expected)) {
+                removed[0] = !existing.isExpired(now);
+                expiryIndex.remove(existing);
+                return null;
+            }
+            return existing;
+        });
+        afterWrite(now);
+        return removed[0];
+    }
+
+    /**
+     * Renew the expiration if the value is equal to the expected and not
+     * expired.
+     *
+     * @param key
+     * @param expected
+     * @param expireMs
+     * @return true if renewed.
+     */
+    boolean expireIfEqual(String key, Object expected, long expireMs) {
+        long now = currentTimeMillis();
+        boolean[] renewed = { false };
+        entries.computeIfPresent(key, (k, existing) -> {
+            if (existing.isExpired(now) || !Objects.equals(existing.value, expected)) {
+                return existing;
+            }
+            renewed[0] = true;
+            return replace(existing, newEntry(k, existing.value, expireMs, now));
+        });
+        return renewed[0];
+    }
+
+    /**
+     * The weakly consistent view of the not expired entries.
+     *
+     * @return
+     */
+    Stream<Entry> stream() {
+        long now = currentTimeMillis();
+        return entries.values().stream().filter(e -> !e.isExpired(now));
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private Entry newEntry(String key, Object value, long expireMs, long now) {
+        long expireAt = (expireMs > 0) ? now + expireMs : Long.MAX_VALUE;
+        return new Entry(key, value, expireAt, sequence.incrementAndGet());
+    }
+
+    /**
+     * Replace the existing of index, must be called in the critical section
+     * of the key.
+     */
+    private Entry replace(Entry existing, Entry entry) {
+        if (nonNull(existing)) {
+            expiryIndex.remove(existing);
+        }
+        expiryIndex.add(entry);
+        return entry;
+    }
+
+    /**
+     * Remove the entry if not replaced yet.
+     */
+    private void remove(Entry entry) {
+        if (entries.remove(entry.key, entry)) {
+            expiryIndex.remove(entry);
+        }
+    }
+
+    /**
+     * Whether the write of new key is rejected, i.e. full (after sweeping the
+     * expired) and not evictable, the existing is always replaceable.
+     */
+    private boolean isRejected(String key, long now) {
+        if (evictable || entries.size() < maxSize) {
+            return false;
+        }
+        Entry existing = entries.get(key);
+        if (nonNull(existing) && !existing.isExpired(now)) {
+            return false;
+        }
+        sweepExpired(now);
+        return entries.size() - (entries.containsKey(key) ? 1 : 0) >= maxSize;
+    }
+
+    /**
+     * Sweep a batch of the expired from the head of index, and then evict the
+     * soonest to expire until the capacity is satisfied (if evictable).
+     */
+    private void afterWrite(long now) {
+        sweepExpired(now);
+        while (evictable && entries.size() > maxSize) {
+            Entry head = peekFirst();
+            if (isNull(head)) {
+                break;
+            }
+            evict(head);
+        }
+    }
+
+    private void sweepExpired(long now) {
+        for (int i = 0; i < SWEEP_BATCH; i++) {
+            Entry head = peekFirst();
+            if (isNull(head) || !head.isExpired(now)) {
+                break;
+            }
+            evict(head);
+        }
+    }
+
+    private Entry peekFirst() {
+        Iterator<Entry> it = expiryIndex.iterator();
+        return it.hasNext() ? it.next() : null;
+    }
+
+    /**
+     * Evict the entry of index, the entry of key may be already replaced
+     * concurrently (i.e. removed from index by the replacing).
+     */
+    private void evict(Entry entry) {
+        if (expiryIndex.remove(entry)) {
+            entries.remove(entry.key, entry);
+        }
+    }
+
+    static final class Entry {
+        final String key;
+        final Object value;
+        final long expireAt;
+        final long sequence;
+
+        Entry(String key, Object value, long expireAt, long sequence) {
+            this.key = key;
+            this.value = value;
+            this.expireAt = expireAt;
+            this.sequence = sequence;
+        }
+
+        boolean isExpired(long now) {
+            return expireAt <= now;
+        }
+    }
+
+    static final Comparator<Entry> EXPIRY_ORDER = Comparator.<Entry> comparingLong(e -> e.expireAt)
+            .thenComparingLong(e -> e.sequence);
+    static final int SWEEP_BATCH = 16;
+
+}
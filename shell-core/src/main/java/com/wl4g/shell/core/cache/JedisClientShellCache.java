@@ -17,17 +17,24 @@ package com.wl4g.shell.core.cache;
 
 import static com.wl4g.infra.common.collection.CollectionUtils2.safeMap;
 import static com.wl4g.infra.common.lang.Assert2.notNullOf;
-import static com.wl4g.infra.common.serialize.JacksonUtils.parseJSON;
-import static com.wl4g.infra.common.serialize.JacksonUtils.toJSONString;
 import static java.util.Collections.singletonList;
 import static java.util.Objects.nonNull;
-import static java.util.stream.Collectors.toList;
+import static redis.clients.jedis.util.JedisClusterCRC16.getSlot;
 
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Consumer;
 
 import com.wl4g.infra.common.jedis.JedisClient;
 import com.wl4g.shell.core.config.ServerShellProperties;
 
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
 import redis.clients.jedis.params.SetParams;
 
 /**
@@ -57,47 +64,94 @@ public class JedisClientShellCache extends AbstractRedisShellCache {
 
     @Override
     public <V> V hget(String key, Class<V> valueClass) {
-        return parseJSON(jedisClient.hget(getOpsKey(), key), valueClass);
+        return decode(jedisClient.hget(getRawOpsKey(), rawKey(key)), valueClass);
+    }
+
+    @Override
+    public <V> List<V> hmget(List<String> keys, Class<V> valueClass) {
+        if (keys.isEmpty()) {
+            return new ArrayList<>(0);
+        }
+        return decodeValues(jedisClient.hmget(getRawOpsKey(), rawKeys(keys)), valueClass);
     }
 
     @Override
     public <V> List<V> hgetAll(Class<V> valueClass) {
-        return safeMap(jedisClient.hgetAll(getOpsKey())).values().stream().map(s -> parseJSON(s, valueClass)).collect(toList());
+        return decodeValues(safeMap(jedisClient.hgetAll(getRawOpsKey())).values(), valueClass);
+    }
+
+    @Override
+    public <V> Iterator<V> hscan(int count, Class<V> valueClass) {
+        ScanParams params = new ScanParams().count(count);
+        return new ScanCursorIterator<V>() {
+            @Override
+            protected String scanPage(String cursor, List<V> values) {
+                ScanResult<Entry<byte[], byte[]>> result = jedisClient.hscan(getRawOpsKey(), rawKey(cursor), params);
+                for (Entry<byte[], byte[]> ent : result.getResult()) {
+                    values.add(decode(ent.getValue(), valueClass));
+                }
+                return result.getCursor();
+            }
+        };
     }
 
     @Override
     public <V> boolean hset(String key, V value) {
-        Long ret = jedisClient.hset(getOpsKey(), key, toJSONString(value));
-        return nonNull(ret) && ret > 0;
+        // The reply is 0 if overwritten, it's also written.
+        return nonNull(jedisClient.hset(getRawOpsKey(), rawKey(key), encode(value)));
+    }
+
+    @Override
+    public <V> boolean hmset(Map<String, V> values) {
+        if (values.isEmpty()) {
+            return true;
+        }
+        return "OK".equalsIgnoreCase(jedisClient.hmset(getRawOpsKey(), encodeValues(values)));
     }
 
     @Override
     public <V> boolean hsetnx(String key, V value) {
-        Long ret = jedisClient.hsetnx(getOpsKey(), key, toJSONString(value));
+        Long ret = jedisClient.hsetnx(getRawOpsKey(), rawKey(key), encode(value));
         return nonNull(ret) && ret > 0;
     }
 
     @Override
     public boolean hdel(String key) {
-        Long ret = jedisClient.hdel(getOpsKey(), key);
+        Long ret = jedisClient.hdel(getRawOpsKey(), rawKey(key));
         return nonNull(ret) && ret > 0;
     }
 
     @Override
     public <V> V get(String key, Class<V> valueClass) {
-        return parseJSON(jedisClient.get(key), valueClass);
+        return decode(jedisClient.get(rawKey(key)), valueClass);
+    }
+
+    /**
+     * The client may be the cluster, i.e. the keys may be in the different
+     * slots, if so get one by one.
+     */
+    @Override
+    public <V> List<V> mget(List<String> keys, Class<V> valueClass) {
+        if (keys.isEmpty()) {
+            return new ArrayList<>(0);
+        }
+        int slot = getSlot(keys.get(0));
+        if (keys.stream().allMatch(key -> getSlot(key) == slot)) {
+            return decodeValues(jedisClient.mget(rawKeys(keys)), valueClass);
+        }
+        return super.mget(keys, valueClass);
     }
 
     @Override
     public <V> boolean set(String key, V value, long expireMs) {
-        String ret = jedisClient.setex(key, expireMs, toJSONString(value));
+        String ret = jedisClient.set(rawKey(key), encode(value), SetParams.setParams().px(expireMs));
         return nonNull(ret) && ("OK".equalsIgnoreCase(ret) || Integer.parseInt(ret) > 0);
     }
 
     @Override
     public <V> boolean setnx(String key, V value, long expireMs) {
         SetParams setParams = SetParams.setParams().nx().px(expireMs);
-        String ret = jedisClient.set(key, toJSONString(value), setParams);
+        String ret = jedisClient.set(rawKey(key), encode(value), setParams);
         return nonNull(ret) && ("OK".equalsIgnoreCase(ret) || Integer.parseInt(ret) > 0);
     }
 
@@ -107,9 +161,64 @@ public class JedisClientShellCache extends AbstractRedisShellCache {
         return nonNull(ret) && ret > 0;
     }
 
+    @Override
+    public Iterator<String> scan(String pattern, int count) {
+        ScanParams params = new ScanParams().match(pattern).count(count);
+        return new ScanCursorIterator<String>() {
+            @Override
+            protected String scanPage(String cursor, List<String> keys) {
+                ScanResult<String> result = jedisClient.scan(cursor, params);
+                keys.addAll(result.getResult());
+                return result.getCursor();
+            }
+        };
+    }
+
+    @Override
+    public boolean publish(String channel, String message) {
+        return nonNull(jedisClient.publish(channel, message));
+    }
+
+    @Override
+    public Closeable subscribe(String channel, Consumer<String> listener) {
+        return new BackgroundSubscription(channel) {
+            private final JedisPubSub pubSub = new JedisPubSub() {
+                @Override
+                public void onMessage(String channel, String message) {
+                    dispatch(listener, message);
+                }
+            };
+
+            @Override
+            protected void subscribe() {
+                jedisClient.subscribe(pubSub, channel);
+            }
+
+            @Override
+            protected void unsubscribe() {
+                if (pubSub.isSubscribed()) {
+                    pubSub.unsubscribe();
+                }
+            }
+        }.start();
+    }
+
+    /**
+     * The argument is encoded the same as the value.
+     */
     @Override
     public Object deleq(String key, String arg) {
-        return jedisClient.eval(UNLOCK_LUA, singletonList(key), singletonList(arg));
+        return jedisClient.eval(RAW_UNLOCK_LUA, singletonList(rawKey(key)), singletonList(encode(arg)));
+    }
+
+    @Override
+    public long incr(String key) {
+        return jedisClient.incr(key);
+    }
+
+    @Override
+    public boolean expireeq(String key, String arg, long expireMs) {
+        return isSuccessReply(jedisClient.eval(RAW_EXPIRE_LUA, singletonList(rawKey(key)), expireArgs(arg, expireMs)));
     }
 
 }
@@ -0,0 +1,400 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.core.cache;
+
+import static com.wl4g.infra.common.collection.CollectionUtils2.safeMap;
+import static com.wl4g.infra.common.lang.Assert2.notNullOf;
+import static com.wl4g.shell.core.cache.AsyncShellCache.await;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyIterator;
+import static java.util.Objects.nonNull;
+import static java.util.concurrent.CompletableFuture.allOf;
+import static java.util.stream.Collectors.toList;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Consumer;
+
+import com.wl4g.shell.core.cache.ShellCachePipeline.Operation;
+import com.wl4g.shell.core.config.ServerShellProperties;
+
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.MapScanCursor;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+
+/**
+ * {@link LettuceShellCache}, based on the async commands of lettuce, the
+ * commands of all threads are pipelined on one shared connection (i.e.
+ * thread-safe), and the blocking operations just wait for the async.
+ *
+ * <p>
+ * The connections are opened from the {@link RedisClient} or
+ * {@link RedisClusterClient} with the raw bytes codec, and closed by
+ * {@link #close()}, the client itself is owned by the application.
+ * </p>
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+public class LettuceShellCache extends AbstractRedisShellCache implements AsyncShellCache, Closeable {
+
+    protected final RedisClient redisClient;
+    protected final RedisClusterClient redisClusterClient;
+    protected final StatefulConnection<byte[], byte[]> connection;
+    protected final RedisClusterAsyncCommands<byte[], byte[]> commands;
+
+    /**
+     * @param redisObj
+     *            type of {@link RedisClient} or {@link RedisClusterClient}
+     */
+    public LettuceShellCache(ServerShellProperties config, Object redisObj) {
+        super(config);
+        notNullOf(redisObj, "redisObj");
+        if (redisObj instanceof RedisClusterClient) {
+            this.redisClusterClient = (RedisClusterClient) redisObj;
+            this.redisClient = null;
+            StatefulRedisClusterConnection<byte[], byte[]> conn = redisClusterClient.connect(ByteArrayCodec.INSTANCE);
+            this.connection = conn;
+            this.commands = conn.async();
+        } else if (redisObj instanceof RedisClient) {
+            this.redisClient = (RedisClient) redisObj;
+            this.redisClusterClient = null;
+            StatefulRedisConnection<byte[], byte[]> conn = redisClient.connect(ByteArrayCodec.INSTANCE);
+            this.connection = conn;
+            this.commands = conn.async();
+        } else {
+            throw new IllegalStateException();
+        }
+    }
+
+    @Override
+    public <V> V hget(String key, Class<V> valueClass) {
+        return await(hgetAsync(key, valueClass));
+    }
+
+    @Override
+    public <V> CompletionStage<V> hgetAsync(String key, Class<V> valueClass) {
+        return commands.hget(getRawOpsKey(), rawKey(key)).thenApply(value -> decode(value, valueClass));
+    }
+
+    @Override
+    public <V> List<V> hmget(List<String> keys, Class<V> valueClass) {
+        if (keys.isEmpty()) {
+            return new ArrayList<>(0);
+        }
+        List<KeyValue<byte[], byte[]>> values = await(commands.hmget(getRawOpsKey(), rawKeys(keys)));
+        return decodeValues(values.stream().map(kv -> kv.getValueOrElse(null)).collect(toList()), valueClass);
+    }
+
+    @Override
+    public <V> List<V> hgetAll(Class<V> valueClass) {
+        return decodeValues(safeMap(await(commands.hgetall(getRawOpsKey()))).values(), valueClass);
+    }
+
+    @Override
+    public <V> Iterator<V> hscan(int count, Class<V> valueClass) {
+        ScanArgs args = ScanArgs.Builder.limit(count);
+        return new CursorIterator<V>() {
+            @Override
+            protected ScanCursor scanPage(ScanCursor cursor, List<V> values) {
+                MapScanCursor<byte[], byte[]> result = await(commands.hscan(getRawOpsKey(), cursor, args));
+                for (byte[] value : result.getMap().values()) {
+                    values.add(decode(value, valueClass));
+                }
+                return result;
+            }
+        };
+    }
+
+    @Override
+    public <V> boolean hset(String key, V value) {
+        return await(hsetAsync(key, value));
+    }
+
+    @Override
+    public <V> CompletionStage<Boolean> hsetAsync(String key, V value) {
+        // The reply is false if overwritten, it's also written.
+        return commands.hset(getRawOpsKey(), rawKey(key), encode(value)).thenApply(ret -> nonNull(ret));
+    }
+
+    @Override
+    public <V> boolean hmset(Map<String, V> values) {
+        if (values.isEmpty()) {
+            return true;
+        }
+        return isSuccessReply(await(commands.hmset(getRawOpsKey(), encodeValues(values))));
+    }
+
+    @Override
+    public <V> boolean hsetnx(String key, V value) {
+        Boolean ret = await(commands.hsetnx(getRawOpsKey(), rawKey(key), encode(value)));
+        return nonNull(ret) && ret;
+    }
+
+    @Override
+    public boolean hdel(String key) {
+        return await(hdelAsync(key));
+    }
+
+    @Override
+    public CompletionStage<Boolean> hdelAsync(String key) {
+        return commands.hdel(getRawOpsKey(), rawKey(key)).thenApply(ret -> isSuccessReply(ret));
+    }
+
+    @Override
+    public <V> V get(String key, Class<V> valueClass) {
+        return await(getAsync(key, valueClass));
+    }
+
+    @Override
+    public <V> CompletionStage<V> getAsync(String key, Class<V> valueClass) {
+        return commands.get(rawKey(key)).thenApply(value -> decode(value, valueClass));
+    }
+
+    /**
+     * The keys of cluster may be in the different slots, which are split by
+     * the cluster commands of lettuce.
+     */
+    @Override
+    public <V> List<V> mget(List<String> keys, Class<V> valueClass) {
+        if (keys.isEmpty()) {
+            return new ArrayList<>(0);
+        }
+        List<KeyValue<byte[], byte[]>> values = await(commands.mget(rawKeys(keys)));
+        return decodeValues(values.stream().map(kv -> kv.getValueOrElse(null)).collect(toList()), valueClass);
+    }
+
+    @Override
+    public <V> boolean set(String key, V value, long expireMs) {
+        return await(setAsync(key, value, expireMs));
+    }
+
+    @Override
+    public <V> CompletionStage<Boolean> setAsync(String key, V value, long expireMs) {
+        return commands.set(rawKey(key), encode(value), SetArgs.Builder.px(expireMs)).thenApply(ret -> isSuccessReply(ret));
+    }
+
+    @Override
+    public <V> boolean setnx(String key, V value, long expireMs) {
+        return await(setnxAsync(key, value, expireMs));
+    }
+
+    @Override
+    public <V> CompletionStage<Boolean> setnxAsync(String key, V value, long expireMs) {
+        return commands.set(rawKey(key), encode(value), SetArgs.Builder.nx().px(expireMs))
+                .thenApply(ret -> isSuccessReply(ret));
+    }
+
+    @Override
+    public <V> boolean del(String key) {
+        return await(delAsync(key));
+    }
+
+    @Override
+    public CompletionStage<Boolean> delAsync(String key) {
+        return commands.del(rawKey(key)).thenApply(ret -> isSuccessReply(ret));
+    }
+
+    /**
+     * The argument is encoded the same as the value.
+     */
+    @Override
+    public Object deleq(String key, String arg) {
+        return await(deleqAsync(key, arg));
+    }
+
+    @Override
+    public CompletionStage<Object> deleqAsync(String key, String arg) {
+        return commands.<Object> eval(UNLOCK_LUA, ScriptOutputType.INTEGER, new byte[][] { rawKey(key) }, encode(arg));
+    }
+
+    @Override
+    public long incr(String key) {
+        return await(incrAsync(key));
+    }
+
+    @Override
+    public CompletionStage<Long> incrAsync(String key) {
+        return commands.incr(rawKey(key));
+    }
+
+    @Override
+    public boolean expireeq(String key, String arg, long expireMs) {
+        return await(expireeqAsync(key, arg, expireMs));
+    }
+
+    @Override
+    public CompletionStage<Boolean> expireeqAsync(String key, String arg, long expireMs) {
+        return evalExpire(key, arg, expireMs).thenApply(ret -> isSuccessReply(ret));
+    }
+
+    @Override
+    public boolean publish(String channel, String message) {
+        return nonNull(await(commands.publish(rawKey(channel), rawKey(message))));
+    }
+
+    /**
+     * Subscribed on a dedicated pub/sub connection, which is re-subscribed
+     * automatically by lettuce after reconnected.
+     */
+    @Override
+    public Closeable subscribe(String channel, Consumer<String> listener) {
+        StatefulRedisPubSubConnection<byte[], byte[]> pubSub = nonNull(redisClusterClient)
+                ? redisClusterClient.connectPubSub(ByteArrayCodec.INSTANCE)
+                : redisClient.connectPubSub(ByteArrayCodec.INSTANCE);
+        pubSub.addListener(new RedisPubSubAdapter<byte[], byte[]>() {
+            @Override
+            public void message(byte[] ch, byte[] message) {
+                if (channel.equals(new String(ch, UTF_8))) {
+                    listener.accept(new String(message, UTF_8));
+                }
+            }
+        });
+        pubSub.sync().subscribe(rawKey(channel));
+        return () -> pubSub.close();
+    }
+
+    /**
+     * The pattern of cluster must contain the hash tag, e.g.
+     * shell:session:{shell}:*, i.e. the keys are in the same slot.
+     */
+    @Override
+    public Iterator<String> scan(String pattern, int count) {
+        ScanArgs args = ScanArgs.Builder.matches(pattern).limit(count);
+        return new CursorIterator<String>() {
+            @Override
+            protected ScanCursor scanPage(ScanCursor cursor, List<String> keys) {
+                KeyScanCursor<byte[]> result = await(commands.scan(cursor, args));
+                for (byte[] key : result.getKeys()) {
+                    keys.add(new String(key, UTF_8));
+                }
+                return result;
+            }
+        };
+    }
+
+    @Override
+    public List<Object> executePipeline(List<Operation> operations) {
+        return await(executePipelineAsync(operations));
+    }
+
+    /**
+     * All operations are written to the connection at once without waiting
+     * for the replies, i.e. one round trip.
+     */
+    @Override
+    public CompletionStage<List<Object>> executePipelineAsync(List<Operation> operations) {
+        List<CompletableFuture<?>> futures = new ArrayList<>(operations.size());
+        for (Operation op : operations) {
+            futures.add(sendOperation(op).toCompletableFuture());
+        }
+        return allOf(futures.toArray(new CompletableFuture[0])).thenApply(none -> {
+            List<Object> replies = new ArrayList<>(futures.size());
+            for (CompletableFuture<?> future : futures) {
+                replies.add(future.join());
+            }
+            return convertPipelineReplies(operations, replies);
+        });
+    }
+
+    @Override
+    public void close() {
+        connection.close();
+    }
+
+    private RedisFuture<?> sendOperation(Operation op) {
+        switch (op.getType()) {
+        case HGET:
+            return commands.hget(getRawOpsKey(), rawKey(op.getKey()));
+        case HSET:
+            return commands.hset(getRawOpsKey(), rawKey(op.getKey()), encode(op.getValue()));
+        case HDEL:
+            return commands.hdel(getRawOpsKey(), rawKey(op.getKey()));
+        case GET:
+            return commands.get(rawKey(op.getKey()));
+        case SET:
+            return commands.set(rawKey(op.getKey()), encode(op.getValue()), SetArgs.Builder.px(op.getExpireMs()));
+        case SETNX:
+            return commands.set(rawKey(op.getKey()), encode(op.getValue()), SetArgs.Builder.nx().px(op.getExpireMs()));
+        case DEL:
+            return commands.del(rawKey(op.getKey()));
+        case INCR:
+            return commands.incr(rawKey(op.getKey()));
+        case EXPIREEQ:
+            return evalExpire(op.getKey(), (String) op.getValue(), op.getExpireMs());
+        default:
+            throw new UnsupportedOperationException(String.valueOf(op.getType()));
+        }
+    }
+
+    private RedisFuture<Long> evalExpire(String key, String arg, long expireMs) {
+        byte[][] args = expireArgs(arg, expireMs).toArray(new byte[0][]);
+        return commands.eval(EXPIRE_LUA, ScriptOutputType.INTEGER, new byte[][] { rawKey(key) }, args);
+    }
+
+    /**
+     * Iterator of the elements fetched page by page by the cursor of lettuce,
+     * the cursor of cluster holds the state of nodes, so it is not the plain
+     * string of {@link ScanCursorIterator}.
+     */
+    protected static abstract class CursorIterator<T> implements Iterator<T> {
+        private ScanCursor cursor = ScanCursor.INITIAL;
+        private Iterator<T> page = emptyIterator();
+
+        @Override
+        public boolean hasNext() {
+            // The page may be empty but the iteration is not finished.
+            while (!page.hasNext() && !cursor.isFinished()) {
+                List<T> elements = new ArrayList<>();
+                cursor = scanPage(cursor, elements);
+                page = elements.iterator();
+            }
+            return page.hasNext();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return page.next();
+        }
+
+        protected abstract ScanCursor scanPage(ScanCursor cursor, List<T> elements);
+    }
+
+}
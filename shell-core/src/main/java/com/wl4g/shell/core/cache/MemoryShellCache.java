@@ -15,21 +15,32 @@
  */
 package com.wl4g.shell.core.cache;
 
-import static java.util.Objects.isNull;
-import static java.util.Objects.nonNull;
+import static java.util.Collections.emptyList;
 import static java.util.stream.Collectors.toList;
 
-import java.time.Duration;
+import java.io.Closeable;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
-import org.apache.commons.lang3.StringUtils;
-
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import com.wl4g.shell.core.config.ServerShellProperties;
+import com.wl4g.shell.core.config.ServerShellProperties.MemoryCacheInfo;
+import com.wl4g.shell.core.session.KeyedShellSessionDAO;
 
 /**
- * {@link MemoryShellCache}
+ * {@link MemoryShellCache}, the expiration of keys is honored per key, and
+ * each namespace is stored separately, i.e. the fields of hash, the keys of
+ * {@link KeyedShellSessionDAO#SESSION_KEY_PREFIX} and the other keys (e.g.
+ * locks), so that the enumeration only visits the entries of the namespace,
+ * and the sessions churn never evicts the other keys (bounded by
+ * {@link MemoryCacheInfo}).
  * 
  * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
  * @version 2021-06-30 v1.0.0
@@ -38,67 +49,171 @@ import com.wl4g.shell.core.config.ServerShellProperties;
 @SuppressWarnings("unchecked")
 public class MemoryShellCache extends AbstractRedisShellCache {
 
-    private final Cache<Object, Object> localCache;
+    /** Fields of the hash of {@link #getOpsKey()}. */
+    private final ExpiringMemoryStore hashStore;
+    private final ExpiringMemoryStore sessionStore;
+    private final ExpiringMemoryStore keyStore;
+    private final Map<String, List<Consumer<String>>> subscribers = new ConcurrentHashMap<>(4);
+    /** The counters are never expired, unlike the entries. */
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>(4);
 
     public MemoryShellCache(ServerShellProperties config) {
         super(config);
-        this.localCache = CacheBuilder.newBuilder().expireAfterAccess(Duration.ofMillis(config.getSharedLockTimeoutMs())).build();
+        this.hashStore = new ExpiringMemoryStore(config.getMemoryCache().getMaxSessions(), true);
+        this.sessionStore = new ExpiringMemoryStore(config.getMemoryCache().getMaxSessions(), true);
+        // Never evicts the live locks.
+        this.keyStore = new ExpiringMemoryStore(config.getMemoryCache().getMaxKeys(), false);
     }
 
     @Override
     public <V> V hget(String key, Class<V> valueClass) {
-        return (V) localCache.asMap().get(getOpsKey().concat(key));
+        return (V) hashStore.get(key);
     }
 
     @Override
     public <V> List<V> hgetAll(Class<V> valueClass) {
-        return localCache.asMap().values().stream().map(e -> (V) e).collect(toList());
+        return hashStore.stream()
+                .filter(e -> valueClass.isInstance(e.value))
+                .map(e -> valueClass.cast(e.value))
+                .collect(toList());
     }
 
+    /**
+     * Iterate over the weakly consistent view of the fields of hash.
+     */
+    @Override
+    public <V> Iterator<V> hscan(int count, Class<V> valueClass) {
+        return hashStore.stream()
+                .filter(e -> valueClass.isInstance(e.value))
+                .map(e -> valueClass.cast(e.value))
+                .iterator();
+    }
+
+    /**
+     * The hash fields are never expired, the same as redis.
+     */
     @Override
     public <V> boolean hset(String key, V value) {
-        localCache.put(getOpsKey().concat(key), value);
+        hashStore.put(key, value, 0L);
+        return true;
+    }
+
+    @Override
+    public <V> boolean hmset(Map<String, V> values) {
+        for (Entry<String, V> ent : values.entrySet()) {
+            hashStore.put(ent.getKey(), ent.getValue(), 0L);
+        }
         return true;
     }
 
     @Override
     public <V> boolean hsetnx(String key, V value) {
-        return isNull(localCache.asMap().putIfAbsent(key, value));
+        return hashStore.putIfAbsent(key, value, 0L);
     }
 
     @Override
     public <V> boolean hdel(String key) {
-        return nonNull(localCache.asMap().remove(key));
+        return hashStore.remove(key, null);
     }
 
     @Override
     public <V> V get(String key, Class<V> valueClass) {
-        return (V) localCache.asMap().get(key);
+        return (V) storeOf(key).get(key);
     }
 
     @Override
     public <V> boolean set(String key, V value, long expireMs) {
-        return nonNull(localCache.asMap().put(key, value));
+        return storeOf(key).put(key, value, expireMs);
     }
 
     @Override
-    public <V> boolean setnx(String key, V value, @Deprecated long expireMs) {
-        return isNull(localCache.asMap().putIfAbsent(key, value));
+    public <V> boolean setnx(String key, V value, long expireMs) {
+        return storeOf(key).putIfAbsent(key, value, expireMs);
     }
 
     @Override
     public <V> boolean del(String key) {
-        localCache.invalidate(key);
+        return storeOf(key).remove(key, null);
+    }
+
+    /**
+     * Iterate over the weakly consistent view of the local keys, only the
+     * sessions are visited if the pattern is of the sessions (i.e. the keys of
+     * {@link KeyedShellSessionDAO#SESSION_KEY_PREFIX}).
+     */
+    @Override
+    public Iterator<String> scan(String pattern, int count) {
+        Pattern regex = toRegex(pattern);
+        Stream<ExpiringMemoryStore.Entry> entries = pattern.startsWith(KeyedShellSessionDAO.SESSION_KEY_PREFIX)
+                ? sessionStore.stream()
+                : Stream.concat(sessionStore.stream(), keyStore.stream());
+        return entries.map(e -> e.key)
+                .filter(key -> regex.matcher(key).matches())
+                .iterator();
+    }
+
+    /**
+     * Dispatched to the local subscribers synchronously.
+     */
+    @Override
+    public boolean publish(String channel, String message) {
+        for (Consumer<String> listener : subscribers.getOrDefault(channel, emptyList())) {
+            listener.accept(message);
+        }
+        return true;
+    }
+
+    @Override
+    public Closeable subscribe(String channel, Consumer<String> listener) {
+        subscribers.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>()).add(listener);
+        return () -> subscribers.getOrDefault(channel, emptyList()).remove(listener);
+    }
+
+    @Override
+    public Object deleq(String key, String arg) {
+        return storeOf(key).remove(key, arg) ? "OK" : null;
+    }
+
+    @Override
+    public boolean isLocal() {
         return true;
     }
 
     @Override
-    public synchronized Object deleq(String key, String arg) {
-        String value = get(key, String.class);
-        if (StringUtils.equals(value, arg)) {
-            return del(key) ? "OK" : null;
+    public long incr(String key) {
+        return counters.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    @Override
+    public boolean expireeq(String key, String arg, long expireMs) {
+        return storeOf(key).expireIfEqual(key, arg, expireMs);
+    }
+
+    private ExpiringMemoryStore storeOf(String key) {
+        return key.startsWith(KeyedShellSessionDAO.SESSION_KEY_PREFIX) ? sessionStore : keyStore;
+    }
+
+    /**
+     * Convert the glob-style pattern (only * and ?) to regex.
+     */
+    private static Pattern toRegex(String pattern) {
+        StringBuilder regex = new StringBuilder(pattern.length() + 8);
+        StringBuilder literal = new StringBuilder();
+        for (char c : pattern.toCharArray()) {
+            if (c == '*' || c == '?') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append((c == '*') ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
         }
-        return null;
+        return Pattern.compile(regex.toString());
     }
 
 }
@@ -17,18 +17,29 @@ package com.wl4g.shell.core.cache;
 
 import static com.wl4g.infra.common.collection.CollectionUtils2.safeMap;
 import static com.wl4g.infra.common.lang.Assert2.notNullOf;
-import static com.wl4g.infra.common.serialize.JacksonUtils.parseJSON;
-import static com.wl4g.infra.common.serialize.JacksonUtils.toJSONString;
 import static java.util.Collections.singletonList;
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
-import static java.util.stream.Collectors.toList;
+import static redis.clients.jedis.util.JedisClusterCRC16.getSlot;
 
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Consumer;
 
+import com.wl4g.shell.core.cache.ShellCachePipeline.Operation;
 import com.wl4g.shell.core.config.ServerShellProperties;
 
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
 import redis.clients.jedis.params.SetParams;
 
 /**
@@ -54,7 +65,7 @@ public class NativeJedisShellCache extends AbstractRedisShellCache {
             this.jedisCluster = (JedisCluster) redisObj;
             notNullOf(jedisCluster, "jedisCluster");
             this.jedis = null;
-        } else if (redisObj instanceof JedisCluster) {
+        } else if (redisObj instanceof Jedis) {
             this.jedis = (Jedis) redisObj;
             this.jedisCluster = null;
             notNullOf(jedis, "jedis");
@@ -66,65 +77,125 @@ public class NativeJedisShellCache extends AbstractRedisShellCache {
     @Override
     public <V> V hget(String key, Class<V> valueClass) {
         if (nonNull(jedisCluster)) {
-            return parseJSON(jedisCluster.hget(getOpsKey(), key), valueClass);
+            return decode(jedisCluster.hget(getRawOpsKey(), rawKey(key)), valueClass);
         }
-        return parseJSON(jedis.hget(getOpsKey(), key), valueClass);
+        return decode(jedis.hget(getRawOpsKey(), rawKey(key)), valueClass);
+    }
+
+    @Override
+    public <V> List<V> hmget(List<String> keys, Class<V> valueClass) {
+        if (keys.isEmpty()) {
+            return new ArrayList<>(0);
+        }
+        if (nonNull(jedisCluster)) {
+            return decodeValues(jedisCluster.hmget(getRawOpsKey(), rawKeys(keys)), valueClass);
+        }
+        return decodeValues(jedis.hmget(getRawOpsKey(), rawKeys(keys)), valueClass);
     }
 
     @Override
     public <V> List<V> hgetAll(Class<V> valueClass) {
         if (nonNull(jedisCluster)) {
-            return safeMap(jedisCluster.hgetAll(getOpsKey())).values().stream().map(s -> parseJSON(s, valueClass))
-                    .collect(toList());
+            return decodeValues(safeMap(jedisCluster.hgetAll(getRawOpsKey())).values(), valueClass);
         }
-        return safeMap(jedis.hgetAll(getOpsKey())).values().stream().map(s -> parseJSON(s, valueClass)).collect(toList());
+        return decodeValues(safeMap(jedis.hgetAll(getRawOpsKey())).values(), valueClass);
+    }
+
+    @Override
+    public <V> Iterator<V> hscan(int count, Class<V> valueClass) {
+        ScanParams params = new ScanParams().count(count);
+        return new ScanCursorIterator<V>() {
+            @Override
+            protected String scanPage(String cursor, List<V> values) {
+                ScanResult<Entry<byte[], byte[]>> result = null;
+                if (nonNull(jedisCluster)) {
+                    result = jedisCluster.hscan(getRawOpsKey(), rawKey(cursor), params);
+                } else {
+                    result = jedis.hscan(getRawOpsKey(), rawKey(cursor), params);
+                }
+                for (Entry<byte[], byte[]> ent : result.getResult()) {
+                    values.add(decode(ent.getValue(), valueClass));
+                }
+                return result.getCursor();
+            }
+        };
     }
 
     @Override
     public <V> boolean hset(String key, V value) {
         if (nonNull(jedisCluster)) {
-            Long ret = jedisCluster.hset(getOpsKey(), key, toJSONString(value));
-            return nonNull(ret) && ret > 0;
+            return nonNull(jedisCluster.hset(getRawOpsKey(), rawKey(key), encode(value)));
         }
-        Long ret = jedis.hset(getOpsKey(), key, toJSONString(value));
-        return nonNull(ret) && ret > 0;
+        // The reply is 0 if overwritten, it's also written.
+        return nonNull(jedis.hset(getRawOpsKey(), rawKey(key), encode(value)));
+    }
+
+    @Override
+    public <V> boolean hmset(Map<String, V> values) {
+        if (values.isEmpty()) {
+            return true;
+        }
+        if (nonNull(jedisCluster)) {
+            return "OK".equalsIgnoreCase(jedisCluster.hmset(getRawOpsKey(), encodeValues(values)));
+        }
+        return "OK".equalsIgnoreCase(jedis.hmset(getRawOpsKey(), encodeValues(values)));
     }
 
     @Override
     public <V> boolean hsetnx(String key, V value) {
         if (nonNull(jedisCluster)) {
-            Long ret = jedisCluster.hsetnx(getOpsKey(), key, toJSONString(value));
+            Long ret = jedisCluster.hsetnx(getRawOpsKey(), rawKey(key), encode(value));
             return nonNull(ret) && ret > 0;
         }
-        Long ret = jedis.hsetnx(getOpsKey(), key, toJSONString(value));
+        Long ret = jedis.hsetnx(getRawOpsKey(), rawKey(key), encode(value));
         return nonNull(ret) && ret > 0;
     }
 
     @Override
     public boolean hdel(String key) {
         if (nonNull(jedisCluster)) {
-            Long ret = jedisCluster.hdel(getOpsKey(), key);
+            Long ret = jedisCluster.hdel(getRawOpsKey(), rawKey(key));
             return nonNull(ret) && ret > 0;
         }
-        Long ret = jedis.hdel(getOpsKey(), key);
+        Long ret = jedis.hdel(getRawOpsKey(), rawKey(key));
         return nonNull(ret) && ret > 0;
     }
 
     @Override
     public <V> V get(String key, Class<V> valueClass) {
         if (nonNull(jedisCluster)) {
-            return parseJSON(jedisCluster.get(key), valueClass);
+            return decode(jedisCluster.get(rawKey(key)), valueClass);
+        }
+        return decode(jedis.get(rawKey(key)), valueClass);
+    }
+
+    /**
+     * The keys of cluster may be in the different slots, if so get one by
+     * one.
+     */
+    @Override
+    public <V> List<V> mget(List<String> keys, Class<V> valueClass) {
+        if (keys.isEmpty()) {
+            return new ArrayList<>(0);
+        }
+        if (nonNull(jedisCluster)) {
+            int slot = getSlot(keys.get(0));
+            if (keys.stream().allMatch(key -> getSlot(key) == slot)) {
+                return decodeValues(jedisCluster.mget(rawKeys(keys)), valueClass);
+            }
+            return super.mget(keys, valueClass);
         }
-        return parseJSON(jedis.get(key), valueClass);
+        return decodeValues(jedis.mget(rawKeys(keys)), valueClass);
     }
 
     @Override
     public <V> boolean set(String key, V value, long expireMs) {
         String ret = null;
+        SetParams setParams = SetParams.setParams().px(expireMs);
         if (nonNull(jedisCluster)) {
-            ret = jedisCluster.setex(key, expireMs, toJSONString(value));
+            ret = jedisCluster.set(rawKey(key), encode(value), setParams);
         } else {
-            ret = jedis.setex(key, expireMs, toJSONString(value));
+            ret = jedis.set(rawKey(key), encode(value), setParams);
         }
         return nonNull(ret) && ("OK".equalsIgnoreCase(ret) || Integer.parseInt(ret) > 0);
     }
@@ -134,9 +205,9 @@ public class NativeJedisShellCache extends AbstractRedisShellCache {
         String ret = null;
         SetParams setParams = SetParams.setParams().nx().px(expireMs);
         if (nonNull(jedisCluster)) {
-            ret = jedisCluster.set(key, toJSONString(value), setParams);
+            ret = jedisCluster.set(rawKey(key), encode(value), setParams);
         } else {
-            ret = jedis.set(key, toJSONString(value), setParams);
+            ret = jedis.set(rawKey(key), encode(value), setParams);
         }
         return nonNull(ret) && ("OK".equalsIgnoreCase(ret) || Integer.parseInt(ret) > 0);
     }
@@ -152,12 +223,143 @@ public class NativeJedisShellCache extends AbstractRedisShellCache {
         return nonNull(ret) && ret > 0;
     }
 
+    /**
+     * The argument is encoded the same as the value.
+     */
     @Override
     public Object deleq(String key, String arg) {
         if (nonNull(jedisCluster)) {
-            return jedisCluster.eval(UNLOCK_LUA, singletonList(key), singletonList(arg));
+            return jedisCluster.eval(RAW_UNLOCK_LUA, singletonList(rawKey(key)), singletonList(encode(arg)));
+        }
+        return jedis.eval(RAW_UNLOCK_LUA, singletonList(rawKey(key)), singletonList(encode(arg)));
+    }
+
+    @Override
+    public long incr(String key) {
+        if (nonNull(jedisCluster)) {
+            return jedisCluster.incr(rawKey(key));
+        }
+        return jedis.incr(rawKey(key));
+    }
+
+    @Override
+    public boolean expireeq(String key, String arg, long expireMs) {
+        if (nonNull(jedisCluster)) {
+            return isSuccessReply(jedisCluster.eval(RAW_EXPIRE_LUA, singletonList(rawKey(key)), expireArgs(arg, expireMs)));
+        }
+        return isSuccessReply(jedis.eval(RAW_EXPIRE_LUA, singletonList(rawKey(key)), expireArgs(arg, expireMs)));
+    }
+
+    @Override
+    public boolean publish(String channel, String message) {
+        if (nonNull(jedisCluster)) {
+            return nonNull(jedisCluster.publish(channel, message));
+        }
+        return nonNull(jedis.publish(channel, message));
+    }
+
+    /**
+     * Only supported by cluster (subscribed on a pooled connection), the
+     * single jedis connection is shared by the commands, which cannot be
+     * used by the subscription.
+     */
+    @Override
+    public Closeable subscribe(String channel, Consumer<String> listener) {
+        if (isNull(jedisCluster)) {
+            return null;
+        }
+        return new BackgroundSubscription(channel) {
+            private final JedisPubSub pubSub = new JedisPubSub() {
+                @Override
+                public void onMessage(String channel, String message) {
+                    dispatch(listener, message);
+                }
+            };
+
+            @Override
+            protected void subscribe() {
+                jedisCluster.subscribe(pubSub, channel);
+            }
+
+            @Override
+            protected void unsubscribe() {
+                if (pubSub.isSubscribed()) {
+                    pubSub.unsubscribe();
+                }
+            }
+        }.start();
+    }
+
+    /**
+     * The pattern of cluster must contain the hash tag, e.g.
+     * shell:session:{shell}:*, i.e. the keys are in the same slot.
+     */
+    @Override
+    public Iterator<String> scan(String pattern, int count) {
+        ScanParams params = new ScanParams().match(pattern).count(count);
+        return new ScanCursorIterator<String>() {
+            @Override
+            protected String scanPage(String cursor, List<String> keys) {
+                ScanResult<String> result = nonNull(jedisCluster) ? jedisCluster.scan(cursor, params)
+                        : jedis.scan(cursor, params);
+                keys.addAll(result.getResult());
+                return result.getCursor();
+            }
+        };
+    }
+
+    /**
+     * The cluster does not support pipeline (keys may be in the different
+     * slots), so executed sequentially.
+     */
+    @Override
+    public List<Object> executePipeline(List<Operation> operations) {
+        if (nonNull(jedisCluster)) {
+            return super.executePipeline(operations);
+        }
+        Pipeline pipeline = jedis.pipelined();
+        List<Response<?>> responses = new ArrayList<>(operations.size());
+        for (Operation op : operations) {
+            switch (op.getType()) {
+            case HGET:
+                responses.add(pipeline.hget(getRawOpsKey(), rawKey(op.getKey())));
+                break;
+            case HSET:
+                responses.add(pipeline.hset(getRawOpsKey(), rawKey(op.getKey()), encode(op.getValue())));
+                break;
+            case HDEL:
+                responses.add(pipeline.hdel(getRawOpsKey(), rawKey(op.getKey())));
+                break;
+            case GET:
+                responses.add(pipeline.get(rawKey(op.getKey())));
+                break;
+            case SET:
+                responses.add(pipeline.set(rawKey(op.getKey()), encode(op.getValue()), SetParams.setParams().px(op.getExpireMs())));
+                break;
+            case SETNX:
+                responses.add(pipeline.set(rawKey(op.getKey()), encode(op.getValue()),
+                        SetParams.setParams().nx().px(op.getExpireMs())));
+                break;
+            case DEL:
+                responses.add(pipeline.del(op.getKey()));
+                break;
+            case INCR:
+                responses.add(pipeline.incr(rawKey(op.getKey())));
+                break;
+            case EXPIREEQ:
+                responses.add(pipeline.eval(RAW_EXPIRE_LUA, singletonList(rawKey(op.getKey())),
+                        expireArgs((String) op.getValue(), op.getExpireMs())));
+                break;
+            default:
+                throw new UnsupportedOperationException(String.valueOf(op.getType()));
+            }
+        }
+        pipeline.sync();
+        List<Object> replies = new ArrayList<>(responses.size());
+        for (Response<?> response : responses) {
+            replies.add(response.get());
         }
-        return jedis.eval(UNLOCK_LUA, singletonList(key), singletonList(arg));
+        return convertPipelineReplies(operations, replies);
     }
 
 }
@@ -17,30 +17,49 @@ package com.wl4g.shell.core.cache;
 
 import static com.wl4g.infra.common.collection.CollectionUtils2.safeMap;
 import static com.wl4g.infra.common.lang.Assert2.notNullOf;
-import static com.wl4g.infra.common.serialize.JacksonUtils.parseJSON;
-import static com.wl4g.infra.common.serialize.JacksonUtils.toJSONString;
-import static java.util.Collections.singletonList;
-import static java.util.stream.Collectors.toList;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.nonNull;
 
-import java.time.Duration;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Consumer;
 
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.ConvertingCursor;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
+import com.wl4g.shell.core.cache.ShellCachePipeline.Operation;
+import com.wl4g.shell.core.cache.ShellCachePipeline.OperationType;
 import com.wl4g.shell.core.config.ServerShellProperties;
 
 /**
- * {@link RedisTemplateShellCache}
+ * {@link RedisTemplateShellCache}, the raw commands of connection are used,
+ * i.e. the keys are UTF-8 and the values are encoded by the codec, regardless
+ * of the serializers of template.
  * 
  * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
  * @version 2021-06-30 v1.0.0
  * 
  */
 public class RedisTemplateShellCache extends AbstractRedisShellCache {
+    private static final String JEDIS_CONNECTION_PACKAGE = "org.springframework.data.redis.connection.jedis.";
 
     protected final RedisTemplate<String, String> redisTemplate;
+    /** Whether the scripts can be pipelined, e.g. not by jedis connection. */
+    private final boolean pipelinedScripting;
 
     /**
      * @param redisObj
@@ -55,64 +74,284 @@ public class RedisTemplateShellCache extends AbstractRedisShellCache {
         } else {
             throw new IllegalStateException();
         }
+        this.pipelinedScripting = isPipelinedScriptingSupported(redisTemplate.getConnectionFactory());
     }
 
     @Override
     public <V> V hget(String key, Class<V> valueClass) {
-        Object ret = redisTemplate.opsForHash().get(getOpsKey(), key);
-        return parseJSON(ret.toString(), valueClass);
+        return decode(redisTemplate.execute((RedisCallback<byte[]>) conn -> conn.hGet(getRawOpsKey(), rawKey(key))), valueClass);
+    }
+
+    @Override
+    public <V> List<V> hmget(List<String> keys, Class<V> valueClass) {
+        if (keys.isEmpty()) {
+            return new ArrayList<>(0);
+        }
+        return decodeValues(redisTemplate.execute((RedisCallback<List<byte[]>>) conn -> conn.hMGet(getRawOpsKey(), rawKeys(keys))),
+                valueClass);
     }
 
     @Override
     public <V> List<V> hgetAll(Class<V> valueClass) {
-        Map<Object, Object> ret = redisTemplate.opsForHash().entries(getOpsKey());
-        return safeMap(ret).values().stream().map(s -> parseJSON((String) s, valueClass)).collect(toList());
+        Map<byte[], byte[]> ret = redisTemplate.execute((RedisCallback<Map<byte[], byte[]>>) conn -> conn.hGetAll(getRawOpsKey()));
+        return decodeValues(safeMap(ret).values(), valueClass);
+    }
+
+    /**
+     * The cursor holds a connection until the iteration is finished.
+     */
+    @Override
+    public <V> Iterator<V> hscan(int count, Class<V> valueClass) {
+        ScanOptions options = ScanOptions.scanOptions().count(count).build();
+        Cursor<V> cursor = redisTemplate.executeWithStickyConnection(
+                conn -> new ConvertingCursor<Entry<byte[], byte[]>, V>(conn.hScan(getRawOpsKey(), options),
+                        ent -> decode(ent.getValue(), valueClass)));
+        return closeOnFinished(cursor);
     }
 
     @Override
     public <V> boolean hset(String key, V value) {
-        redisTemplate.opsForHash().put(getOpsKey(), key, value);
+        redisTemplate.execute((RedisCallback<Boolean>) conn -> conn.hSet(getRawOpsKey(), rawKey(key), encode(value)));
+        return true;
+    }
+
+    @Override
+    public <V> boolean hmset(Map<String, V> values) {
+        if (!values.isEmpty()) {
+            redisTemplate.execute((RedisCallback<Object>) conn -> {
+                conn.hMSet(getRawOpsKey(), encodeValues(values));
+                return null;
+            });
+        }
         return true;
     }
 
     @Override
     public <V> boolean hsetnx(String key, V value) {
-        return redisTemplate.opsForHash().putIfAbsent(getOpsKey(), key, value);
+        Boolean ret = redisTemplate
+                .execute((RedisCallback<Boolean>) conn -> conn.hSetNX(getRawOpsKey(), rawKey(key), encode(value)));
+        return nonNull(ret) && ret;
     }
 
     @Override
-    public boolean hdel(String sessionId) {
-        redisTemplate.opsForHash().delete(getOpsKey(), sessionId);
-        return true;
+    public boolean hdel(String key) {
+        return isSuccessReply(redisTemplate.execute((RedisCallback<Long>) conn -> conn.hDel(getRawOpsKey(), rawKey(key))));
     }
 
     @Override
     public <V> V get(String key, Class<V> valueClass) {
-        return parseJSON(redisTemplate.opsForValue().get(key), valueClass);
+        return decode(redisTemplate.execute((RedisCallback<byte[]>) conn -> conn.get(rawKey(key))), valueClass);
+    }
+
+    @Override
+    public <V> List<V> mget(List<String> keys, Class<V> valueClass) {
+        if (keys.isEmpty()) {
+            return new ArrayList<>(0);
+        }
+        return decodeValues(redisTemplate.execute((RedisCallback<List<byte[]>>) conn -> conn.mGet(rawKeys(keys))), valueClass);
     }
 
     @Override
     public <V> boolean set(String key, V value, long expireMs) {
-        redisTemplate.opsForValue().set(key, toJSONString(value), Duration.ofMillis(expireMs));
+        redisTemplate.execute((RedisCallback<Boolean>) conn -> conn.set(rawKey(key), encode(value),
+                Expiration.milliseconds(expireMs), SetOption.upsert()));
         return true;
     }
 
     @Override
     public <V> boolean setnx(String key, V value, long expireMs) {
-        redisTemplate.opsForValue().setIfAbsent(key, toJSONString(value), Duration.ofMillis(expireMs));
-        return true;
+        Boolean ret = redisTemplate.execute((RedisCallback<Boolean>) conn -> conn.set(rawKey(key), encode(value),
+                Expiration.milliseconds(expireMs), SetOption.ifAbsent()));
+        return nonNull(ret) && ret;
     }
 
     @Override
     public <V> boolean del(String key) {
-        redisTemplate.delete(key);
-        return true;
+        return isSuccessReply(redisTemplate.execute((RedisCallback<Long>) conn -> conn.del(rawKey(key))));
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * The argument is encoded the same as the value.
+     */
     @Override
     public Object deleq(String key, String arg) {
-        return redisTemplate.execute(RedisScript.of(UNLOCK_LUA, Object.class), singletonList(key), arg);
+        return redisTemplate.execute(
+                (RedisCallback<Object>) conn -> conn.eval(RAW_UNLOCK_LUA, ReturnType.INTEGER, 1, rawKey(key), encode(arg)));
+    }
+
+    @Override
+    public long incr(String key) {
+        return redisTemplate.execute((RedisCallback<Long>) conn -> conn.incr(rawKey(key)));
+    }
+
+    @Override
+    public boolean expireeq(String key, String arg, long expireMs) {
+        return isSuccessReply(redisTemplate.execute((RedisCallback<Object>) conn -> evalExpire(conn, key, arg, expireMs)));
+    }
+
+    @Override
+    public boolean publish(String channel, String message) {
+        redisTemplate.execute((RedisCallback<Long>) conn -> conn.publish(rawKey(channel), message.getBytes(UTF_8)));
+        return true;
+    }
+
+    /**
+     * Subscribed on a dedicated connection, the subscribing is blocking by the
+     * jedis driver, but non-blocking by the lettuce driver (i.e. then waits
+     * until unsubscribed).
+     */
+    @Override
+    public Closeable subscribe(String channel, Consumer<String> listener) {
+        RedisConnectionFactory factory = redisTemplate.getRequiredConnectionFactory();
+        return new BackgroundSubscription(channel) {
+            private volatile RedisConnection connection;
+
+            @Override
+            protected void subscribe() throws Exception {
+                RedisConnection conn = connection = factory.getConnection();
+                try {
+                    conn.subscribe((message, pattern) -> dispatch(listener, new String(message.getBody(), UTF_8)),
+                            rawKey(channel));
+                    while (!isClosed() && conn.isSubscribed()) {
+                        Thread.sleep(SUBSCRIBE_RETRY_INTERVAL_MS);
+                    }
+                } finally {
+                    conn.close();
+                }
+            }
+
+            @Override
+            protected void unsubscribe() {
+                RedisConnection conn = connection;
+                if (nonNull(conn) && conn.isSubscribed()) {
+                    conn.getSubscription().unsubscribe();
+                }
+            }
+        }.start();
+    }
+
+    /**
+     * The cursor holds a connection until the iteration is finished.
+     */
+    @Override
+    public Iterator<String> scan(String pattern, int count) {
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(count).build();
+        Cursor<String> cursor = redisTemplate.executeWithStickyConnection(
+                conn -> new ConvertingCursor<>(conn.scan(options), key -> new String(key, UTF_8)));
+        return closeOnFinished(cursor);
+    }
+
+    /**
+     * The operations with script (i.e. {@link OperationType#EXPIREEQ}) are
+     * executed sequentially if the connection doesn't support the scripting of
+     * pipeline.
+     */
+    @Override
+    public List<Object> executePipeline(List<Operation> operations) {
+        if (!pipelinedScripting && operations.stream().anyMatch(op -> op.getType() == OperationType.EXPIREEQ)) {
+            List<Object> results = new ArrayList<>(operations.size());
+            for (Operation op : operations) {
+                results.add(ShellCachePipeline.executeSingle(this, op));
+            }
+            return results;
+        }
+        List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) conn -> {
+            for (Operation op : operations) {
+                switch (op.getType()) {
+                case HGET:
+                    conn.hGet(getRawOpsKey(), rawKey(op.getKey()));
+                    break;
+                case HSET:
+                    conn.hSet(getRawOpsKey(), rawKey(op.getKey()), encode(op.getValue()));
+                    break;
+                case HDEL:
+                    conn.hDel(getRawOpsKey(), rawKey(op.getKey()));
+                    break;
+                case GET:
+                    conn.get(rawKey(op.getKey()));
+                    break;
+                case SET:
+                    conn.set(rawKey(op.getKey()), encode(op.getValue()), Expiration.milliseconds(op.getExpireMs()),
+                            SetOption.upsert());
+                    break;
+                case SETNX:
+                    conn.set(rawKey(op.getKey()), encode(op.getValue()), Expiration.milliseconds(op.getExpireMs()),
+                            SetOption.ifAbsent());
+                    break;
+                case DEL:
+                    conn.del(rawKey(op.getKey()));
+                    break;
+                case INCR:
+                    conn.incr(rawKey(op.getKey()));
+                    break;
+                case EXPIREEQ:
+                    evalExpire(conn, op.getKey(), (String) op.getValue(), op.getExpireMs());
+                    break;
+                default:
+                    throw new UnsupportedOperationException(String.valueOf(op.getType()));
+                }
+            }
+            return null;
+        }, RedisSerializer.byteArray()); // Raw replies, decoded by codec
+        return convertPipelineReplies(operations, alignStatusReplies(operations, replies));
+    }
+
+    private Object evalExpire(RedisConnection conn, String key, String arg, long expireMs) {
+        List<byte[]> args = expireArgs(arg, expireMs);
+        return conn.eval(RAW_EXPIRE_LUA, ReturnType.INTEGER, 1, rawKey(key), args.get(0), args.get(1));
+    }
+
+    /**
+     * The jedis connection of spring data redis throws
+     * {@link UnsupportedOperationException} of eval in pipeline.
+     */
+    private static boolean isPipelinedScriptingSupported(RedisConnectionFactory factory) {
+        return !(nonNull(factory) && factory.getClass().getName().startsWith(JEDIS_CONNECTION_PACKAGE));
+    }
+
+    /**
+     * Release the connection of cursor when the iteration is finished.
+     */
+    private static <T> Iterator<T> closeOnFinished(Cursor<T> cursor) {
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                if (cursor.isClosed()) {
+                    return false;
+                }
+                boolean hasNext = cursor.hasNext();
+                if (!hasNext) {
+                    try {
+                        cursor.close();
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                return hasNext;
+            }
+
+            @Override
+            public T next() {
+                return cursor.next();
+            }
+        };
+    }
+
+    /**
+     * The status replies (e.g. OK of SET with expiration) are excluded from
+     * the results of pipelined, so fill them as success.
+     */
+    private List<Object> alignStatusReplies(List<Operation> operations, List<Object> replies) {
+        long statusCount = operations.stream().filter(op -> op.getType() == OperationType.SET).count();
+        if (replies.size() == operations.size() || replies.size() != operations.size() - statusCount) {
+            return replies; // Not excluded, or mismatched
+        }
+        List<Object> aligned = new ArrayList<>(operations.size());
+        Iterator<Object> it = replies.iterator();
+        for (Operation op : operations) {
+            aligned.add((op.getType() == OperationType.SET) ? Boolean.TRUE : it.next());
+        }
+        return aligned;
     }
 
 }
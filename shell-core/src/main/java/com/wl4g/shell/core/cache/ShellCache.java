@@ -18,8 +18,17 @@ package com.wl4g.shell.core.cache;
 import static com.wl4g.infra.common.lang.ClassUtils2.resolveClassNameNullable;
 import static java.util.Objects.nonNull;
 
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Consumer;
 
+import javax.annotation.Nullable;
+
+import com.wl4g.shell.core.cache.ShellCachePipeline.Operation;
 import com.wl4g.shell.core.config.ServerShellProperties;
 
 /**
@@ -35,18 +44,74 @@ public interface ShellCache {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Batch hget of the fields in one round trip.
+     * 
+     * @param keys
+     * @param valueClass
+     * @return values in the order of keys, the not exists is null.
+     */
+    default <V> List<V> hmget(List<String> keys, Class<V> valueClass) {
+        List<V> values = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            values.add(hget(key, valueClass));
+        }
+        return values;
+    }
+
     default <V> List<V> hgetAll(Class<V> valueClass) {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Iterate the values of fields by cursor (e.g. HSCAN of redis), i.e. the
+     * values are fetched page by page rather than all at once. The iteration
+     * is weakly consistent, the fields added or removed during the iteration
+     * may or may not be returned, and a field may be returned more than once.
+     * 
+     * @param count
+     *            hint of the number of fields per page.
+     * @param valueClass
+     * @return
+     */
+    default <V> Iterator<V> hscan(int count, Class<V> valueClass) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Set the field of hash, and replace the existing.
+     * 
+     * @param key
+     * @param value
+     * @return true if written, either created or overwritten (unlike the
+     *         reply of HSET of redis).
+     */
     default <V> boolean hset(String key, V value) {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Batch hset of the fields and values in one round trip.
+     * 
+     * @param values
+     * @return
+     */
+    default <V> boolean hmset(Map<String, V> values) {
+        boolean result = true;
+        for (Entry<String, V> ent : values.entrySet()) {
+            result &= hset(ent.getKey(), ent.getValue());
+        }
+        return result;
+    }
+
     default <V> boolean hsetnx(String key, V value) {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * @param key
+     * @return whether the field existed.
+     */
     default <V> boolean hdel(String key) {
         throw new UnsupportedOperationException();
     }
@@ -55,6 +120,31 @@ public interface ShellCache {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Batch get of the keys in one round trip (if the keys in the same slot
+     * for cluster).
+     * 
+     * @param keys
+     * @param valueClass
+     * @return values in the order of keys, the not exists is null.
+     */
+    default <V> List<V> mget(List<String> keys, Class<V> valueClass) {
+        List<V> values = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            values.add(get(key, valueClass));
+        }
+        return values;
+    }
+
+    /**
+     * Set the key with the expiration time in milliseconds (e.g. SET PX of
+     * redis).
+     * 
+     * @param key
+     * @param value
+     * @param expireMs
+     * @return
+     */
     default <V> boolean set(String key, V value, long expireMs) {
         throw new UnsupportedOperationException();
     }
@@ -71,6 +161,10 @@ public interface ShellCache {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * @param key
+     * @return whether the key existed.
+     */
     default <V> boolean del(String key) {
         throw new UnsupportedOperationException();
     }
@@ -88,6 +182,108 @@ public interface ShellCache {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Whether the entries are only in the current process, e.g. the
+     * {@link MemoryShellCache}, i.e. not shared by the cluster nodes.
+     * 
+     * @return
+     */
+    default boolean isLocal() {
+        return false;
+    }
+
+    /**
+     * Increment the counter (e.g. INCR of redis), the counter is never
+     * expired. Required by the locks of shared cache (fencing tokens).
+     * 
+     * @param key
+     * @return the incremented value, the first is 1.
+     */
+    default long incr(String key) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Renew the expiration time in milliseconds of the key if the value equals
+     * the argument, e.g. the lease of lock is only renewed by the holder.
+     * Required by the locks of shared cache, must be atomic.
+     * 
+     * @param key
+     * @param arg
+     * @param expireMs
+     * @return whether renewed, false if the key not exists or not equals.
+     */
+    default boolean expireeq(String key, String arg, long expireMs) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Iterate the keys matching the pattern by cursor (e.g. SCAN of redis),
+     * i.e. the keys are fetched page by page rather than all at once. The
+     * iteration is weakly consistent, the keys added or removed during the
+     * iteration may or may not be returned, and a key may be returned more
+     * than once.
+     * 
+     * @param pattern
+     *            glob-style pattern, e.g. shell:session:*
+     * @param count
+     *            hint of the number of keys per page.
+     * @return
+     */
+    default Iterator<String> scan(String pattern, int count) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Publish the message to the channel (e.g. PUBLISH of redis).
+     * 
+     * @param channel
+     * @param message
+     * @return whether published, false if not supported.
+     */
+    default boolean publish(String channel, String message) {
+        return false;
+    }
+
+    /**
+     * Subscribe the channel in background (e.g. SUBSCRIBE of redis), the
+     * listener is called on the subscriber thread, and the subscription is
+     * re-established after the connection failure. The messages published
+     * while not subscribed are lost.
+     * 
+     * @param channel
+     * @param listener
+     * @return subscription to unsubscribe, or null if not supported.
+     */
+    @Nullable
+    default Closeable subscribe(String channel, Consumer<String> listener) {
+        return null;
+    }
+
+    /**
+     * New pipeline of the multi operations.
+     * 
+     * @return
+     */
+    default ShellCachePipeline pipeline() {
+        return new ShellCachePipeline(this);
+    }
+
+    /**
+     * Execute the operations of pipeline, executed sequentially by default.
+     * 
+     * @param operations
+     * @return results in the order of the operations.
+     * @see ShellCachePipeline
+     */
+    default List<Object> executePipeline(List<Operation> operations) {
+        List<Object> results = new ArrayList<>(operations.size());
+        for (Operation op : operations) {
+            results.add(ShellCachePipeline.executeSingle(this, op));
+        }
+        return results;
+    }
+
     public final static class Factory {
 
         public static ShellCache build(ServerShellProperties config, Object cacheClientObj) {
@@ -99,6 +295,9 @@ public interface ShellCache {
                     shellCache = new NativeJedisShellCache(config, cacheClientObj);
                 } else if (nonNull(JEDIS_CLASS) && JEDIS_CLASS.isInstance(cacheClientObj)) {
                     shellCache = new NativeJedisShellCache(config, cacheClientObj);
+                } else if ((nonNull(LETTUCE_CLIENT_CLASS) && LETTUCE_CLIENT_CLASS.isInstance(cacheClientObj))
+                        || (nonNull(LETTUCE_CLUSTER_CLIENT_CLASS) && LETTUCE_CLUSTER_CLIENT_CLASS.isInstance(cacheClientObj))) {
+                    shellCache = new LettuceShellCache(config, cacheClientObj);
                 } else if (nonNull(REDIS_TEMPLATE_CLASS) && REDIS_TEMPLATE_CLASS.isInstance(cacheClientObj)) {
                     shellCache = new RedisTemplateShellCache(config, cacheClientObj);
                 }
@@ -110,6 +309,9 @@ public interface ShellCache {
                 "com.wl4g.infra.support.cache.jedis.JedisClient");
         public static final Class<?> JEDIS_CLUSTER_CLASS = resolveClassNameNullable("redis.clients.jedis.JedisCluster");
         public static final Class<?> JEDIS_CLASS = resolveClassNameNullable("redis.clients.jedis.Jedis");
+        public static final Class<?> LETTUCE_CLIENT_CLASS = resolveClassNameNullable("io.lettuce.core.RedisClient");
+        public static final Class<?> LETTUCE_CLUSTER_CLIENT_CLASS = resolveClassNameNullable(
+                "io.lettuce.core.cluster.RedisClusterClient");
         public static final Class<?> REDIS_TEMPLATE_CLASS = resolveClassNameNullable(
                 "org.springframework.data.redis.core.RedisTemplate");
     }
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.core.cache;
+
+import static com.wl4g.infra.common.lang.Assert2.hasTextOf;
+import static com.wl4g.infra.common.lang.Assert2.notNullOf;
+import static java.util.Collections.unmodifiableList;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Multi operations of {@link ShellCache} that are sent in one round trip (if
+ * supported by the cache implementation, otherwise executed sequentially).
+ * The operations are independent of each other, and the results are in the
+ * order of the operations.
+ *
+ * <pre>
+ * List&lt;Object&gt; results = shellCache.pipeline()
+ *         .setnx(name, requestId, expiredMs)
+ *         .get(name, String.class)
+ *         .sync();
+ * </pre>
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+public final class ShellCachePipeline {
+
+    private final ShellCache shellCache;
+    private final List<Operation> operations = new ArrayList<>(4);
+
+    ShellCachePipeline(ShellCache shellCache) {
+        this.shellCache = notNullOf(shellCache, "shellCache");
+    }
+
+    /**
+     * Result is the value or null.
+     */
+    public ShellCachePipeline hget(String key, Class<?> valueClass) {
+        return add(new Operation(OperationType.HGET, key, null, 0, notNullOf(valueClass, "valueClass")));
+    }
+
+    /**
+     * Result is the boolean whether the field is created.
+     */
+    public ShellCachePipeline hset(String key, Object value) {
+        return add(new Operation(OperationType.HSET, key, notNullOf(value, "value"), 0, null));
+    }
+
+    /**
+     * Result is the boolean whether the field is deleted.
+     */
+    public ShellCachePipeline hdel(String key) {
+        return add(new Operation(OperationType.HDEL, key, null, 0, null));
+    }
+
+    /**
+     * Result is the value or null.
+     */
+    public ShellCachePipeline get(String key, Class<?> valueClass) {
+        return add(new Operation(OperationType.GET, key, null, 0, notNullOf(valueClass, "valueClass")));
+    }
+
+    /**
+     * Result is the boolean whether the key is set.
+     */
+    public ShellCachePipeline set(String key, Object value, long expireMs) {
+        return add(new Operation(OperationType.SET, key, notNullOf(value, "value"), expireMs, null));
+    }
+
+    /**
+     * Result is the boolean whether the key is set.
+     */
+    public ShellCachePipeline setnx(String key, Object value, long expireMs) {
+        return add(new Operation(OperationType.SETNX, key, notNullOf(value, "value"), expireMs, null));
+    }
+
+    /**
+     * Result is the boolean whether the key is deleted.
+     */
+    public ShellCachePipeline del(String key) {
+        return add(new Operation(OperationType.DEL, key, null, 0, null));
+    }
+
+    /**
+     * Result is the incremented value of counter, see:
+     * {@link ShellCache#incr(String)}
+     */
+    public ShellCachePipeline incr(String key) {
+        return add(new Operation(OperationType.INCR, key, null, 0, null));
+    }
+
+    /**
+     * Result is the boolean whether the expiration is renewed, see:
+     * {@link ShellCache#expireeq(String, String, long)}
+     */
+    public ShellCachePipeline expireeq(String key, String arg, long expireMs) {
+        return add(new Operation(OperationType.EXPIREEQ, key, notNullOf(arg, "arg"), expireMs, null));
+    }
+
+    public List<Operation> getOperations() {
+        return unmodifiableList(operations);
+    }
+
+    /**
+     * Send the operations and wait for the results.
+     *
+     * @return results in the order of the operations.
+     */
+    public List<Object> sync() {
+        if (operations.isEmpty()) {
+            return new ArrayList<>(0);
+        }
+        return shellCache.executePipeline(getOperations());
+    }
+
+    /**
+     * Send the operations without waiting, if the cache is
+     * {@link AsyncShellCache}, otherwise the same as {@link #sync()}.
+     *
+     * @return results in the order of the operations.
+     */
+    public CompletionStage<List<Object>> async() {
+        if (operations.isEmpty()) {
+            return completedFuture(new ArrayList<>(0));
+        }
+        if (shellCache instanceof AsyncShellCache) {
+            return ((AsyncShellCache) shellCache).executePipelineAsync(getOperations());
+        }
+        return completedFuture(sync());
+    }
+
+    private ShellCachePipeline add(Operation operation) {
+        operations.add(operation);
+        return this;
+    }
+
+    /**
+     * Execute the operation by the single operation of cache.
+     */
+    static Object executeSingle(ShellCache shellCache, Operation op) {
+        switch (op.getType()) {
+        case HGET:
+            return shellCache.hget(op.getKey(), op.getValueClass());
+        case HSET:
+            return shellCache.hset(op.getKey(), op.getValue());
+        case HDEL:
+            return shellCache.hdel(op.getKey());
+        case GET:
+            return shellCache.get(op.getKey(), op.getValueClass());
+        case SET:
+            return shellCache.set(op.getKey(), op.getValue(), op.getExpireMs());
+        case SETNX:
+            return shellCache.setnx(op.getKey(), op.getValue(), op.getExpireMs());
+        case DEL:
+            return shellCache.del(op.getKey());
+        case INCR:
+            return shellCache.incr(op.getKey());
+        case EXPIREEQ:
+            return shellCache.expireeq(op.getKey(), (String) op.getValue(), op.getExpireMs());
+        default:
+            throw new UnsupportedOperationException(String.valueOf(op.getType()));
+        }
+    }
+
+    public static enum OperationType {
+        HGET, HSET, HDEL, GET, SET, SETNX, DEL, INCR, EXPIREEQ;
+    }
+
+    /**
+     * Operation of pipeline, the hash operations are on the fields of
+     * {@link AbstractRedisShellCache#getOpsKey()}.
+     */
+    public static final class Operation {
+        private final OperationType type;
+        private final String key;
+        private final Object value;
+        private final long expireMs;
+        private final Class<?> valueClass;
+
+        Operation(OperationType type, String key, Object value, long expireMs, Class<?> valueClass) {
+            this.type = type;
+            this.key = hasTextOf(key, "key");
+            this.value = value;
+            this.expireMs = expireMs;
+            this.valueClass = valueClass;
+        }
+
+        public OperationType getType() {
+            return type;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+
+        public long getExpireMs() {
+            return expireMs;
+        }
+
+        public Class<?> getValueClass() {
+            return valueClass;
+        }
+    }
+
+}
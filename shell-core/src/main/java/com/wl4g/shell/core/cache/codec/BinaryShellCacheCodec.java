@@ -0,0 +1,240 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.core.cache.codec;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.wl4g.shell.core.session.ShellSession;
+
+/**
+ * Compact binary value codec, the {@link ShellSession} layout is:
+ *
+ * <pre>
+ * +--------+----------+-------------+--------------+----------+-------------------+--------------------+
+ * | tag(1) | flags(1) | sessionId   | [username]   | [host]   | startTs(int64)    | latestTs(int64)    |
+ * +--------+----------+-------------+--------------+----------+-------------------+--------------------+
+ * </pre>
+ *
+ * The hex session ID (e.g. generated by
+ * {@link com.wl4g.shell.core.utils.AuthUtils#genSessionID()}) is encoded as 16
+ * raw bytes, the other strings are encoded as varint length and UTF-8 bytes.
+ * The lock values (i.e. request ID) are encoded as tag and UTF-8 bytes, and the
+ * other values are embedded as JSON.
+ *
+ * <p>
+ * The tags are less than 0x20, i.e. never the first byte of a JSON document,
+ * so that the values written by {@link JsonShellCacheCodec} (e.g. before
+ * switching the codec) are still decoded.
+ * </p>
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+public class BinaryShellCacheCodec implements ShellCacheCodec {
+
+    public static final String NAME = "binary";
+
+    /**
+     * The usernames are few but repeated in all sessions, so the decoded
+     * are shared.
+     */
+    private final Interner<String> usernames = Interners.newWeakInterner();
+
+    private final JsonShellCacheCodec json = new JsonShellCacheCodec();
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        if (value instanceof ShellSession) {
+            return encodeSession((ShellSession) value);
+        } else if (value instanceof String) {
+            byte[] utf8 = ((String) value).getBytes(UTF_8);
+            byte[] data = new byte[1 + utf8.length];
+            data[0] = TAG_STRING;
+            System.arraycopy(utf8, 0, data, 1, utf8.length);
+            return data;
+        }
+        byte[] utf8 = json.encode(value);
+        byte[] data = new byte[1 + utf8.length];
+        data[0] = TAG_JSON;
+        System.arraycopy(utf8, 0, data, 1, utf8.length);
+        return data;
+    }
+
+    @Override
+    public <V> V decode(byte[] data, Class<V> valueClass) {
+        if (isNull(data)) {
+            return null;
+        }
+        if (data.length == 0 || data[0] >= 0x20) { // Written by JSON codec
+            return json.decode(data, valueClass);
+        }
+        try {
+            switch (data[0]) {
+            case TAG_SESSION:
+                return valueClass.cast(decodeSession(ByteBuffer.wrap(data, 1, data.length - 1)));
+            case TAG_STRING:
+                return valueClass.cast(new String(data, 1, data.length - 1, UTF_8));
+            case TAG_JSON:
+                return json.decode(copyOfRange(data, 1), valueClass);
+            default:
+                throw new IllegalArgumentException(format("Unknown value tag: %s", data[0]));
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated value of binary codec", e);
+        }
+    }
+
+    private byte[] encodeSession(ShellSession session) {
+        String sessionId = session.getSessionId();
+        boolean hexId = isHexSessionId(sessionId);
+        byte[] sessionIdBytes = (hexId || isNull(sessionId)) ? null : sessionId.getBytes(UTF_8);
+        byte[] usernameBytes = nonNull(session.getUsername()) ? session.getUsername().getBytes(UTF_8) : null;
+        byte[] hostBytes = nonNull(session.getHost()) ? session.getHost().getBytes(UTF_8) : null;
+
+        int flags = (session.isAuthenticated() ? FLAG_AUTHENTICATED : 0) | (hexId ? FLAG_HEX_ID : 0)
+                | (nonNull(sessionIdBytes) ? FLAG_SESSION_ID : 0) | (nonNull(usernameBytes) ? FLAG_USERNAME : 0)
+                | (nonNull(hostBytes) ? FLAG_HOST : 0);
+        int length = 2 + (hexId ? HEX_ID_BYTES : sizeOf(sessionIdBytes)) + sizeOf(usernameBytes) + sizeOf(hostBytes) + 16;
+
+        ByteBuffer buf = ByteBuffer.allocate(length);
+        buf.put(TAG_SESSION).put((byte) flags);
+        if (hexId) {
+            for (int i = 0; i < sessionId.length(); i += 2) {
+                buf.put((byte) ((Character.digit(sessionId.charAt(i), 16) << 4) | Character.digit(sessionId.charAt(i + 1), 16)));
+            }
+        } else {
+            putBytes(buf, sessionIdBytes);
+        }
+        putBytes(buf, usernameBytes);
+        putBytes(buf, hostBytes);
+        buf.putLong(session.getStartTimestamp());
+        buf.putLong(session.getLatestTimestamp());
+        return buf.array();
+    }
+
+    private ShellSession decodeSession(ByteBuffer buf) {
+        int flags = buf.get();
+        String sessionId = null;
+        if ((flags & FLAG_HEX_ID) != 0) {
+            char[] hex = new char[HEX_ID_BYTES * 2];
+            for (int i = 0; i < HEX_ID_BYTES; i++) {
+                int b = buf.get() & 0xFF;
+                hex[i * 2] = HEX_DIGITS[b >>> 4];
+                hex[i * 2 + 1] = HEX_DIGITS[b & 0x0F];
+            }
+            sessionId = new String(hex);
+        } else if ((flags & FLAG_SESSION_ID) != 0) {
+            sessionId = getString(buf);
+        }
+        String username = ((flags & FLAG_USERNAME) != 0) ? usernames.intern(getString(buf)) : null;
+        String host = ((flags & FLAG_HOST) != 0) ? getString(buf) : null;
+        long startTimestamp = buf.getLong();
+        long latestTimestamp = buf.getLong();
+        return new ShellSession(sessionId, username, (flags & FLAG_AUTHENTICATED) != 0, host, startTimestamp,
+                latestTimestamp);
+    }
+
+    private static boolean isHexSessionId(String sessionId) {
+        if (isNull(sessionId) || sessionId.length() != HEX_ID_BYTES * 2) {
+            return false;
+        }
+        for (int i = 0; i < sessionId.length(); i++) {
+            char c = sessionId.charAt(i);
+            if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int sizeOf(byte[] bytes) {
+        return isNull(bytes) ? 0 : (varintSize(bytes.length) + bytes.length);
+    }
+
+    private static void putBytes(ByteBuffer buf, byte[] bytes) {
+        if (nonNull(bytes)) {
+            int n = bytes.length;
+            while ((n & ~0x7F) != 0) {
+                buf.put((byte) ((n & 0x7F) | 0x80));
+                n >>>= 7;
+            }
+            buf.put((byte) n).put(bytes);
+        }
+    }
+
+    private static String getString(ByteBuffer buf) {
+        int length = 0;
+        for (int shift = 0;; shift += 7) {
+            byte b = buf.get();
+            length |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+            if (shift >= 28) {
+                throw new IllegalArgumentException("Malformed varint of binary codec");
+            }
+        }
+        if (length > buf.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String s = new String(buf.array(), buf.arrayOffset() + buf.position(), length, UTF_8);
+        buf.position(buf.position() + length);
+        return s;
+    }
+
+    private static int varintSize(int n) {
+        int size = 1;
+        while ((n & ~0x7F) != 0) {
+            ++size;
+            n >>>= 7;
+        }
+        return size;
+    }
+
+    private static byte[] copyOfRange(byte[] data, int from) {
+        byte[] copy = new byte[data.length - from];
+        System.arraycopy(data, from, copy, 0, copy.length);
+        return copy;
+    }
+
+    public static final byte TAG_SESSION = 0x01;
+    public static final byte TAG_STRING = 0x02;
+    public static final byte TAG_JSON = 0x03;
+
+    static final int FLAG_AUTHENTICATED = 1;
+    static final int FLAG_HEX_ID = 1 << 1;
+    static final int FLAG_SESSION_ID = 1 << 2;
+    static final int FLAG_USERNAME = 1 << 3;
+    static final int FLAG_HOST = 1 << 4;
+
+    static final int HEX_ID_BYTES = 16;
+    static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+}
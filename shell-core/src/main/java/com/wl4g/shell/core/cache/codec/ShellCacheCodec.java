@@ -0,0 +1,58 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.core.cache.codec;
+
+import javax.annotation.Nullable;
+
+/**
+ * Value codec of the redis backed {@link com.wl4g.shell.core.cache.ShellCache}
+ * (e.g. sessions and locks), which codec is used is configured by
+ * {@link com.wl4g.shell.core.config.ServerShellProperties#getCacheCodec()},
+ * see: {@link ShellCacheCodecs}
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+public interface ShellCacheCodec {
+
+    /**
+     * Gets the codec name, e.g. json|binary
+     *
+     * @return
+     */
+    String getName();
+
+    /**
+     * Encode the value to bytes.
+     *
+     * @param value
+     * @return
+     */
+    byte[] encode(Object value);
+
+    /**
+     * Decode the value from bytes.
+     *
+     * @param data
+     *            the encoded bytes, if null then return null.
+     * @param valueClass
+     * @return
+     */
+    @Nullable
+    <V> V decode(@Nullable byte[] data, Class<V> valueClass);
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.core.cache.codec;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Value codecs registry of the redis backed
+ * {@link com.wl4g.shell.core.cache.ShellCache}.
+ *
+ * <p>
+ * Switching from {@link #JSON} to {@link #BINARY} is compatible, i.e. the
+ * binary codec still reads the JSON values. Conversely the JSON codec cannot
+ * read the binary values, so all nodes should be switched back together.
+ * </p>
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+public abstract class ShellCacheCodecs {
+
+    public static final ShellCacheCodec JSON = new JsonShellCacheCodec();
+
+    public static final ShellCacheCodec BINARY = new BinaryShellCacheCodec();
+
+    /**
+     * Gets the codec by name(case insensitive, e.g. json|binary), if null then
+     * use {@link #JSON} by default.
+     *
+     * @param name
+     * @return
+     */
+    public static ShellCacheCodec getCodec(String name) {
+        if (isNull(name) || JsonShellCacheCodec.NAME.equalsIgnoreCase(name)) {
+            return JSON;
+        } else if (BinaryShellCacheCodec.NAME.equalsIgnoreCase(name)) {
+            return BINARY;
+        }
+        throw new IllegalArgumentException("Unsupported shell cache codec: " + name);
+    }
+
+}
@@ -27,6 +27,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.wl4g.shell.common.config.BaseShellProperties;
+import com.wl4g.shell.core.cache.codec.JsonShellCacheCodec;
+import com.wl4g.shell.core.cache.codec.ShellCacheCodecs;
 
 import lombok.Getter;
 import lombok.Setter;
@@ -61,11 +63,44 @@ public class ServerShellProperties extends BaseShellProperties {
      */
     private long sharedLockTimeoutMs = 60 * 1000L;
 
+    /**
+     * Whether to run the channel readers and the commands on virtual threads
+     * (requires JDK 21+, otherwise fallback to platform threads).
+     */
+    private boolean virtualThreads = false;
+
+    /**
+     * Value codec of the redis backed shell cache (e.g. sessions and locks),
+     * json|binary, see {@link ShellCacheCodecs}.
+     */
+    private String cacheCodec = JsonShellCacheCodec.NAME;
+
     /**
      * Authetication configuration.
      */
     private AclInfo acl = new AclInfo();
 
+    /**
+     * Non-blocking(NIO) transport configuration.
+     */
+    private NioInfo nio = new NioInfo();
+
+    /**
+     * Channel output buffering configuration.
+     */
+    private OutputInfo output = new OutputInfo();
+
+    /**
+     * Sessions near cache configuration.
+     */
+    private SessionInfo session = new SessionInfo();
+
+    /**
+     * Local memory shell cache configuration (i.e. the cache client is not
+     * configured).
+     */
+    private MemoryCacheInfo memoryCache = new MemoryCacheInfo();
+
     public int getBacklog() {
         return backlog;
     }
@@ -109,6 +144,23 @@ public class ServerShellProperties extends BaseShellProperties {
         this.sharedLockTimeoutMs = sharedLockTimeoutMs;
     }
 
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    public String getCacheCodec() {
+        return cacheCodec;
+    }
+
+    public void setCacheCodec(String cacheCodec) {
+        ShellCacheCodecs.getCodec(cacheCodec); // Check supported
+        this.cacheCodec = cacheCodec;
+    }
+
     public AclInfo getAcl() {
         return acl;
     }
@@ -117,6 +169,38 @@ public class ServerShellProperties extends BaseShellProperties {
         this.acl = auth;
     }
 
+    public NioInfo getNio() {
+        return nio;
+    }
+
+    public void setNio(NioInfo nio) {
+        this.nio = nio;
+    }
+
+    public OutputInfo getOutput() {
+        return output;
+    }
+
+    public void setOutput(OutputInfo output) {
+        this.output = output;
+    }
+
+    public SessionInfo getSession() {
+        return session;
+    }
+
+    public void setSession(SessionInfo session) {
+        this.session = session;
+    }
+
+    public MemoryCacheInfo getMemoryCache() {
+        return memoryCache;
+    }
+
+    public void setMemoryCache(MemoryCacheInfo memoryCache) {
+        this.memoryCache = memoryCache;
+    }
+
     @Getter
     @Setter
     public static class AclInfo {
@@ -150,4 +234,136 @@ public class ServerShellProperties extends BaseShellProperties {
 
     }
 
+    @Getter
+    @Setter
+    public static class NioInfo {
+
+        /**
+         * Whether to use selector based non-blocking channels instead of
+         * thread-per-connection.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Number of selector I/O threads multiplexing all client channels.
+         */
+        private int ioThreads = 2;
+
+        /**
+         * Number of shared workers executing shell commands.
+         */
+        private int workerThreads = 16;
+
+        /**
+         * Maximum number of shell commands waiting for a worker.
+         */
+        private int workerQueueSize = 256;
+    }
+
+    @Getter
+    @Setter
+    public static class OutputInfo {
+
+        /**
+         * Whether to coalesce the consecutive stdout messages into one frame.
+         */
+        private boolean coalescing = true;
+
+        /**
+         * Flush the pending stdout when its characters reach this size.
+         */
+        private int bufferSize = 8 * 1024;
+
+        /**
+         * Maximum time the pending stdout may wait before being flushed.
+         */
+        private long lingerMs = 10L;
+    }
+
+    @Getter
+    @Setter
+    public static class SessionInfo {
+
+        /**
+         * Whether to cache the sessions per node in front of the shared shell
+         * cache.
+         */
+        private boolean nearCache = true;
+
+        /**
+         * Maximum number of the near cached sessions.
+         */
+        private int nearCacheMaxSize = 1024;
+
+        /**
+         * Expiration time of the near cached session after written, i.e. the
+         * maximum staleness of the changes by other nodes.
+         */
+        private long nearCacheTtlMs = 10 * 1000L;
+
+        /**
+         * Interval of writing behind the touched sessions (latest access
+         * timestamp) in batch, if &lt;=0 then write through.
+         */
+        private long writeBehindIntervalMs = 1000L;
+
+        /**
+         * Storage layout of the shared sessions, the {@link SessionStorage#KEYS}
+         * is opt-in, i.e. all nodes of the cluster must be switched together,
+         * otherwise the sessions are not visible to the nodes of other layout
+         * (e.g. during the rolling upgrade).
+         */
+        private SessionStorage storage = SessionStorage.HASH;
+
+        /**
+         * Whether to migrate the sessions of the legacy single hash layout to
+         * the key per session layout, at startup and on read miss, only if the
+         * storage is {@link SessionStorage#KEYS}.
+         */
+        private boolean migrateLegacy = false;
+
+        /**
+         * Hint of the number of keys per SCAN when iterating all sessions.
+         */
+        private int scanCount = 100;
+    }
+
+    @Getter
+    @Setter
+    public static class MemoryCacheInfo {
+
+        /**
+         * Maximum number of the session entries, of the hash fields and of the
+         * session keys separately, the soonest to expire is evicted when
+         * exceeded. The sessions of the hash layout never expire, so the least
+         * recently written (i.e. touched) is evicted first, and its client
+         * has to login again.
+         */
+        private int maxSessions = 10_000;
+
+        /**
+         * Maximum number of the other keys (e.g. locks), bounded separately
+         * so that they are never evicted by the sessions churn. The keys are
+         * never evicted, i.e. the new keys are rejected when exceeded (e.g.
+         * the lock can't be acquired) until the existing are expired or
+         * deleted.
+         */
+        private int maxKeys = 10_000;
+    }
+
+    public static enum SessionStorage {
+
+        /**
+         * All sessions in one hash, the expired sessions are only replaced
+         * lazily when accessed.
+         */
+        HASH,
+
+        /**
+         * One key per session with the native expiration (idle timeout) of
+         * redis.
+         */
+        KEYS;
+    }
+
 }
\ No newline at end of file
@@ -22,6 +22,7 @@ import static com.wl4g.infra.common.log.SmartLoggerFactory.getLogger;
 import static java.lang.String.format;
 
 import java.io.Closeable;
+import java.io.IOException;
 import java.util.List;
 
 import com.wl4g.infra.common.log.SmartLogger;
@@ -30,9 +31,13 @@ import com.wl4g.shell.common.registry.ShellHandlerRegistrar;
 import com.wl4g.shell.common.registry.TargetMethodWrapper;
 import com.wl4g.shell.core.cache.ShellCache;
 import com.wl4g.shell.core.config.ServerShellProperties;
+import com.wl4g.shell.core.config.ServerShellProperties.SessionInfo;
+import com.wl4g.shell.core.config.ServerShellProperties.SessionStorage;
 import com.wl4g.shell.core.handler.EmbeddedShellServer.ServerSignalHandler;
 import com.wl4g.shell.core.locks.ShellLockManager;
 import com.wl4g.shell.core.session.CachingShellSessionDAO;
+import com.wl4g.shell.core.session.KeyedShellSessionDAO;
+import com.wl4g.shell.core.session.NearCachingShellSessionDAO;
 import com.wl4g.shell.core.session.ShellSessionDAO;
 
 /**
@@ -75,10 +80,41 @@ public abstract class AbstractShellServer extends GenericShellHandler implements
         super(config, registrar);
         this.appName = hasTextOf(appName, "appName");
         this.shellCache = notNullOf(shellCache, "shellCache");
-        this.sessionDAO = new CachingShellSessionDAO(shellCache);
+        ShellSessionDAO sessionDAO = newSessionDAO(config, shellCache);
+        if (config.getSession().isNearCache()) {
+            sessionDAO = new NearCachingShellSessionDAO(sessionDAO, config.getSession());
+        }
+        this.sessionDAO = sessionDAO;
         this.lockManager = new ShellLockManager(shellCache);
     }
 
+    /**
+     * New shared session DAO of the storage layout.
+     * 
+     * @param config
+     * @param shellCache
+     * @return
+     */
+    private ShellSessionDAO newSessionDAO(ServerShellProperties config, ShellCache shellCache) {
+        SessionInfo session = config.getSession();
+        if (session.getStorage() == SessionStorage.HASH) {
+            return new CachingShellSessionDAO(shellCache, session.getWriteBehindIntervalMs());
+        }
+        // Idle timeout, and the touched may lag one flush interval.
+        long expireMs = config.getAcl().getTimeoutMs() + Math.max(session.getWriteBehindIntervalMs(), 0);
+        KeyedShellSessionDAO sessionDAO = new KeyedShellSessionDAO(shellCache, session.getWriteBehindIntervalMs(), expireMs,
+                session.getScanCount(), session.isMigrateLegacy());
+        if (session.isMigrateLegacy()) {
+            try {
+                int moved = sessionDAO.migrateLegacySessions();
+                log.info("Migrated {} sessions of the legacy hash layout", moved);
+            } catch (Exception e) {
+                log.warn("Failed to migrate the sessions of the legacy hash layout. caused by: {}", e.getMessage());
+            }
+        }
+        return sessionDAO;
+    }
+
     /**
      * Gets {@link ServerShellProperties} configuration
      * 
@@ -92,6 +128,41 @@ public abstract class AbstractShellServer extends GenericShellHandler implements
         return appName;
     }
 
+    /**
+     * Gets the shared session DAO, e.g. listing the online sessions by
+     * {@link ShellSessionDAO#iterate(int)}.
+     * 
+     * @return
+     */
+    public ShellSessionDAO getSessionDAO() {
+        return sessionDAO;
+    }
+
+    /**
+     * Close the session DAO if closeable, e.g. writes the pending sessions of
+     * near cache.
+     */
+    protected void closeSessionDAO() {
+        if (sessionDAO instanceof Closeable) {
+            try {
+                ((Closeable) sessionDAO).close();
+            } catch (IOException e) {
+                log.error("Closing session DAO failure", e);
+            }
+        }
+    }
+
+    /**
+     * Close the lock manager, i.e. unsubscribe the release notifications.
+     */
+    protected void closeLockManager() {
+        try {
+            lockManager.close();
+        } catch (IOException e) {
+            log.error("Closing lock manager failure", e);
+        }
+    }
+
     /**
      * Register current client handler.
      * 
@@ -86,6 +86,11 @@ abstract class BaseShellContext implements ShellContext {
      */
     private TargetMethodWrapper target;
 
+    /**
+     * Fencing token of the execution lock held by the current command.
+     */
+    private volatile long fencingToken = -1L;
+
     protected BaseShellContext() {
     }
 
@@ -95,6 +100,7 @@ abstract class BaseShellContext implements ShellContext {
             setChannel(shc.client);
             setState(shc.state);
             setTarget(shc.target);
+            setFencingToken(shc.fencingToken);
             // Copy event listeners.
             shc.eventListeners.forEach((name, l) -> eventListeners.putIfAbsent(name, l));
         }
@@ -145,6 +151,15 @@ abstract class BaseShellContext implements ShellContext {
         return target;
     }
 
+    @Override
+    public long getFencingToken() {
+        return fencingToken;
+    }
+
+    void setFencingToken(long fencingToken) {
+        this.fencingToken = fencingToken;
+    }
+
     /**
      * Open the channel of the current command line, effect: at this time, the
      * client console will wait for execution to complete (until the
@@ -172,6 +187,21 @@ abstract class BaseShellContext implements ShellContext {
         printf0(new EOFStdoutSignal()); // Ouput end mark
     }
 
+    /**
+     * Flush the buffered output of the current channel to the client console
+     * immediately.
+     * 
+     * @throws ChannelShellException
+     */
+    @Override
+    public void flush() throws ChannelShellException {
+        try {
+            getChannel().getOutput().flush();
+        } catch (IOException e) {
+            throw new ChannelShellException(e);
+        }
+    }
+
     /**
      * Are you currently in an interrupt state? (if the current thread does not
      * open the shell channel, it will return false, that is, uninterrupted)
@@ -245,13 +275,13 @@ abstract class BaseShellContext implements ShellContext {
 
         if (nonNull(getChannel()) && getChannel().isActive()) {
             try {
-                log.info("=> {}", output.toString());
+                log.debug("=> {}", output);
                 if (output instanceof CharSequence) {
-                    getChannel().writeFlush(new StdoutSignal(output.toString()));
+                    getChannel().getOutput().write(new StdoutSignal(output.toString()));
                 } else if (output instanceof Throwable) {
-                    getChannel().writeFlush(new StderrSignal((Throwable) output));
+                    getChannel().getOutput().write(new StderrSignal((Throwable) output));
                 } else if (output instanceof Signal) {
-                    getChannel().writeFlush(output);
+                    getChannel().getOutput().write(output);
                 } else {
                     throw new ChannelShellException(format("Unsupported printf shell message of '%s'", output));
                 }
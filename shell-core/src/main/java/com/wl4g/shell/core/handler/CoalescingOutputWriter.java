@@ -0,0 +1,140 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.core.handler;
+
+import static com.wl4g.infra.common.lang.Assert2.notNullOf;
+import static com.wl4g.infra.common.log.SmartLoggerFactory.getLogger;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.wl4g.infra.common.log.SmartLogger;
+import com.wl4g.shell.common.handler.SignalHandler;
+import com.wl4g.shell.common.signal.StdoutSignal;
+import com.wl4g.shell.core.config.ServerShellProperties.OutputInfo;
+
+/**
+ * Per channel output writer, which coalesces the consecutive
+ * {@link StdoutSignal}s into one frame (the contents are joined by line
+ * separator, the client prints per frame a line). The pending output is
+ * flushed when it reaches the buffer size, the linger time elapsed, a
+ * non-stdout signal (e.g. EOF) is written, or {@link #flush()} is called
+ * explicitly.
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+class CoalescingOutputWriter implements Flushable {
+    protected final SmartLogger log = getLogger(getClass());
+
+    private final SignalHandler channel;
+    private final OutputInfo config;
+    private final ScheduledExecutorService lingerTimer;
+
+    /** Uses explicit lock so that the virtual threads are not pinned. */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Pending stdout contents, guarded by lock. */
+    private final StringBuilder pending = new StringBuilder(256);
+    private String pendingSessionId;
+    private ScheduledFuture<?> lingerFuture;
+
+    CoalescingOutputWriter(SignalHandler channel, OutputInfo config, ScheduledExecutorService lingerTimer) {
+        this.channel = notNullOf(channel, "channel");
+        this.config = notNullOf(config, "config");
+        this.lingerTimer = notNullOf(lingerTimer, "lingerTimer");
+    }
+
+    /**
+     * Write signal to the channel, the stdout contents may be buffered.
+     *
+     * @param signal
+     * @throws IOException
+     */
+    void write(Object signal) throws IOException {
+        lock.lock();
+        try {
+            write0(signal);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write0(Object signal) throws IOException {
+        if (config.isCoalescing() && signal.getClass() == StdoutSignal.class) {
+            StdoutSignal stdout = (StdoutSignal) signal;
+            if (nonNull(stdout.getContent())) {
+                if (pending.length() > 0 && !Objects.equals(pendingSessionId, stdout.getSessionId())) {
+                    flush();
+                }
+                if (pending.length() > 0) {
+                    pending.append('\n');
+                }
+                pending.append(stdout.getContent());
+                pendingSessionId = stdout.getSessionId();
+
+                if (pending.length() >= config.getBufferSize()) {
+                    flush();
+                } else if (isNull(lingerFuture)) {
+                    lingerFuture = lingerTimer.schedule(() -> lingerFlush(), config.getLingerMs(), MILLISECONDS);
+                }
+                return;
+            }
+        }
+        // Keep the order of output.
+        flush();
+        channel.writeFlush(signal);
+    }
+
+    /**
+     * Flush the pending output to the channel.
+     */
+    @Override
+    public void flush() throws IOException {
+        lock.lock();
+        try {
+            if (nonNull(lingerFuture)) {
+                lingerFuture.cancel(false);
+                lingerFuture = null;
+            }
+            if (pending.length() > 0) {
+                StdoutSignal stdout = new StdoutSignal(pending.toString());
+                stdout.setSessionId(pendingSessionId);
+                pending.setLength(0);
+                channel.writeFlush(stdout);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void lingerFlush() {
+        try {
+            flush();
+        } catch (Throwable e) {
+            log.warn("Failed to flush the pending output of channel: {}. caused by: {}", channel, e.getMessage());
+        }
+    }
+
+}
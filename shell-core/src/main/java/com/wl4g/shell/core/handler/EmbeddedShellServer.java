@@ -15,6 +15,7 @@
  */
 package com.wl4g.shell.core.handler;
 
+import static com.wl4g.infra.common.lang.Assert2.hasText;
 import static com.wl4g.infra.common.lang.Assert2.isInstanceOf;
 import static com.wl4g.infra.common.lang.Assert2.notNull;
 import static com.wl4g.infra.common.lang.Assert2.notNullOf;
@@ -27,17 +28,16 @@ import static com.wl4g.shell.core.utils.AuthUtils.genSessionID;
 import static java.lang.Math.abs;
 import static java.lang.String.format;
 import static java.lang.System.currentTimeMillis;
-import static java.lang.Thread.sleep;
+import static java.lang.System.nanoTime;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
-import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.apache.commons.lang3.StringUtils.containsIgnoreCase;
 import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.apache.commons.lang3.exception.ExceptionUtils.getStackTrace;
 
 import java.io.EOFException;
 import java.io.IOException;
-import java.io.ObjectInputStream;
+import java.io.StreamCorruptedException;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketException;
@@ -46,15 +46,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.LinkedBlockingDeque;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.Lock;
 import java.util.function.Function;
 
 import javax.annotation.Nullable;
 
+import com.wl4g.shell.common.annotation.ShellMethod;
 import com.wl4g.shell.common.exception.InternalShellException;
 import com.wl4g.shell.common.exception.UnableObtainLockShellException;
 import com.wl4g.shell.common.exception.UnauthenticationShellException;
@@ -73,6 +73,8 @@ import com.wl4g.shell.common.signal.StdinSignal;
 import com.wl4g.shell.core.cache.ShellCache;
 import com.wl4g.shell.core.config.ServerShellProperties;
 import com.wl4g.shell.core.config.ServerShellProperties.AclInfo.CredentialsInfo;
+import com.wl4g.shell.core.locks.FencedLock;
+import com.wl4g.shell.core.locks.ShellLockMetrics;
 import com.wl4g.shell.core.session.ShellSession;
 import com.wl4g.shell.core.utils.AuthUtils;
 
@@ -96,6 +98,12 @@ public class EmbeddedShellServer extends AbstractShellServer implements Runnable
     /** Current shell channel standard input. */
     protected final ThreadLocal<StdinCommandWrapper> currentStdin = new ThreadLocal<>();
 
+    /** Latency histogram of handling signals, grouped by signal type. */
+    protected final SignalLatencyHistogram signalLatencies = new SignalLatencyHistogram();
+
+    /** Timer of flushing the lingering channels output. */
+    protected final ScheduledExecutorService outputLingerTimer;
+
     /**
      * Server sockets
      */
@@ -106,10 +114,56 @@ public class EmbeddedShellServer extends AbstractShellServer implements Runnable
      */
     protected Thread boss;
 
+    /** Factory of the channel readers and the commands process workers. */
+    protected final ShellExecutorFactory executorFactory;
+
+    /** Thread factory of the channel readers. */
+    protected final ThreadFactory channelThreadFactory;
+
     public EmbeddedShellServer(ServerShellProperties config, String appName, ShellHandlerRegistrar registrar,
             ShellCache shellCache) {
+        this(config, appName, registrar, shellCache, null);
+    }
+
+    /**
+     * @param executorFactory
+     *            if null then create by {@link ServerShellProperties#isVirtualThreads()}
+     */
+    public EmbeddedShellServer(ServerShellProperties config, String appName, ShellHandlerRegistrar registrar,
+            ShellCache shellCache, @Nullable ShellExecutorFactory executorFactory) {
         super(config, appName, registrar, shellCache);
+        this.executorFactory = nonNull(executorFactory) ? executorFactory
+                : ShellExecutorFactory.create(config.isVirtualThreads());
+        this.channelThreadFactory = this.executorFactory.newThreadFactory(getClass().getSimpleName() + "-channel");
         this.workers = new ConcurrentHashMap<>(config.getMaxClients());
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, getClass().getSimpleName() + "-output-linger");
+            t.setDaemon(true);
+            return t;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        this.outputLingerTimer = timer;
+    }
+
+    /**
+     * Gets the latency histogram of handling signals. For {@link StdinSignal}
+     * it's the elapsed time from the command line is received to the command
+     * execution completed, otherwise it's the time to process and respond.
+     * 
+     * @return
+     */
+    public SignalLatencyHistogram getSignalLatencies() {
+        return signalLatencies;
+    }
+
+    /**
+     * Gets the metrics of the execution locks, e.g. the failed tries are the
+     * commands rejected by unable to obtain lock.
+     * 
+     * @return
+     */
+    public ShellLockMetrics getLockMetrics() {
+        return lockManager.getMetrics();
     }
 
     /**
@@ -151,6 +205,10 @@ public class EmbeddedShellServer extends AbstractShellServer implements Runnable
                 }
             }
 
+            outputLingerTimer.shutdownNow();
+            closeSessionDAO();
+            closeLockManager();
+
             Iterator<ServerSignalHandler> it = workers.keySet().iterator();
             while (it.hasNext()) {
                 try {
@@ -179,12 +237,15 @@ public class EmbeddedShellServer extends AbstractShellServer implements Runnable
         // Check whether the shell channel current command allows shared
         // parallel execution.
         if (tm.getShellMethod().lock()) {
-            Lock lock = lockManager.getLock(EmbeddedShellServer.class.getSimpleName());
+            FencedLock lock = lockManager.getLock(getLockName(commands, tm));
             if (lock.tryLock()) {
+                BaseShellContext context = getClient().getContext();
                 try {
+                    context.setFencingToken(lock.getFencingToken());
                     log.debug("Try shell execution lock: {}, tm: {}", lock, tm);
                     return super.doInvoke(line, commands, mainArg, tm, args);
                 } finally {
+                    context.setFencingToken(-1L);
                     lock.unlock();
                     log.debug("Released shell execution lock: {}, tm: {}", lock, tm);
                 }
@@ -197,6 +258,35 @@ public class EmbeddedShellServer extends AbstractShellServer implements Runnable
         return super.doInvoke(line, commands, mainArg, tm, args);
     }
 
+    /**
+     * Gets the execution lock name by the lock scope of shell method, e.g.
+     * EmbeddedShellServer:group:{group}
+     * 
+     * @param commands
+     * @param tm
+     * @return
+     * @throws IllegalArgumentException
+     *             if {@link ShellMethod.LockScope#ARGUMENT} and the lock
+     *             argument is neither input nor defaulted, i.e. the
+     *             executions never share a lock of the missing value.
+     */
+    protected String getLockName(List<String> commands, TargetMethodWrapper tm) {
+        ShellMethod sm = tm.getShellMethod();
+        String global = EmbeddedShellServer.class.getSimpleName();
+        switch (sm.lockScope()) {
+        case GROUP:
+            return global.concat(":group:").concat(sm.group());
+        case COMMAND:
+            return global.concat(":command:").concat(sm.keys()[0]);
+        case ARGUMENT:
+            String value = tm.getBindingPlan().getOptionValue(commands, sm.lockArgument());
+            hasText(value, "The lock argument: '%s' of command: '%s' is required.", sm.lockArgument(), sm.keys()[0]);
+            return global.concat(":command:").concat(sm.keys()[0]).concat(":").concat(value);
+        default:
+            return global;
+        }
+    }
+
     /**
      * Assertion shell channel ACL permission by based on roles.
      * 
@@ -249,9 +339,7 @@ public class EmbeddedShellServer extends AbstractShellServer implements Runnable
                 // MARK1: The worker thread may not be the parent thread of
                 // Runnable, so you need to display bind to the thread in the
                 // afternoon gain.
-                String taskId = getClass().getSimpleName().concat("-channel-") + workers.size();
-                Thread task = new Thread(() -> bind(signalHandler).run(), taskId);
-                task.setDaemon(true);
+                Thread task = channelThreadFactory.newThread(() -> bind(signalHandler).run());
                 workers.put(signalHandler, task);
                 task.start();
 
@@ -279,6 +367,12 @@ public class EmbeddedShellServer extends AbstractShellServer implements Runnable
         /** Current shell commands process worker */
         private final ExecutorService processWorker;
 
+        /** Whether the process worker is owned by this channel only. */
+        private final boolean exclusiveWorker;
+
+        /** Current channel output writer. */
+        private final CoalescingOutputWriter output;
+
         /** Current shell commands context of {@link ShellContext} */
         private BaseShellContext shellContext;
 
@@ -286,17 +380,31 @@ public class EmbeddedShellServer extends AbstractShellServer implements Runnable
         private String bindSessionId;
 
         public ServerSignalHandler(ShellHandlerRegistrar registrar, Socket client, Function<String, Object> func) {
+            this(registrar, client, func, null);
+        }
+
+        /**
+         * @param sharedWorker
+         *            the workers shared by all channels, if null then create
+         *            an exclusive worker for the current channel.
+         */
+        protected ServerSignalHandler(ShellHandlerRegistrar registrar, Socket client, Function<String, Object> func,
+                @Nullable ExecutorService sharedWorker) {
             super(registrar, client, func);
+            this.output = new CoalescingOutputWriter(this, getConfig().getOutput(), outputLingerTimer);
             this.shellContext = new BaseShellContext(this) {
             };
-            // Init worker
-            final AtomicInteger incr = new AtomicInteger(0);
-            this.processWorker = new ThreadPoolExecutor(1, 1, 0, SECONDS, new LinkedBlockingDeque<>(1), r -> {
-                String processId = getClass().getSimpleName() + "-worker-" + incr.incrementAndGet();
-                Thread t = new Thread(r, processId);
-                t.setDaemon(true);
-                return t;
-            });
+            this.exclusiveWorker = isNull(sharedWorker);
+            if (exclusiveWorker) {
+                // Init worker
+                this.processWorker = executorFactory.newProcessWorker(getClass().getSimpleName() + "-worker");
+            } else {
+                this.processWorker = sharedWorker;
+            }
+        }
+
+        CoalescingOutputWriter getOutput() {
+            return output;
         }
 
         BaseShellContext getContext() {
@@ -309,18 +417,23 @@ public class EmbeddedShellServer extends AbstractShellServer implements Runnable
 
         ShellSession obtainShellSession(@Nullable String sessionId) {
             ShellSession session = null;
+            String expiredSessionId = null;
             if (!isBlank(sessionId)) {
                 session = sessionDAO.get(sessionId);
                 // Check expired?
                 if (nonNull(session)
                         && abs(currentTimeMillis() - session.getLatestTimestamp()) >= getConfig().getAcl().getTimeoutMs()) {
-                    sessionDAO.remove(session.getSessionId());
+                    expiredSessionId = session.getSessionId();
                     session = null;
                 }
             }
             if (isNull(session)) {
-                session = new ShellSession(genSessionID(), null, false, null, 0, 0);
-                updateSession(session);
+                session = new ShellSession(genSessionID(), null, false, null, 0, currentTimeMillis());
+                if (nonNull(expiredSessionId)) {
+                    sessionDAO.replace(expiredSessionId, session);
+                } else {
+                    sessionDAO.put(session);
+                }
             }
             bindSessionId = session.getSessionId();
             return notNull(session, "Cannot obtain shell session.");
@@ -338,108 +451,142 @@ public class EmbeddedShellServer extends AbstractShellServer implements Runnable
             }
         }
 
+        /**
+         * Update the latest access timestamp of session only, which may be
+         * written behind.
+         */
+        void touchSession(ShellSession session) {
+            if (nonNull(session)) {
+                session.setLatestTimestamp(currentTimeMillis());
+                sessionDAO.touch(session);
+            }
+        }
+
         @Override
         public void run() {
+            // Negotiate the wire codec at first.
+            try {
+                acceptCodec();
+            } catch (Throwable th) {
+                handleError(th);
+            }
+
+            // Blocking read, dispatch the signal as soon as it's fully
+            // received.
             while (running.get() && isActive()) {
                 try {
-                    Object input = new ObjectInputStream(_in).readObject();
-                    isInstanceOf(Signal.class, input);
-                    Signal signal = (Signal) input;
-                    log.debug("<= {}", signal);
-
-                    Object output = null;
-                    ShellSession session = obtainShellSession(signal.getSessionId());
-                    // Register shell methods
-                    if (signal instanceof MetaSignal) {
-                        output = new MetaSignal(registrar.getTargetMethods(), session.getSessionId());
-                    } else {
-                        notNull(((Signal) signal).getSessionId(), InternalShellException.class,
-                                "Internal error, request shell signal sessionId required.");
-                        updateSession(session);
-                    }
-                    // Pre login
-                    if (signal instanceof PreLoginSignal) {
-                        PreLoginSignal login = (PreLoginSignal) signal;
-                        if (session.isAuthenticated()) {
+                    handleSignal(readMessage());
+                } catch (Throwable th) {
+                    handleError(th);
+                }
+            }
+        }
+
+        /**
+         * Handling the received signal of the current channel, the command
+         * execution of {@link StdinSignal} is handed over to the process
+         * worker.
+         * 
+         * @param input
+         * @throws Exception
+         */
+        protected void handleSignal(Object input) throws Exception {
+            final long begin = nanoTime();
+            isInstanceOf(Signal.class, input);
+            Signal signal = (Signal) input;
+            log.debug("<= {}", signal);
+
+            Object output = null;
+            ShellSession session = obtainShellSession(signal.getSessionId());
+            // Register shell methods
+            if (signal instanceof MetaSignal) {
+                output = new MetaSignal(registrar.getTargetMethods(), session.getSessionId());
+            } else {
+                notNull(((Signal) signal).getSessionId(), InternalShellException.class,
+                        "Internal error, request shell signal sessionId required.");
+                touchSession(session);
+            }
+            // Pre login
+            if (signal instanceof PreLoginSignal) {
+                PreLoginSignal login = (PreLoginSignal) signal;
+                if (session.isAuthenticated()) {
+                    output = new LoginSignal(true, session.getSessionId()).withDesc(getMessage("label.login.authenticated"));
+                } else {
+                    if (getConfig().getAcl().isEnabled()) {
+                        if (getConfig().getAcl().matchs(login.getUsername(), login.getPassword())) {
+                            // Sets authentication success info.
+                            session.setUsername(login.getUsername());
+                            session.setAuthenticated(true);
+                            session.setHost(socket.getInetAddress().getHostName());
+                            session.setStartTimestamp(currentTimeMillis());
+                            updateSession(session);
                             output = new LoginSignal(true, session.getSessionId())
-                                    .withDesc(getMessage("label.login.authenticated"));
+                                    .withDesc(getMessage("label.login.authentication.success"));
                         } else {
-                            if (getConfig().getAcl().isEnabled()) {
-                                if (getConfig().getAcl().matchs(login.getUsername(), login.getPassword())) {
-                                    // Sets authentication success info.
-                                    session.setUsername(login.getUsername());
-                                    session.setAuthenticated(true);
-                                    session.setHost(socket.getInetAddress().getHostName());
-                                    session.setStartTimestamp(currentTimeMillis());
-                                    updateSession(session);
-                                    output = new LoginSignal(true, session.getSessionId())
-                                            .withDesc(getMessage("label.login.authentication.success"));
-                                } else {
-                                    output = new LoginSignal(false).withDesc(getMessage("label.login.authentication.fail"));
-                                }
-                            } else {
-                                output = new LoginSignal(false).withDesc(getMessage("label.login.label.login.noauthentication"));
-                            }
+                            output = new LoginSignal(false).withDesc(getMessage("label.login.authentication.fail"));
                         }
+                    } else {
+                        output = new LoginSignal(false).withDesc(getMessage("label.login.label.login.noauthentication"));
                     }
-                    // Ask interruption.
-                    else if (signal instanceof PreInterruptSignal) {
-                        // Call pre-interrupt events.
-                        shellContext.getUnmodifiableEventListeners().forEach(l -> l.onPreInterrupt(shellContext));
-                        // Ask if the client is interrupt.
-                        output = new AskInterruptSignal(getMessage("label.interrupt.confirm"));
-                    }
-                    // Confirm interruption
-                    else if (signal instanceof AckInterruptSignal) {
-                        AckInterruptSignal ack = (AckInterruptSignal) signal;
-                        // Call interrupt events.
-                        shellContext.getUnmodifiableEventListeners().forEach(l -> l.onInterrupt(shellContext, ack.getConfirm()));
-                    }
-                    // Stdin of commands
-                    else if (signal instanceof StdinSignal) {
-                        StdinSignal stdin = (StdinSignal) signal;
-                        // Call command events.
-                        shellContext.getUnmodifiableEventListeners().forEach(l -> l.onCommand(shellContext, stdin.getLine()));
-
-                        // Resolve that client input cannot be received during
-                        // blocking execution.
-                        processWorker.execute(() -> {
-                            try {
-                                currentStdin.set(new StdinCommandWrapper(stdin, this));
-
-                                /**
-                                 * Only {@link ShellContext} printouts are
-                                 * supported, and return value is no longer
-                                 * supported (otherwise it will be ignored)
-                                 */
-                                function.apply(stdin.getLine());
-
-                                /**
-                                 * see:{@link EmbeddedServerShellHandler#preHandleInput()}#MARK2
-                                 */
-                                if (shellContext.getState() != RUNNING) {
-                                    shellContext.completed();
-                                }
-                            } catch (Throwable e) {
-                                log.error(format("Failed to handle shell command: [%s]", stdin.getLine()), e);
-                                handleError(e);
-                            } finally {
-                                currentStdin.remove();
-                            }
-                        });
-                    }
-
-                    if (nonNull(output)) { // Write to console.
-                        shellContext.printf0(output);
-                    }
-                } catch (Throwable th) {
-                    handleError(th);
-                } finally {
+                }
+            }
+            // Ask interruption.
+            else if (signal instanceof PreInterruptSignal) {
+                // Call pre-interrupt events.
+                shellContext.getUnmodifiableEventListeners().forEach(l -> l.onPreInterrupt(shellContext));
+                // Ask if the client is interrupt.
+                output = new AskInterruptSignal(getMessage("label.interrupt.confirm"));
+            }
+            // Confirm interruption
+            else if (signal instanceof AckInterruptSignal) {
+                AckInterruptSignal ack = (AckInterruptSignal) signal;
+                // Call interrupt events.
+                shellContext.getUnmodifiableEventListeners().forEach(l -> l.onInterrupt(shellContext, ack.getConfirm()));
+            }
+            // Stdin of commands
+            else if (signal instanceof StdinSignal) {
+                StdinSignal stdin = (StdinSignal) signal;
+                // Call command events.
+                shellContext.getUnmodifiableEventListeners().forEach(l -> l.onCommand(shellContext, stdin.getLine()));
+
+                // Resolve that client input cannot be received during
+                // blocking execution.
+                processWorker.execute(() -> {
                     try {
-                        sleep(100L);
-                    } catch (InterruptedException e) {
+                        // MARK1: The worker may be shared by all channels, so
+                        // it must be explicitly bound to the current channel.
+                        bind(this);
+                        currentStdin.set(new StdinCommandWrapper(stdin, this));
+
+                        /**
+                         * Only {@link ShellContext} printouts are supported,
+                         * and return value is no longer supported (otherwise
+                         * it will be ignored)
+                         */
+                        function.apply(stdin.getLine());
+
+                        /**
+                         * see:{@link EmbeddedServerShellHandler#preHandleInput()}#MARK2
+                         */
+                        if (shellContext.getState() != RUNNING) {
+                            shellContext.completed();
+                        }
+                    } catch (Throwable e) {
+                        log.error(format("Failed to handle shell command: [%s]", stdin.getLine()), e);
+                        handleError(e);
+                    } finally {
+                        signalLatencies.record(StdinSignal.class.getSimpleName(), nanoTime() - begin);
+                        currentStdin.remove();
+                        cleanup();
                     }
-                }
+                });
+            }
+
+            if (nonNull(output)) { // Write to console.
+                shellContext.printf0(output);
+            }
+            if (!(signal instanceof StdinSignal)) {
+                signalLatencies.record(signal.getClass().getSimpleName(), nanoTime() - begin);
             }
         }
 
@@ -451,6 +598,11 @@ public class EmbeddedShellServer extends AbstractShellServer implements Runnable
             // Close the current socket
             super.close();
 
+            // Release the exclusive worker.
+            if (exclusiveWorker) {
+                processWorker.shutdown();
+            }
+
             // Clear the current channel
             Thread t = workers.remove(this);
             if (t != null) {
@@ -465,8 +617,11 @@ public class EmbeddedShellServer extends AbstractShellServer implements Runnable
          * 
          * @param th
          */
-        private void handleError(Throwable th) {
-            if ((th instanceof SocketException) || (th instanceof EOFException) || !isActive()) {
+        void handleError(Throwable th) {
+            // A corrupted stream can't be resynchronized, since the read loop
+            // no longer backs off it must be disconnected.
+            if ((th instanceof SocketException) || (th instanceof EOFException) || (th instanceof StreamCorruptedException)
+                    || !isActive()) {
                 log.warn("Disconnect for client : {}", socket);
                 try {
                     close();
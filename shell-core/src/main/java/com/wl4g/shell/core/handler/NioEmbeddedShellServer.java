@@ -0,0 +1,482 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.core.handler;
+
+import static com.wl4g.infra.common.lang.Assert2.isTrue;
+import static com.wl4g.infra.common.lang.Assert2.state;
+import static java.lang.Math.max;
+import static java.lang.String.format;
+import static java.nio.channels.SelectionKey.OP_READ;
+import static java.nio.channels.SelectionKey.OP_WRITE;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.apache.commons.lang3.exception.ExceptionUtils.getStackTrace;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
+
+import com.wl4g.shell.common.registry.ShellHandlerRegistrar;
+import com.wl4g.shell.core.cache.ShellCache;
+import com.wl4g.shell.core.config.ServerShellProperties;
+import com.wl4g.shell.core.config.ServerShellProperties.NioInfo;
+
+/**
+ * Non-blocking embedded shell handle server, a small fixed set of selector I/O
+ * threads multiplex all client channels, and only the command execution is
+ * handed over to the shared workers.
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version v1.0 2021-07-10
+ * @since v1.0
+ */
+public class NioEmbeddedShellServer extends EmbeddedShellServer {
+
+    /** Default channel read buffer size. */
+    public static final int DEFAULT_READ_BUFFER = 8 * 1024;
+
+    /** Active shell channels. */
+    protected final Set<NioServerSignalHandler> channels = ConcurrentHashMap.newKeySet();
+
+    /** Round-robin counter of selecting reactor. */
+    protected final AtomicInteger reactorIndex = new AtomicInteger(0);
+
+    /** Server socket channel. */
+    protected ServerSocketChannel serverChannel;
+
+    /** Channel selector I/O reactors. */
+    protected ChannelReactor[] reactors;
+
+    /** Shell commands process workers shared by all channels. */
+    protected ExecutorService processWorkers;
+
+    public NioEmbeddedShellServer(ServerShellProperties config, String appName, ShellHandlerRegistrar registrar,
+            ShellCache shellCache) {
+        super(config, appName, registrar, shellCache);
+    }
+
+    public NioEmbeddedShellServer(ServerShellProperties config, String appName, ShellHandlerRegistrar registrar,
+            ShellCache shellCache, @Nullable ShellExecutorFactory executorFactory) {
+        super(config, appName, registrar, shellCache, executorFactory);
+    }
+
+    @Override
+    public void start() throws Exception {
+        if (running.compareAndSet(false, true)) {
+            state(isNull(serverChannel), "server channel already listen ?");
+            NioInfo nio = getConfig().getNio();
+            isTrue(nio.getIoThreads() > 0, format("ioThreads must greater than 0, actual is %s", nio.getIoThreads()));
+            isTrue(nio.getWorkerThreads() > 0, format("workerThreads must greater than 0, actual is %s", nio.getWorkerThreads()));
+
+            // Init shared workers.
+            processWorkers = executorFactory.newSharedWorkers(nio.getWorkerThreads(), nio.getWorkerQueueSize(),
+                    getClass().getSimpleName() + "-worker");
+
+            // Init I/O reactors.
+            reactors = new ChannelReactor[nio.getIoThreads()];
+            for (int i = 0; i < reactors.length; i++) {
+                (reactors[i] = new ChannelReactor(i)).start();
+            }
+
+            // Determine server port.
+            int bindPort = ensureDetermineServPort(getAppName());
+
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.socket().bind(new InetSocketAddress(getConfig().getInetBindAddr(), bindPort), getConfig().getBacklog());
+            log.info("Shell Console(nio) started on port(s): {}, ioThreads: {}, workerThreads: {}", bindPort, nio.getIoThreads(),
+                    nio.getWorkerThreads());
+
+            boss = new Thread(this, getClass().getSimpleName() + "-boss");
+            boss.setDaemon(true);
+            boss.start();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (running.compareAndSet(true, false)) {
+            try {
+                boss.interrupt();
+            } catch (Exception e) {
+                log.error("Interrupting boss failure", e);
+            }
+
+            if (nonNull(serverChannel) && serverChannel.isOpen()) {
+                try {
+                    serverChannel.close();
+                } catch (IOException e) {
+                    log.error("Closing server channel failure", e);
+                }
+            }
+
+            for (NioServerSignalHandler h : channels) {
+                try {
+                    h.close();
+                } catch (Exception e) {
+                    log.error("Closing channel failure", e);
+                }
+            }
+
+            if (nonNull(reactors)) {
+                for (ChannelReactor r : reactors) {
+                    r.shutdown();
+                }
+            }
+            if (nonNull(processWorkers)) {
+                processWorkers.shutdownNow();
+            }
+            outputLingerTimer.shutdownNow();
+            closeSessionDAO();
+            closeLockManager();
+        }
+    }
+
+    /**
+     * Accepting connect processing
+     */
+    @Override
+    public void run() {
+        while (running.get() && !boss.isInterrupted() && serverChannel.isOpen()) {
+            try {
+                // Receiving client channel(blocking)
+                SocketChannel sc = serverChannel.accept();
+                log.debug("On accept channel: {}, maximum: {}, actual: {}", sc, getConfig().getMaxClients(), channels.size());
+
+                // Check many connections.
+                if (channels.size() >= getConfig().getMaxClients()) {
+                    log.warn(format("There are too many parallel shell connections. maximum: %s, actual: %s",
+                            getConfig().getMaxClients(), channels.size()));
+                    sc.close();
+                    continue;
+                }
+
+                // Create signal handler and register to reactor.
+                NioServerSignalHandler signalHandler = new NioServerSignalHandler(registrar, sc, line -> process(line));
+                sc.configureBlocking(false);
+                channels.add(signalHandler);
+                reactors[(reactorIndex.getAndIncrement() & Integer.MAX_VALUE) % reactors.length].register(signalHandler);
+
+            } catch (Throwable e) {
+                // e.g. Channel is closed
+                if ((!running.get() || boss.isInterrupted() || !serverChannel.isOpen())
+                        && (e instanceof ClosedChannelException)) {
+                    log.warn("Shutdown shell server receiver.");
+                } else {
+                    log.warn("Shell server receiving failure. {}", getStackTrace(e));
+                }
+            }
+        }
+    }
+
+    /**
+     * Selector based I/O reactor, all the operations of the registered
+     * selection keys are performed in the reactor thread.
+     */
+    class ChannelReactor implements Runnable {
+
+        /** Pending tasks to be executed in the reactor thread. */
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+        private final Selector selector;
+
+        private final Thread thread;
+
+        ChannelReactor(int index) throws IOException {
+            this.selector = Selector.open();
+            this.thread = new Thread(this, NioEmbeddedShellServer.this.getClass().getSimpleName() + "-io-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        void start() {
+            thread.start();
+        }
+
+        void shutdown() {
+            thread.interrupt();
+            try {
+                selector.close();
+            } catch (IOException e) {
+                log.error("Closing selector failure", e);
+            }
+        }
+
+        /**
+         * Execution task in the reactor thread.
+         *
+         * @param task
+         */
+        void execute(Runnable task) {
+            tasks.offer(task);
+            selector.wakeup();
+        }
+
+        void register(NioServerSignalHandler handler) {
+            handler.reactor = this;
+            execute(() -> {
+                try {
+                    handler.key = handler.channel.register(selector, OP_READ, handler);
+                    handler.interestWriteIfNecessary();
+                } catch (IOException e) {
+                    handler.handleError(e);
+                }
+            });
+        }
+
+        @Override
+        public void run() {
+            while (running.get() && !thread.isInterrupted()) {
+                try {
+                    selector.select();
+
+                    Runnable task;
+                    while (nonNull(task = tasks.poll())) {
+                        task.run();
+                    }
+
+                    Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                    while (it.hasNext()) {
+                        SelectionKey key = it.next();
+                        it.remove();
+                        NioServerSignalHandler handler = (NioServerSignalHandler) key.attachment();
+                        if (key.isValid() && key.isReadable()) {
+                            handler.onReadable();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            handler.onWritable();
+                        }
+                    }
+                } catch (ClosedSelectorException e) {
+                    break;
+                } catch (Throwable e) {
+                    log.warn("Shell channel reactor failure. {}", getStackTrace(e));
+                }
+            }
+        }
+    }
+
+    /**
+     * Non-blocking server shell signal channel handler
+     *
+     * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+     * @version v1.0 2021-07-10
+     * @since v1.0
+     */
+    class NioServerSignalHandler extends ServerSignalHandler {
+
+        private final SocketChannel channel;
+
+        /** Pending outbound data, guarded by itself. */
+        private final Queue<ByteBuffer> pendingWrites = new ArrayDeque<>(8);
+
+        private final ByteBuffer readBuffer = ByteBuffer.allocate(DEFAULT_READ_BUFFER);
+
+        /** Received but not yet decoded bytes. */
+        private byte[] inbound = new byte[DEFAULT_READ_BUFFER];
+
+        private int inboundLength;
+
+        /** Whether the wire codec has been negotiated. */
+        private boolean negotiated;
+
+        private volatile ChannelReactor reactor;
+
+        private volatile SelectionKey key;
+
+        /** Decoded but not yet handled signals, in the order of received. */
+        private final Queue<Object> received = new ConcurrentLinkedQueue<>();
+
+        /** Whether the draining of received signals is submitted. */
+        private final AtomicBoolean dispatching = new AtomicBoolean(false);
+
+        NioServerSignalHandler(ShellHandlerRegistrar registrar, SocketChannel channel, Function<String, Object> func) {
+            super(registrar, channel.socket(), func, processWorkers);
+            this.channel = channel;
+        }
+
+        /**
+         * Drain the received signals on the process worker, there is no
+         * blocking read loop (driven by {@link ChannelReactor}). At most one
+         * drain is running per channel, so the signals are still handled in
+         * the order of received.
+         */
+        @Override
+        public void run() {
+            do {
+                Object input;
+                while (nonNull(input = received.poll())) {
+                    try {
+                        handleSignal(input);
+                    } catch (Throwable th) {
+                        handleError(th);
+                    }
+                }
+                dispatching.set(false);
+                // Re-check, the reactor may have offered after the last poll.
+            } while (!received.isEmpty() && dispatching.compareAndSet(false, true));
+        }
+
+        /**
+         * Hand over the received signals to the process workers, since the
+         * handling may block on the session and lock store (e.g. redis), it
+         * must not be run on the selector thread.
+         */
+        private void dispatch() {
+            if (dispatching.compareAndSet(false, true)) {
+                try {
+                    processWorkers.execute(this);
+                } catch (RejectedExecutionException e) {
+                    dispatching.set(false);
+                    received.clear();
+                    handleError(e);
+                }
+            }
+        }
+
+        @Override
+        protected void writeBytes(byte[] data) throws IOException {
+            ByteBuffer buf = ByteBuffer.wrap(data);
+            synchronized (pendingWrites) {
+                // Try to write directly, avoid waking up the reactor.
+                if (pendingWrites.isEmpty()) {
+                    channel.write(buf);
+                    if (!buf.hasRemaining()) {
+                        return;
+                    }
+                }
+                pendingWrites.offer(buf);
+            }
+            if (nonNull(reactor)) {
+                reactor.execute(() -> interestWriteIfNecessary());
+            }
+        }
+
+        @Override
+        public boolean isActive() {
+            return channel.isOpen() && channel.isConnected();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channels.remove(this);
+            received.clear();
+            if (nonNull(key)) {
+                key.cancel();
+            }
+            super.close();
+        }
+
+        void interestWriteIfNecessary() {
+            synchronized (pendingWrites) {
+                if (nonNull(key) && key.isValid() && !pendingWrites.isEmpty()) {
+                    key.interestOps(OP_READ | OP_WRITE);
+                }
+            }
+        }
+
+        void onWritable() {
+            try {
+                synchronized (pendingWrites) {
+                    ByteBuffer buf;
+                    while (nonNull(buf = pendingWrites.peek())) {
+                        channel.write(buf);
+                        if (buf.hasRemaining()) {
+                            return; // Socket send buffer is full.
+                        }
+                        pendingWrites.poll();
+                    }
+                    key.interestOps(OP_READ);
+                }
+            } catch (Throwable th) {
+                handleError(th);
+            }
+        }
+
+        void onReadable() {
+            try {
+                int n;
+                while ((n = channel.read(readBuffer)) > 0) {
+                    readBuffer.flip();
+                    appendInbound(readBuffer);
+                    readBuffer.clear();
+                }
+                decodeInbound();
+                if (n < 0) {
+                    throw new EOFException("Channel closed by peer");
+                }
+            } catch (Throwable th) {
+                handleError(th);
+            }
+        }
+
+        private void appendInbound(ByteBuffer buf) {
+            int len = buf.remaining();
+            if (inboundLength + len > inbound.length) {
+                inbound = Arrays.copyOf(inbound, max(inbound.length << 1, inboundLength + len));
+            }
+            buf.get(inbound, inboundLength, len);
+            inboundLength += len;
+        }
+
+        /**
+         * Decode all complete signals of received, the incomplete remaining
+         * bytes wait for the next readable.
+         */
+        private void decodeInbound() throws IOException, ClassNotFoundException {
+            int offset = 0;
+            if (!negotiated) {
+                if ((offset = acceptCodec(inbound, 0, inboundLength)) < 0) {
+                    return; // Incomplete preamble
+                }
+                negotiated = true;
+            }
+            ByteBuffer buf = ByteBuffer.wrap(inbound, offset, inboundLength - offset);
+            Object input;
+            while (nonNull(input = codec.decode(buf))) {
+                received.offer(input);
+            }
+            if (!received.isEmpty()) {
+                dispatch();
+            }
+            offset = buf.position();
+            if (offset > 0) {
+                System.arraycopy(inbound, offset, inbound, 0, inboundLength - offset);
+                inboundLength -= offset;
+            }
+        }
+    }
+
+}
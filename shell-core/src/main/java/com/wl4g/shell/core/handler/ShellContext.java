@@ -42,6 +42,16 @@ public interface ShellContext extends ShellAware {
 	 */
 	void completed() throws ChannelShellException;
 
+	/**
+	 * Flush the buffered output to the client console immediately, e.g. the
+	 * consecutive outputs are coalesced and flushed in batches by
+	 * {@link BaseShellContext}. By default, nothing is buffered.
+	 * 
+	 * @throws ChannelShellException
+	 */
+	default void flush() throws ChannelShellException {
+	}
+
 	/**
 	 * Are you currently in an interrupt state? (if the current thread does not
 	 * open the shell channel, it will return false, that is, uninterrupted)
@@ -51,6 +61,18 @@ public interface ShellContext extends ShellAware {
 	 */
 	boolean isInterrupted() throws NoSupportedInterruptShellException;
 
+	/**
+	 * Gets the fencing token of the execution lock held by the current command
+	 * (see: {@link com.wl4g.shell.common.annotation.ShellMethod#lock()}), the
+	 * token is increased by each acquisition, e.g. passed to the storage to
+	 * reject the writes of a stale holder whose lock expired.
+	 * 
+	 * @return the token, or -1 if not locked.
+	 */
+	default long getFencingToken() {
+		return -1L;
+	}
+
 	/**
 	 * Get unmodifiable event listeners.
 	 * 
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.core.handler;
+
+import static com.wl4g.infra.common.lang.Assert2.hasTextOf;
+import static com.wl4g.infra.common.lang.Assert2.state;
+import static com.wl4g.infra.common.log.SmartLoggerFactory.getLogger;
+import static java.lang.Math.max;
+import static java.util.Objects.nonNull;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Factory of the threads and executors that run the shell channel readers and
+ * the commands processing, e.g. the {@link PlatformExecutorFactory} and the
+ * {@link VirtualExecutorFactory} (JDK 21+).
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+public interface ShellExecutorFactory {
+
+    /**
+     * New thread factory of the threads name prefix.
+     *
+     * @param prefix
+     * @return
+     */
+    ThreadFactory newThreadFactory(String prefix);
+
+    /**
+     * New commands process worker exclusive to a channel, the commands of a
+     * channel are executed serially, and at most one command is waiting.
+     *
+     * @param prefix
+     * @return
+     */
+    default ExecutorService newProcessWorker(String prefix) {
+        return new ThreadPoolExecutor(1, 1, 0, SECONDS, new LinkedBlockingDeque<>(1), newThreadFactory(prefix));
+    }
+
+    /**
+     * New commands process workers shared by all channels.
+     *
+     * @param threads
+     * @param queueSize
+     * @param prefix
+     * @return
+     */
+    default ExecutorService newSharedWorkers(int threads, int queueSize, String prefix) {
+        return new ThreadPoolExecutor(threads, threads, 0, SECONDS, new LinkedBlockingQueue<>(max(1, queueSize)),
+                newThreadFactory(prefix));
+    }
+
+    /**
+     * Create executor factory, if virtual threads is unsupported by the
+     * current JVM then fallback to platform threads.
+     *
+     * @param virtualThreads
+     * @return
+     */
+    static ShellExecutorFactory create(boolean virtualThreads) {
+        if (virtualThreads) {
+            if (VirtualExecutorFactory.isSupported()) {
+                return new VirtualExecutorFactory();
+            }
+            getLogger(ShellExecutorFactory.class).warn("Virtual threads requires JDK 21+, fallback to platform threads. jvm: {}",
+                    System.getProperty("java.version"));
+        }
+        return new PlatformExecutorFactory();
+    }
+
+    /**
+     * Platform(daemon) threads executor factory.
+     */
+    public static class PlatformExecutorFactory implements ShellExecutorFactory {
+
+        @Override
+        public ThreadFactory newThreadFactory(String prefix) {
+            hasTextOf(prefix, "prefix");
+            final AtomicInteger incr = new AtomicInteger(0);
+            return r -> {
+                Thread t = new Thread(r, prefix + "-" + incr.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            };
+        }
+    }
+
+    /**
+     * Virtual threads executor factory, requires JDK 21+. The JDK 21 APIs are
+     * invoked reflective, so that it can still be compiled and run on Java 8.
+     * Since the virtual threads are cheap, the blocking I/O and the long
+     * running commands no longer occupies the platform threads.
+     */
+    public static class VirtualExecutorFactory implements ShellExecutorFactory {
+
+        public VirtualExecutorFactory() {
+            state(isSupported(), "Virtual threads requires JDK 21+");
+        }
+
+        @Override
+        public ThreadFactory newThreadFactory(String prefix) {
+            hasTextOf(prefix, "prefix");
+            try {
+                Object builder = OF_VIRTUAL_METHOD.invoke(null);
+                builder = BUILDER_NAME_METHOD.invoke(builder, prefix + "-", 1L);
+                return (ThreadFactory) BUILDER_FACTORY_METHOD.invoke(builder);
+            } catch (Exception e) {
+                throw new IllegalStateException("Cannot create virtual thread factory", e);
+            }
+        }
+
+        public static boolean isSupported() {
+            return nonNull(BUILDER_FACTORY_METHOD);
+        }
+
+        private static final Method OF_VIRTUAL_METHOD;
+        private static final Method BUILDER_NAME_METHOD;
+        private static final Method BUILDER_FACTORY_METHOD;
+
+        static {
+            Method ofVirtual = null, name = null, factory = null;
+            try {
+                Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+                ofVirtual = Thread.class.getMethod("ofVirtual");
+                name = builderClass.getMethod("name", String.class, long.class);
+                factory = builderClass.getMethod("factory");
+                // e.g. JDK 19/20 is a preview API.
+                factory.invoke(name.invoke(ofVirtual.invoke(null), "probe-", 0L));
+            } catch (Throwable e) {
+                ofVirtual = name = factory = null; // Unsupported
+            }
+            OF_VIRTUAL_METHOD = ofVirtual;
+            BUILDER_NAME_METHOD = name;
+            BUILDER_FACTORY_METHOD = factory;
+        }
+    }
+
+}
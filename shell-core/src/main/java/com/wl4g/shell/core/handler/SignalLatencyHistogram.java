@@ -0,0 +1,182 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.core.handler;
+
+import static com.wl4g.infra.common.lang.Assert2.hasTextOf;
+import static java.lang.Long.numberOfLeadingZeros;
+import static java.lang.String.format;
+import static java.util.Collections.unmodifiableMap;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram of the server handling signals, grouped by
+ * signal type. Buckets are powers of two microseconds, so that recording is
+ * constant time and the percentiles are accurate to within a factor of two.
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+public class SignalLatencyHistogram {
+
+    /** Signal type name to histogram. */
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>(16);
+
+    /**
+     * Record the elapsed time of handling one signal.
+     *
+     * @param signalType
+     * @param elapsedNanos
+     */
+    public void record(String signalType, long elapsedNanos) {
+        hasTextOf(signalType, "signalType");
+        histograms.computeIfAbsent(signalType, t -> new Histogram()).record(elapsedNanos);
+    }
+
+    /**
+     * Gets the latency snapshots of all signal types.
+     *
+     * @return
+     */
+    public Map<String, Snapshot> getSnapshots() {
+        Map<String, Snapshot> snapshots = new TreeMap<>();
+        histograms.forEach((type, h) -> snapshots.put(type, h.snapshot()));
+        return unmodifiableMap(snapshots);
+    }
+
+    /**
+     * Reset all recorded latencies.
+     */
+    public void reset() {
+        histograms.clear();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder(getClass().getSimpleName()).append(" [");
+        getSnapshots().forEach((type, snapshot) -> s.append("\n  ").append(type).append(": ").append(snapshot));
+        return s.append("\n]").toString();
+    }
+
+    /**
+     * Latency histogram of a single signal type.
+     */
+    static class Histogram {
+
+        /** Bucket i counts latencies in [2^(i-1), 2^i) microseconds. */
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder sumMicros = new LongAdder();
+        private volatile long maxMicros;
+
+        void record(long elapsedNanos) {
+            long micros = NANOSECONDS.toMicros(Math.max(elapsedNanos, 0));
+            buckets.incrementAndGet(Math.min(64 - numberOfLeadingZeros(micros), BUCKETS - 1));
+            sumMicros.add(micros);
+            if (micros > maxMicros) {
+                synchronized (this) {
+                    if (micros > maxMicros) {
+                        maxMicros = micros;
+                    }
+                }
+            }
+        }
+
+        Snapshot snapshot() {
+            long[] counts = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                total += (counts[i] = buckets.get(i));
+            }
+            return new Snapshot(total, total == 0 ? 0 : sumMicros.sum() / total, percentile(counts, total, 0.5d),
+                    percentile(counts, total, 0.9d), percentile(counts, total, 0.99d), maxMicros);
+        }
+
+        /**
+         * Gets the upper bound(microseconds) of the bucket that containing the
+         * specified percentile.
+         */
+        private long percentile(long[] counts, long total, double percent) {
+            long threshold = (long) Math.ceil(total * percent), seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if ((seen += counts[i]) >= threshold && seen > 0) {
+                    return Math.min(i == 0 ? 0 : (1L << i) - 1, maxMicros);
+                }
+            }
+            return maxMicros;
+        }
+
+        private static final int BUCKETS = 40;
+    }
+
+    /**
+     * Immutable latency statistics of a signal type, all times are in
+     * microseconds.
+     */
+    public static class Snapshot {
+        private final long count;
+        private final long meanMicros;
+        private final long p50Micros;
+        private final long p90Micros;
+        private final long p99Micros;
+        private final long maxMicros;
+
+        public Snapshot(long count, long meanMicros, long p50Micros, long p90Micros, long p99Micros, long maxMicros) {
+            this.count = count;
+            this.meanMicros = meanMicros;
+            this.p50Micros = p50Micros;
+            this.p90Micros = p90Micros;
+            this.p99Micros = p99Micros;
+            this.maxMicros = maxMicros;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMeanMicros() {
+            return meanMicros;
+        }
+
+        public long getP50Micros() {
+            return p50Micros;
+        }
+
+        public long getP90Micros() {
+            return p90Micros;
+        }
+
+        public long getP99Micros() {
+            return p99Micros;
+        }
+
+        public long getMaxMicros() {
+            return maxMicros;
+        }
+
+        @Override
+        public String toString() {
+            return format("count=%s, mean=%.3fms, p50<=%.3fms, p90<=%.3fms, p99<=%.3fms, max=%.3fms", count,
+                    meanMicros / 1000d, p50Micros / 1000d, p90Micros / 1000d, p99Micros / 1000d, maxMicros / 1000d);
+        }
+    }
+
+}
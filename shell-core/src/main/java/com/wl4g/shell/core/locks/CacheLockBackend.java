@@ -0,0 +1,183 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.core.locks;
+
+import static com.wl4g.infra.common.lang.Assert2.notNullOf;
+import static com.wl4g.shell.core.cache.AsyncShellCache.await;
+import static java.lang.String.format;
+import static java.util.Objects.isNull;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+import com.wl4g.shell.core.cache.AsyncShellCache;
+import com.wl4g.shell.core.cache.ShellCache;
+import com.wl4g.shell.core.cache.ShellCachePipeline;
+import com.wl4g.shell.core.locks.LockLeaseRenewer.Lease;
+
+/**
+ * Lock backend of the shared {@link ShellCache} (e.g. redis), the holder is
+ * the value of lock key. If the cache is {@link AsyncShellCache}, the
+ * pipelines are sent without waiting, i.e. the round trips of acquiring are
+ * chained on the I/O thread of client, and the renewals never block the
+ * renewer.
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+class CacheLockBackend implements LockBackend {
+
+    /** Counter of the fencing tokens, shared by all locks. */
+    static final String FENCING_KEY = "shell:lock:fencing";
+
+    private final ShellCache shellCache;
+
+    CacheLockBackend(ShellCache shellCache) {
+        this.shellCache = notNullOf(shellCache, "shellCache");
+        assertSupported(shellCache);
+    }
+
+    @Override
+    public boolean isLocal() {
+        return false;
+    }
+
+    /**
+     * The new lock and the renewal of the current holder are requested in one
+     * pipeline, i.e. if the new lock failed, the renewal succeeds only if
+     * reentrant, and then the expiration is extended as the new lock.
+     *
+     * <p>
+     * The fencing token is issued only if acquired, i.e. the contended
+     * attempts don't write the shared counter, the holder is checked again
+     * after the increasing, so that the token is issued while still held,
+     * i.e. the later acquisition always gets the greater token.
+     * </p>
+     */
+    @Override
+    public long tryAcquire(String name, String requestId, long expiredMs) {
+        CompletionStage<Long> acquiring = shellCache.pipeline()
+                .setnx(name, requestId, expiredMs)
+                .expireeq(name, requestId, expiredMs)
+                .async()
+                .thenCompose(results -> {
+                    // Acquired a new lock from the server, or renewed the held.
+                    boolean acquired = assertValidity(results.get(0));
+                    boolean renewed = assertValidity(results.get(1));
+                    if (!acquired && !renewed) {
+                        return completedFuture(-1L);
+                    }
+                    return shellCache.pipeline()
+                            .incr(FENCING_KEY)
+                            .get(name, String.class)
+                            .async()
+                            .thenApply(issued -> {
+                                String acquiredProcessId = (String) issued.get(1); // Locked-processId.
+                                // Lost before issued, e.g. the round trip
+                                // exceeds the expiration.
+                                return requestId.equals(acquiredProcessId) ? ((Number) issued.get(0)).longValue() : -1L;
+                            });
+                });
+        return await(acquiring);
+    }
+
+    @Override
+    public boolean release(String name, String requestId) {
+        return assertValidity(shellCache.deleq(name, requestId));
+    }
+
+    @Override
+    public List<Boolean> renew(List<Lease> leases) {
+        return toRenewed(newRenewPipeline(leases).sync());
+    }
+
+    @Override
+    public CompletionStage<List<Boolean>> renewAsync(List<Lease> leases) {
+        return newRenewPipeline(leases).async().thenApply(results -> toRenewed(results));
+    }
+
+    private ShellCachePipeline newRenewPipeline(List<Lease> leases) {
+        ShellCachePipeline pipeline = shellCache.pipeline();
+        for (Lease lease : leases) {
+            pipeline.expireeq(lease.getName(), lease.getRequestId(), lease.getExpiredMs());
+        }
+        return pipeline;
+    }
+
+    private static List<Boolean> toRenewed(List<Object> results) {
+        List<Boolean> renewed = new ArrayList<>(results.size());
+        for (Object result : results) {
+            renewed.add(Boolean.TRUE.equals(result));
+        }
+        return renewed;
+    }
+
+    /**
+     * Fail fast if the required operations are not implemented by the cache
+     * (i.e. the unsupported defaults of {@link ShellCache}), rather than
+     * failed at the first locking.
+     */
+    static void assertSupported(ShellCache shellCache) {
+        List<String> unsupported = new ArrayList<>(2);
+        for (Object[] op : REQUIRED_OPERATIONS) {
+            try {
+                Method method = shellCache.getClass().getMethod((String) op[0], (Class<?>[]) op[1]);
+                if (method.getDeclaringClass() == ShellCache.class) {
+                    unsupported.add(method.getName());
+                }
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        if (!unsupported.isEmpty()) {
+            throw new UnsupportedOperationException(format("Unsupported shell cache of locks: %s, unimplemented: %s",
+                    shellCache.getClass().getName(), unsupported));
+        }
+    }
+
+    /**
+     * Assertion validate lock result is acquired/UnAcquired success?
+     * 
+     * @param res
+     * @return
+     */
+    private static boolean assertValidity(Object res) {
+        if (isNull(res)) {
+            return false;
+        }
+        if (res instanceof String) {
+            String res0 = res.toString().trim();
+            return "1".equals(res0) || "OK".equalsIgnoreCase(res0);
+        } else if (res instanceof Boolean) {
+            return (boolean) res;
+        } else if (res instanceof Number) {
+            return ((Number) res).longValue() >= 1L;
+        } else {
+            throw new IllegalStateException(format("Unknown acquired state for %s", res));
+        }
+    }
+
+    /** Operations of cache required by the locks, name and parameter types. */
+    static final Object[][] REQUIRED_OPERATIONS = { { "get", new Class<?>[] { String.class, Class.class } },
+            { "setnx", new Class<?>[] { String.class, Object.class, long.class } },
+            { "deleq", new Class<?>[] { String.class, String.class } }, { "incr", new Class<?>[] { String.class } },
+            { "expireeq", new Class<?>[] { String.class, String.class, long.class } } };
+
+}
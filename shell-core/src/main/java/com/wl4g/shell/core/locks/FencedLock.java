@@ -0,0 +1,42 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.core.locks;
+
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Lock with the fencing token, which is increased by each acquisition (from
+ * the cache, i.e. not per lock and not reset by the re-entry). The resources
+ * protected by the lock should reject the writes with the token less than the
+ * latest seen, e.g. the writes of a stale holder whose lock expired.
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ * @see <a href=
+ *      'https://martin.kleppmann.com/2016/02/08/how-to-do-distributed-locking.html'>Making
+ *      the lock safe with fencing</a>
+ */
+public interface FencedLock extends Lock {
+
+    /**
+     * Gets the fencing token of the acquisition held by the current thread.
+     *
+     * @return the token, or -1 if not held by the current thread.
+     */
+    long getFencingToken();
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.core.locks;
+
+import static java.lang.System.currentTimeMillis;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.wl4g.shell.core.locks.LockLeaseRenewer.Lease;
+
+/**
+ * Lock backend of the single node (e.g. the
+ * {@link com.wl4g.shell.core.cache.MemoryShellCache} deployments), the holders
+ * are recorded in the striped tables, each guarded by a {@link ReentrantLock},
+ * i.e. the locks of different stripes are never contended, and the TTL of
+ * each lock is honored (checked when acquiring).
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+class LocalLockBackend implements LockBackend {
+
+    private final ReentrantLock[] stripes;
+    private final Map<String, Holder>[] tables;
+    private final AtomicLong fencingCounter = new AtomicLong();
+
+    LocalLockBackend() {
+        this(DEFAULT_STRIPES);
+    }
+
+    @SuppressWarnings("unchecked")
+    LocalLockBackend(int stripes) {
+        this.stripes = new ReentrantLock[stripes];
+        this.tables = new Map[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+            this.tables[i] = new HashMap<>(8);
+        }
+    }
+
+    @Override
+    public boolean isLocal() {
+        return true;
+    }
+
+    /**
+     * The expired holder is replaced, i.e. the same as the key expiration.
+     */
+    @Override
+    public long tryAcquire(String name, String requestId, long expiredMs) {
+        int i = stripeOf(name);
+        stripes[i].lock();
+        try {
+            long now = currentTimeMillis();
+            Holder holder = tables[i].get(name);
+            if (isNull(holder) || holder.expireAt <= now || holder.requestId.equals(requestId)) {
+                tables[i].put(name, new Holder(requestId, now + expiredMs));
+                return fencingCounter.incrementAndGet();
+            }
+            return -1L;
+        } finally {
+            stripes[i].unlock();
+        }
+    }
+
+    @Override
+    public boolean release(String name, String requestId) {
+        int i = stripeOf(name);
+        stripes[i].lock();
+        try {
+            Holder holder = tables[i].get(name);
+            if (nonNull(holder) && holder.requestId.equals(requestId)) {
+                tables[i].remove(name);
+                return holder.expireAt > currentTimeMillis();
+            }
+            return false;
+        } finally {
+            stripes[i].unlock();
+        }
+    }
+
+    @Override
+    public List<Boolean> renew(List<Lease> leases) {
+        List<Boolean> renewed = new ArrayList<>(leases.size());
+        for (Lease lease : leases) {
+            int i = stripeOf(lease.getName());
+            stripes[i].lock();
+            try {
+                long now = currentTimeMillis();
+                Holder holder = tables[i].get(lease.getName());
+                if (nonNull(holder) && holder.requestId.equals(lease.getRequestId()) && holder.expireAt > now) {
+                    holder.expireAt = now + lease.getExpiredMs();
+                    renewed.add(true);
+                } else {
+                    renewed.add(false);
+                }
+            } finally {
+                stripes[i].unlock();
+            }
+        }
+        return renewed;
+    }
+
+    private int stripeOf(String name) {
+        int h = name.hashCode();
+        return ((h ^ (h >>> 16)) & 0x7FFFFFFF) % stripes.length;
+    }
+
+    static final class Holder {
+        final String requestId;
+        long expireAt;
+
+        Holder(String requestId, long expireAt) {
+            this.requestId = requestId;
+            this.expireAt = expireAt;
+        }
+    }
+
+    static final int DEFAULT_STRIPES = 64;
+
+}
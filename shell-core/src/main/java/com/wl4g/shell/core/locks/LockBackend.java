@@ -0,0 +1,87 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.core.locks;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+import com.wl4g.shell.core.locks.LockLeaseRenewer.Lease;
+
+/**
+ * Holder records of the {@link ShellLockManager} locks, the holder is the
+ * request ID (i.e. process and thread) and expired after the TTL unless
+ * renewed.
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ * @see CacheLockBackend
+ * @see LocalLockBackend
+ */
+interface LockBackend {
+
+    /**
+     * Whether the locks are only in the current process, i.e. the release
+     * notifications are not published.
+     *
+     * @return
+     */
+    boolean isLocal();
+
+    /**
+     * Try acquire the lock, also succeeded if held by the request ID, and
+     * then the expiration is renewed.
+     *
+     * @param name
+     * @param requestId
+     * @param expiredMs
+     * @return the fencing token if acquired, otherwise -1.
+     */
+    long tryAcquire(String name, String requestId, long expiredMs);
+
+    /**
+     * Release the lock if held by the request ID.
+     *
+     * @param name
+     * @param requestId
+     * @return false if not held, i.e. expired.
+     */
+    boolean release(String name, String requestId);
+
+    /**
+     * Renew the expiration of the leases if still held.
+     *
+     * @param leases
+     * @return whether renewed, in the order of the leases.
+     */
+    List<Boolean> renew(List<Lease> leases);
+
+    /**
+     * Renew without waiting, the stage may be completed on the I/O thread of
+     * the cache client, so the dependent actions must not block. By default,
+     * renewed on the caller thread.
+     *
+     * @param leases
+     * @return whether renewed, in the order of the leases.
+     * @see #renew(List)
+     */
+    default CompletionStage<List<Boolean>> renewAsync(List<Lease> leases) {
+        return completedFuture(renew(leases));
+    }
+
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.core.locks;
+
+import static com.wl4g.infra.common.lang.Assert2.hasTextOf;
+import static com.wl4g.infra.common.lang.Assert2.notNullOf;
+import static com.wl4g.infra.common.log.SmartLoggerFactory.getLogger;
+import static java.lang.System.currentTimeMillis;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.springframework.util.Assert.isTrue;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import com.wl4g.infra.common.log.SmartLogger;
+
+/**
+ * Lease renewal watchdog of the held locks, a hashed timer wheel is ticked by
+ * one daemon thread, and the leases due in the tick are renewed in one batch,
+ * e.g. one pipeline of
+ * {@link com.wl4g.shell.core.cache.ShellCache#expireeq(String, String, long)}.
+ *
+ * <p>
+ * The lease is renewed every third of the expiration, until cancelled (i.e.
+ * the lock released), the renewal failed (i.e. the lock lost), or the holder
+ * thread is interrupted or terminated, so that a crashed holder only blocks
+ * the others until the expiration.
+ * </p>
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+public class LockLeaseRenewer implements Closeable {
+    protected final SmartLogger log = getLogger(getClass());
+
+    private final LockBackend backend;
+    private final long tickMs;
+    private final List<Lease>[] wheel;
+    private final Queue<Lease> pending = new ConcurrentLinkedQueue<>();
+    private volatile Thread worker;
+    private volatile boolean closed;
+
+    LockLeaseRenewer(LockBackend backend) {
+        this(backend, DEFAULT_TICK_MS, DEFAULT_TICKS_PER_WHEEL);
+    }
+
+    @SuppressWarnings("unchecked")
+    LockLeaseRenewer(LockBackend backend, long tickMs, int ticksPerWheel) {
+        this.backend = notNullOf(backend, "backend");
+        isTrue(tickMs > 0, "Renewal tickMs must greater than 0");
+        isTrue(ticksPerWheel > 0 && Integer.bitCount(ticksPerWheel) == 1, "Renewal ticksPerWheel must be a power of 2");
+        this.tickMs = tickMs;
+        this.wheel = new List[ticksPerWheel];
+        for (int i = 0; i < ticksPerWheel; i++) {
+            this.wheel[i] = new LinkedList<>();
+        }
+    }
+
+    /**
+     * Schedule renewal of the acquired lease, the worker is started if
+     * necessary.
+     *
+     * @param lease
+     */
+    void schedule(Lease lease) {
+        if (closed) {
+            return;
+        }
+        pending.offer(notNullOf(lease, "lease"));
+        if (isNull(worker)) {
+            synchronized (this) {
+                if (isNull(worker) && !closed) {
+                    Thread t = new Thread(() -> run(), "shell-lock-renewer");
+                    t.setDaemon(true);
+                    t.start();
+                    worker = t;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        synchronized (this) {
+            if (nonNull(worker)) {
+                worker.interrupt();
+            }
+        }
+    }
+
+    private void run() {
+        final int mask = wheel.length - 1;
+        long tick = 0;
+        long startTime = currentTimeMillis();
+        while (!closed) {
+            long sleepMs = startTime + (tick + 1) * tickMs - currentTimeMillis();
+            if (sleepMs > 0) {
+                try {
+                    MILLISECONDS.sleep(sleepMs);
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+            transferPending(tick, mask);
+
+            // Pick up the due leases of current tick.
+            List<Lease> dueLeases = new ArrayList<>();
+            Iterator<Lease> it = wheel[(int) (tick & mask)].iterator();
+            while (it.hasNext()) {
+                Lease lease = it.next();
+                if (!lease.isActive()) {
+                    it.remove();
+                } else if (lease.remainingRounds > 0) {
+                    --lease.remainingRounds;
+                } else {
+                    it.remove();
+                    dueLeases.add(lease);
+                }
+            }
+            if (!dueLeases.isEmpty()) {
+                renew(dueLeases);
+            }
+            ++tick;
+        }
+        log.debug("Stopped lock lease renewer.");
+    }
+
+    /**
+     * Add the scheduled leases to the wheel, which is only accessed by the
+     * worker thread.
+     */
+    private void transferPending(long tick, int mask) {
+        Lease lease;
+        while (nonNull(lease = pending.poll())) {
+            long ticks = Math.max(1L, lease.getRenewIntervalMs() / tickMs);
+            lease.remainingRounds = ticks / wheel.length;
+            wheel[(int) ((tick + ticks) & mask)].add(lease);
+        }
+    }
+
+    /**
+     * Renew the due leases in one batch (e.g. pipeline of cache) without
+     * waiting, i.e. the ticks are not delayed by the round trip, and
+     * reschedule the renewed on completion.
+     */
+    private void renew(List<Lease> dueLeases) {
+        long now = currentTimeMillis();
+        CompletionStage<List<Boolean>> renewing;
+        try {
+            renewing = backend.renewAsync(dueLeases);
+        } catch (Exception e) {
+            onRenewFailed(dueLeases, e);
+            return;
+        }
+        renewing.whenComplete((results, th) -> {
+            if (nonNull(th)) {
+                onRenewFailed(dueLeases, th);
+            } else {
+                onRenewed(dueLeases, results, now);
+            }
+        });
+    }
+
+    /**
+     * Retry in the next interval, if the locks are not expired yet.
+     */
+    private void onRenewFailed(List<Lease> dueLeases, Throwable th) {
+        log.warn("Failed to renew the lock leases of {}. caused by: {}", dueLeases.size(), th.getMessage());
+        pending.addAll(dueLeases);
+    }
+
+    /**
+     * Must not block, may be called on the I/O thread of cache client.
+     */
+    private void onRenewed(List<Lease> dueLeases, List<Boolean> results, long now) {
+        for (int i = 0; i < dueLeases.size(); i++) {
+            Lease lease = dueLeases.get(i);
+            if (results.get(i)) {
+                lease.renewed(now + lease.getExpiredMs());
+                pending.offer(lease);
+            } else {
+                log.warn("Lost the lock of {}@{}, the lease is expired or held by others.", lease.getRequestId(),
+                        lease.getName());
+                lease.renewed(0L);
+                lease.cancel();
+            }
+        }
+    }
+
+    /**
+     * Lease of the acquired lock, the deadline is the local view of the
+     * expiration, i.e. before the deadline the lock is still held.
+     */
+    static final class Lease {
+        private final String name;
+        private final String requestId;
+        private final long expiredMs;
+        private final Thread holder;
+        private final long fencingToken;
+        private volatile long deadline;
+        private volatile boolean cancelled;
+        /** Remaining rounds of wheel, only accessed by the worker. */
+        private long remainingRounds;
+
+        Lease(String name, String requestId, long expiredMs, Thread holder, long fencingToken, long deadline) {
+            this.name = hasTextOf(name, "name");
+            this.requestId = hasTextOf(requestId, "requestId");
+            this.expiredMs = expiredMs;
+            this.holder = notNullOf(holder, "holder");
+            this.fencingToken = fencingToken;
+            this.deadline = deadline;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        String getRequestId() {
+            return requestId;
+        }
+
+        long getExpiredMs() {
+            return expiredMs;
+        }
+
+        long getFencingToken() {
+            return fencingToken;
+        }
+
+        long getRenewIntervalMs() {
+            return expiredMs / 3;
+        }
+
+        long getDeadline() {
+            return deadline;
+        }
+
+        void renewed(long deadline) {
+            this.deadline = deadline;
+        }
+
+        void cancel() {
+            this.cancelled = true;
+        }
+
+        boolean isActive() {
+            return !cancelled && holder.isAlive() && !holder.isInterrupted();
+        }
+    }
+
+    public static final long DEFAULT_TICK_MS = 100L;
+    public static final int DEFAULT_TICKS_PER_WHEEL = 64;
+
+}
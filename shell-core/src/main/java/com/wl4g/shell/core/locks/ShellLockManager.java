@@ -19,42 +19,107 @@ import static com.wl4g.infra.common.lang.Assert2.hasTextOf;
 import static com.wl4g.infra.common.lang.Assert2.notNullOf;
 import static com.wl4g.infra.common.lang.SystemUtils2.GLOBAL_PROCESS_SERIAL;
 import static com.wl4g.infra.common.log.SmartLoggerFactory.getLogger;
-import static java.lang.String.format;
+import static java.lang.System.currentTimeMillis;
+import static java.lang.System.nanoTime;
 import static java.lang.Thread.currentThread;
 import static java.lang.Thread.interrupted;
-import static java.lang.Thread.sleep;
 import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.springframework.util.Assert.hasText;
 import static org.springframework.util.Assert.isTrue;
 import static org.springframework.util.Assert.notNull;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import com.google.common.annotations.Beta;
+import com.google.common.collect.MapMaker;
 import com.wl4g.infra.common.log.SmartLogger;
 import com.wl4g.shell.core.cache.ShellCache;
+import com.wl4g.shell.core.locks.LockLeaseRenewer.Lease;
 
 /**
  * {@link ShellLockManager}
  * 
+ * <p>
+ * The waiters of the lock are woken up by the release notification, i.e. the
+ * unlock publishes the lock name to {@link #RELEASE_CHANNEL} (and signals the
+ * local waiters directly). Polling of {@link #FRAME_INTERVAL_MS} is only used
+ * if the cache is not supported to subscribe, otherwise polling of
+ * {@link #FALLBACK_INTERVAL_MS} is kept for the expired locks and the lost
+ * notifications.
+ * </p>
+ * 
+ * <p>
+ * The expiration of the lock is a lease, which is renewed by
+ * {@link LockLeaseRenewer} while held, i.e. the long-running holder keeps the
+ * lock, and the crashed holder only blocks the others until the expiration.
+ * </p>
+ * 
+ * <p>
+ * If the cache is local (i.e. {@link ShellCache#isLocal()}, the single node
+ * deployments), the holders are recorded by {@link LocalLockBackend} rather
+ * than the cache entries, which honors the TTL of each lock.
+ * </p>
+ * 
  * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
  * @version 2021-07-01 v1.0.0
  *  {@link com.wl4g.infra.support.cache.locks.JedisLockManager}
  */
-public class ShellLockManager {
+public class ShellLockManager implements Closeable {
     protected final SmartLogger log = getLogger(getClass());
     protected static final String NAMESPACE = "reentrantUnfairLock.";
     protected static final String NXXX = "NX";
     protected static final String EXPX = "PX";
+    protected static final String RELEASE_CHANNEL = "shell:lock:released";
     protected static final long FRAME_INTERVAL_MS = 50L;
+    protected static final long FALLBACK_INTERVAL_MS = 500L;
 
     protected final ShellCache shellCache;
+    /** Holder records of the locks, local if the cache is local. */
+    private final LockBackend backend;
+
+    protected final ShellLockMetrics metrics = new ShellLockMetrics();
+    /** Renewal of the held locks lease. */
+    protected final LockLeaseRenewer leaseRenewer;
+    /**
+     * Created locks, key is lock name. The values are weak (e.g. the names
+     * derived from the command arguments), the lock instance is only a handle
+     * of the name, i.e. the hold state is kept by {@link #holdStates}.
+     */
+    private final Map<String, FastReentrantUnfairDistributedRedLock> locks = new MapMaker().weakValues().makeMap();
+    /**
+     * Hold states of the held locks of this process, key is lock name, put
+     * when acquired and removed when all holds are released.
+     */
+    private final Map<String, HoldState> holdStates = new ConcurrentHashMap<>(16);
+    /**
+     * Release signals of waiting locks, key is lock name, removed when no
+     * waiters.
+     */
+    private final Map<String, ReleaseSignal> releaseSignals = new ConcurrentHashMap<>(16);
+    /** Subscription of {@link #RELEASE_CHANNEL}, subscribed when first waiting. */
+    private volatile Closeable releaseSubscription;
+    private volatile boolean releaseSubscribed;
 
+    /**
+     * @param shellCache
+     * @throws UnsupportedOperationException
+     *             if the shared cache doesn't implement the operations of
+     *             locks, e.g. {@link ShellCache#incr(String)} and
+     *             {@link ShellCache#expireeq(String, String, long)}.
+     */
     public ShellLockManager(ShellCache shellCache) {
         this.shellCache = notNullOf(shellCache, "shellCache");
+        this.backend = shellCache.isLocal() ? new LocalLockBackend() : new CacheLockBackend(shellCache);
+        this.leaseRenewer = new LockLeaseRenewer(backend);
     }
 
     /**
@@ -63,23 +128,86 @@ public class ShellLockManager {
      * @param name
      * @return
      */
-    public Lock getLock(String name) {
+    public FencedLock getLock(String name) {
         return getLock(name, 10, TimeUnit.SECONDS);
     }
 
     /**
-     * Get and create {@link FastReentrantUnfairDistributedRedLock} with name.
+     * Get and create {@link FastReentrantUnfairDistributedRedLock} with name,
+     * the same instance is returned for the same name and expiration, which
+     * can be shared by threads.
      * 
      * @param name
      * @param expiredAt
      * @param unit
      * @return
      */
-    public Lock getLock(String name, long expiredAt, TimeUnit unit) {
+    public FencedLock getLock(String name, long expiredAt, TimeUnit unit) {
         hasText(name, "Lock name must not be empty.");
         isTrue(expiredAt > 0, "Lock expiredAt must greater than 0");
         notNull(unit, "TimeUnit must not be null.");
-        return new FastReentrantUnfairDistributedRedLock(name, unit.toMillis(expiredAt));
+        long expiredMs = unit.toMillis(expiredAt);
+        FastReentrantUnfairDistributedRedLock lock = locks.get(name);
+        if (isNull(lock) || lock.expiredMs != expiredMs) {
+            lock = locks.compute(name, (n, l) -> (nonNull(l) && l.expiredMs == expiredMs) ? l
+                    : new FastReentrantUnfairDistributedRedLock(n, expiredMs));
+        }
+        return lock;
+    }
+
+    public ShellLockMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void close() throws IOException {
+        leaseRenewer.close();
+        synchronized (releaseSignals) {
+            if (nonNull(releaseSubscription)) {
+                releaseSubscription.close();
+                releaseSubscription = null;
+            }
+        }
+        releaseSignals.values().forEach(s -> s.signalAll());
+    }
+
+    /**
+     * Gets the release signal of the lock for waiting, and subscribe the
+     * release notifications if necessary, must be returned by
+     * {@link #returnReleaseSignal(String, ReleaseSignal)}.
+     * 
+     * @param name
+     * @return
+     */
+    private ReleaseSignal borrowReleaseSignal(String name) {
+        if (!releaseSubscribed && !backend.isLocal()) {
+            synchronized (releaseSignals) {
+                if (!releaseSubscribed) {
+                    releaseSubscription = shellCache.subscribe(RELEASE_CHANNEL, n -> {
+                        ReleaseSignal signal = releaseSignals.get(n);
+                        if (nonNull(signal)) {
+                            signal.signalAll();
+                        }
+                    });
+                    releaseSubscribed = true;
+                }
+            }
+        }
+        return releaseSignals.compute(name, (n, s) -> {
+            ReleaseSignal signal = isNull(s) ? new ReleaseSignal() : s;
+            ++signal.waiters;
+            return signal;
+        });
+    }
+
+    /**
+     * Return the release signal, which is removed if no waiters.
+     * 
+     * @param name
+     * @param signal
+     */
+    private void returnReleaseSignal(String name, ReleaseSignal signal) {
+        releaseSignals.computeIfPresent(name, (n, s) -> (s == signal && --s.waiters <= 0) ? null : s);
     }
 
     /**
@@ -124,39 +252,15 @@ public class ShellLockManager {
      *      Redlock failover analysis</a>
      */
     @Beta
-    private final class FastReentrantUnfairDistributedRedLock implements Lock {
+    private final class FastReentrantUnfairDistributedRedLock implements FencedLock {
         /** Current locker name. */
         protected final String name;
-        /** Current locker request ID. */
-        protected final String requestId;
         /** Current locker expired time(MS). */
         protected final long expiredMs;
-        /**
-         * Current locker reentrant counter.
-         * <font color=red>Special Note: assuming that the situation of retry to
-         * obtain lock occurs, it must be in the same JVM process.</font>
-         */
-        protected final AtomicLong counter;
-
         public FastReentrantUnfairDistributedRedLock(String name, long expiredMs) {
-            this(name, expiredMs, 0L);
-        }
-
-        public FastReentrantUnfairDistributedRedLock(String name, long expiredMs, long counterValue) {
-            this(name, expiredMs, new AtomicLong(counterValue));
-        }
-
-        public FastReentrantUnfairDistributedRedLock(String name, long expiredMs, AtomicLong counter) {
-            this((NAMESPACE.concat(name)), getThreadCurrentProcessId(), expiredMs, counter);
-        }
-
-        public FastReentrantUnfairDistributedRedLock(String name, String currentProcessId, long expiredMs, AtomicLong counter) {
-            this.name = hasTextOf(name, "lockName");
-            this.requestId = hasTextOf(currentProcessId, "currentProcessId");
+            this.name = NAMESPACE.concat(hasTextOf(name, "lockName"));
             isTrue(expiredMs > 0, "Lock expiredMs must greater than 0");
             this.expiredMs = expiredMs;
-            this.counter = counter;
-            isTrue(counter.get() >= 0, "Lock count must greater than 0");
         }
 
         @Override
@@ -172,111 +276,230 @@ public class ShellLockManager {
         public void lockInterruptibly() throws InterruptedException {
             if (interrupted())
                 throw new InterruptedException();
-            while (true) {
-                if (doTryAcquire())
-                    break;
-                sleep(FRAME_INTERVAL_MS);
+            metrics.recordAttempt(name);
+            long begin = nanoTime();
+            ReleaseSignal signal = borrowReleaseSignal(name);
+            try {
+                while (true) {
+                    long version = signal.version();
+                    if (doTryAcquire(begin))
+                        break;
+                    signal.await(version, getWaitIntervalMs());
+                }
+            } finally {
+                returnReleaseSignal(name, signal);
             }
         }
 
         @Override
         public boolean tryLock() {
-            return doTryAcquire();
+            metrics.recordAttempt(name);
+            if (doTryAcquire(nanoTime()))
+                return true;
+            metrics.recordFailedTry(name);
+            return false;
         }
 
         @Override
         public boolean tryLock(long tryTimeout, TimeUnit unit) throws InterruptedException {
             notNull(unit, "TimeUnit must not be null.");
             isTrue((tryTimeout > 0 && tryTimeout <= expiredMs), "TryTimeout must be > 0 && <= " + expiredMs);
-            long t = unit.toMillis(tryTimeout) / FRAME_INTERVAL_MS, c = 0;
-            while (t > ++c) {
-                if (doTryAcquire())
-                    return true;
-                sleep(FRAME_INTERVAL_MS);
+            if (interrupted())
+                throw new InterruptedException();
+            metrics.recordAttempt(name);
+            long begin = nanoTime();
+            ReleaseSignal signal = borrowReleaseSignal(name);
+            long deadline = currentTimeMillis() + unit.toMillis(tryTimeout);
+            try {
+                while (true) {
+                    long version = signal.version();
+                    if (doTryAcquire(begin))
+                        return true;
+                    long remainingMs = deadline - currentTimeMillis();
+                    if (remainingMs <= 0) {
+                        metrics.recordFailedTry(name);
+                        return false;
+                    }
+                    signal.await(version, Math.min(remainingMs, getWaitIntervalMs()));
+                }
+            } finally {
+                returnReleaseSignal(name, signal);
             }
-            return false;
         }
 
         @Override
         public void unlock() {
-            // Obtain locked processId.
-            String acquiredRequestId = shellCache.get(name, String.class);
             // Current thread is holder?
-            if (!requestId.equals(acquiredRequestId)) {
-                log.debug("No need to unlock of requestId: {}, acquiredRequestId: {}, counter: {}", requestId, acquiredRequestId,
-                        counter);
+            HoldState state = holdStates.get(name);
+            if (isNull(state) || state.owner != currentThread()) {
+                log.debug("No need to unlock of requestId: {}, owner: {}", getThreadCurrentProcessId(),
+                        isNull(state) ? null : state.owner);
                 return;
             }
 
             // Obtain lock record once decrement.
-            counter.decrementAndGet();
-            log.debug("No need to unlock and reenter the stack lock layer, counter: {}", counter);
+            if (--state.holds > 0) {
+                log.debug("No need to unlock and reenter the stack lock layer, holds: {}", state.holds);
+                return;
+            }
 
-            if (counter.longValue() == 0L) { // All thread stack layers exited?
-                Object res = shellCache.deleq(name, requestId);
-                if (!assertValidity(res)) {
-                    log.debug("Failed to unlock for %{}@{}", requestId, name);
-                } else {
-                    log.debug("Unlock successful for %{}@{}", requestId, name);
-                }
+            // All thread stack layers exited, the remote lock is only deleted
+            // if still held by the request ID.
+            holdStates.remove(name, state);
+            String requestId = state.lease.getRequestId();
+            state.lease.cancel();
+            boolean expired = !backend.release(name, requestId);
+            metrics.recordReleased(name, nanoTime() - state.acquiredNanos, expired);
+            if (expired) {
+                log.warn("Lock expired before unlock for %{}@{}, the lock TTL may be too short.", requestId, name);
+            } else {
+                log.debug("Unlock successful for %{}@{}", requestId, name);
+                notifyReleased();
             }
         }
 
+        @Override
+        public long getFencingToken() {
+            HoldState state = holdStates.get(name);
+            return (nonNull(state) && state.owner == currentThread()) ? state.lease.getFencingToken() : -1L;
+        }
+
         @Override
         public Condition newCondition() {
             throw new UnsupportedOperationException();
         }
 
         /**
-         * Execution try acquire locker by reentrant info.
+         * Execution try acquire locker by reentrant info. The re-entry of the
+         * holder thread is local until the lease deadline, otherwise acquired
+         * by the backend, which is also succeeded if held by the current
+         * thread.
          * 
          * @see ShellLockManager.java
+         * @param begin
+         *            nanos of the acquiring begin, for the wait time metrics.
          * @return
          */
-        private final boolean doTryAcquire() {
-            String acquiredProcessId = shellCache.get(name, String.class); // Locked-processId.
-            if (requestId.equals(acquiredProcessId)) {
-                // Obtain lock record once cumulatively.
-                counter.incrementAndGet();
-                log.debug("Reuse acquire lock for name: {}, acquiredProcessId: {}, counter: {}", name, acquiredProcessId,
-                        counter);
+        private final boolean doTryAcquire(long begin) {
+            HoldState state = holdStates.get(name);
+            boolean reentrant = nonNull(state) && state.owner == currentThread();
+            long now = currentTimeMillis();
+            if (reentrant && now < state.lease.getDeadline()) {
+                ++state.holds;
                 return true;
-            } else {
-                // Not currently locked? Lock expired? Local counter reset.
-                counter.set(0L);
             }
 
-            // Try to acquire a new lock from the server.
-            if (assertValidity(shellCache.setnx(name, requestId, expiredMs))) {
-                // Obtain lock record once cumulatively.
-                counter.incrementAndGet();
+            String requestId = getThreadCurrentProcessId();
+            long fencingToken = backend.tryAcquire(name, requestId, expiredMs);
+            if (fencingToken > 0) {
+                // Not currently locked? Lock expired? The holds are kept if
+                // the lease is renewed by the holder thread.
+                if (reentrant && state.lease.isActive()) {
+                    state.lease.renewed(now + expiredMs);
+                } else {
+                    if (reentrant) {
+                        state.lease.cancel();
+                    } else {
+                        // Replaces the state of the previous holder, which
+                        // is expired (i.e. the lease lost).
+                        state = new HoldState(currentThread());
+                        state.acquiredNanos = nanoTime();
+                        metrics.recordAcquired(name, state.acquiredNanos - begin);
+                    }
+                    state.lease = new Lease(name, requestId, expiredMs, currentThread(), fencingToken, now + expiredMs);
+                    leaseRenewer.schedule(state.lease);
+                    holdStates.put(name, state);
+                }
+                ++state.holds;
+                log.debug("Acquired lock for name: {}, requestId: {}, holds: {}", name, requestId, state.holds);
                 return true;
             }
             return false;
         }
 
         /**
-         * Assertion validate lock result is acquired/UnAcquired success?
+         * Wakeup the local waiters directly, and the waiters of other nodes by
+         * the release notification.
+         */
+        private final void notifyReleased() {
+            ReleaseSignal signal = releaseSignals.get(name);
+            if (nonNull(signal)) {
+                signal.signalAll();
+            }
+            if (backend.isLocal()) {
+                return;
+            }
+            try {
+                shellCache.publish(RELEASE_CHANNEL, name);
+            } catch (Exception e) {
+                log.warn("Failed to publish released of lock: {}. caused by: {}", name, e.getMessage());
+            }
+        }
+
+        /**
+         * Gets the max waiting interval, i.e. polling if the release
+         * notifications are not subscribed.
          * 
-         * @param res
          * @return
          */
-        private final boolean assertValidity(Object res) {
-            if (isNull(res)) {
-                return false;
-            }
-            if (res instanceof String) {
-                String res0 = res.toString().trim();
-                return "1".equals(res0) || "OK".equalsIgnoreCase(res0);
-            } else if (res instanceof Boolean) {
-                return (boolean) res;
-            } else if (res instanceof Number) {
-                return ((Number) res).longValue() >= 1L;
-            } else {
-                throw new IllegalStateException(format("Unknown acquired state for %s", res));
+        private final long getWaitIntervalMs() {
+            return (backend.isLocal() || nonNull(releaseSubscription)) ? FALLBACK_INTERVAL_MS : FRAME_INTERVAL_MS;
+        }
+
+    }
+
+    /**
+     * Hold state of the lock of this process, the holds and lease are only
+     * accessed by the owner thread, i.e. the re-entry and the inner unlock are
+     * local.
+     */
+    private static final class HoldState {
+        private final Thread owner;
+        private int holds;
+        private Lease lease;
+        private long acquiredNanos;
+
+        HoldState(Thread owner) {
+            this.owner = owner;
+        }
+    }
+
+    /**
+     * Release signal of the lock, the version is increased by each released,
+     * i.e. the waiter only waits if not released since the version read before
+     * the acquiring.
+     */
+    private static final class ReleaseSignal {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition released = lock.newCondition();
+        private volatile long version;
+        /** Number of the waiters, only accessed in the compute of map. */
+        private int waiters;
+
+        long version() {
+            return version;
+        }
+
+        void signalAll() {
+            lock.lock();
+            try {
+                ++version;
+                released.signalAll();
+            } finally {
+                lock.unlock();
             }
         }
 
+        void await(long sinceVersion, long timeoutMs) throws InterruptedException {
+            lock.lock();
+            try {
+                if (version == sinceVersion) {
+                    released.await(timeoutMs, MILLISECONDS);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.core.locks;
+
+import static java.lang.String.format;
+import static java.util.Collections.unmodifiableMap;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.wl4g.shell.core.handler.SignalLatencyHistogram;
+
+/**
+ * Metrics of the {@link ShellLockManager} locks, grouped by lock name, e.g.
+ * the hot locks have many failed tries and long waits, and the expirations
+ * detected at unlock means that the hold time exceeded the lock TTL.
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+public class ShellLockMetrics {
+
+    /** Lock name to counters. */
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>(16);
+
+    /** Wait time of the acquired, grouped by lock name. */
+    private final SignalLatencyHistogram waitTimes = new SignalLatencyHistogram();
+
+    /** Hold time from the outermost acquire to the outermost unlock. */
+    private final SignalLatencyHistogram holdTimes = new SignalLatencyHistogram();
+
+    void recordAttempt(String name) {
+        getCounters(name).attempts.increment();
+    }
+
+    void recordAcquired(String name, long waitNanos) {
+        waitTimes.record(name, waitNanos);
+    }
+
+    void recordFailedTry(String name) {
+        getCounters(name).failedTries.increment();
+    }
+
+    void recordReleased(String name, long holdNanos, boolean expired) {
+        holdTimes.record(name, holdNanos);
+        if (expired) {
+            getCounters(name).expirations.increment();
+        }
+    }
+
+    /**
+     * Gets the metrics snapshots of all locks.
+     *
+     * @return
+     */
+    public Map<String, Snapshot> getSnapshots() {
+        Map<String, SignalLatencyHistogram.Snapshot> waits = waitTimes.getSnapshots();
+        Map<String, SignalLatencyHistogram.Snapshot> holds = holdTimes.getSnapshots();
+        Map<String, Snapshot> snapshots = new TreeMap<>();
+        counters.forEach((name, c) -> snapshots.put(name, new Snapshot(c.attempts.sum(), c.failedTries.sum(),
+                c.expirations.sum(), waits.get(name), holds.get(name))));
+        return unmodifiableMap(snapshots);
+    }
+
+    /**
+     * Reset all recorded metrics.
+     */
+    public void reset() {
+        counters.clear();
+        waitTimes.reset();
+        holdTimes.reset();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder(getClass().getSimpleName()).append(" [");
+        getSnapshots().forEach((name, snapshot) -> s.append("\n  ").append(name).append(": ").append(snapshot));
+        return s.append("\n]").toString();
+    }
+
+    private Counters getCounters(String name) {
+        return counters.computeIfAbsent(name, n -> new Counters());
+    }
+
+    static class Counters {
+        final LongAdder attempts = new LongAdder();
+        final LongAdder failedTries = new LongAdder();
+        final LongAdder expirations = new LongAdder();
+    }
+
+    /**
+     * Immutable metrics of a lock, the wait and hold times are null if never
+     * acquired.
+     */
+    public static class Snapshot {
+        private final long attempts;
+        private final long failedTries;
+        private final long expirations;
+        private final SignalLatencyHistogram.Snapshot waitTime;
+        private final SignalLatencyHistogram.Snapshot holdTime;
+
+        public Snapshot(long attempts, long failedTries, long expirations, SignalLatencyHistogram.Snapshot waitTime,
+                SignalLatencyHistogram.Snapshot holdTime) {
+            this.attempts = attempts;
+            this.failedTries = failedTries;
+            this.expirations = expirations;
+            this.waitTime = waitTime;
+            this.holdTime = holdTime;
+        }
+
+        public long getAttempts() {
+            return attempts;
+        }
+
+        public long getFailedTries() {
+            return failedTries;
+        }
+
+        public long getExpirations() {
+            return expirations;
+        }
+
+        public SignalLatencyHistogram.Snapshot getWaitTime() {
+            return waitTime;
+        }
+
+        public SignalLatencyHistogram.Snapshot getHoldTime() {
+            return holdTime;
+        }
+
+        @Override
+        public String toString() {
+            return format("attempts=%s, failedTries=%s, expirations=%s, wait={%s}, hold={%s}", attempts, failedTries,
+                    expirations, waitTime, holdTime);
+        }
+    }
+
+}
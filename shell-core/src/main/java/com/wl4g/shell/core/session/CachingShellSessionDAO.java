@@ -15,57 +15,193 @@
  */
 package com.wl4g.shell.core.session;
 
+import static com.wl4g.infra.common.lang.Assert2.isTrue;
 import static com.wl4g.infra.common.lang.Assert2.notNullOf;
+import static com.wl4g.infra.common.log.SmartLoggerFactory.getLogger;
+import static java.util.Objects.nonNull;
 
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
 
+import javax.annotation.Nullable;
+
+import com.wl4g.infra.common.log.SmartLogger;
+import com.wl4g.shell.core.cache.AsyncShellCache;
 import com.wl4g.shell.core.cache.ShellCache;
 
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisCluster;
 
 /**
- * {@link CachingShellSessionDAO}
+ * {@link CachingShellSessionDAO}, the sessions are stored in one hash of the
+ * {@link ShellCache}, see {@link KeyedShellSessionDAO} of the key per session
+ * layout.
  * 
  * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
  * @version 2021-06-30 v1.0.0
  * 
  */
-public class CachingShellSessionDAO implements ShellSessionDAO {
+public class CachingShellSessionDAO implements ShellSessionDAO, Closeable {
+    protected final SmartLogger log = getLogger(getClass());
 
     protected final ShellCache shellCache;
 
+    /** Write behind the touched sessions, if null then write through. */
+    protected final SessionHeartbeatAggregator heartbeats;
+
     /**
      * @param redisObj
      *            type of {@link JedisCluster} or {@link Jedis}
      */
     public CachingShellSessionDAO(ShellCache shellCache) {
+        this(shellCache, 0);
+    }
+
+    /**
+     * @param shellCache
+     * @param heartbeatFlushIntervalMs
+     *            interval of writing the touched sessions in batch, if
+     *            &lt;=0 then the touched is written through.
+     */
+    public CachingShellSessionDAO(ShellCache shellCache, long heartbeatFlushIntervalMs) {
         this.shellCache = notNullOf(shellCache, "shellCache");
+        this.heartbeats = (heartbeatFlushIntervalMs > 0)
+                ? new SessionHeartbeatAggregator(sessions -> putAll(sessions), heartbeatFlushIntervalMs)
+                : null;
     }
 
     @Override
     public ShellSession get(String sessionId) {
-        return shellCache.hget(sessionId, ShellSession.class);
+        // The recorded may be newer than cached.
+        ShellSession session = nonNull(heartbeats) ? heartbeats.getRecorded(sessionId) : null;
+        return nonNull(session) ? session : doGet(sessionId);
     }
 
     @Override
     public List<ShellSession> getAll() {
-        return shellCache.hgetAll(ShellSession.class);
+        if (nonNull(heartbeats)) {
+            heartbeats.flush();
+        }
+        return doGetAll();
+    }
+
+    @Override
+    public Iterator<ShellSession> iterate(int pageSize) {
+        isTrue(pageSize > 0, "pageSize must greater than 0");
+        if (nonNull(heartbeats)) {
+            heartbeats.flush();
+        }
+        return doIterate(pageSize);
     }
 
     @Override
     public boolean put(ShellSession session) {
-        return shellCache.hset(session.getSessionId(), session);
+        discardHeartbeat(session.getSessionId());
+        return doPut(session);
+    }
+
+    @Override
+    public boolean putAll(List<ShellSession> sessions) {
+        return doPutAll(sessions);
     }
 
     @Override
     public boolean putIfAbsent(ShellSession session) {
-        return shellCache.hset(session.getSessionId(), session);
+        discardHeartbeat(session.getSessionId());
+        return doPut(session);
+    }
+
+    /**
+     * If written through and the cache is {@link AsyncShellCache}, the
+     * touched is sent without waiting, since the activity is best effort the
+     * same as the write behind (and the later writes of the same connection
+     * are still in order).
+     */
+    @Override
+    public boolean touch(ShellSession session) {
+        if (nonNull(heartbeats)) {
+            heartbeats.record(session);
+            return true;
+        }
+        if (shellCache instanceof AsyncShellCache) {
+            doPutAsync(session).whenComplete((written, th) -> {
+                if (nonNull(th)) {
+                    log.warn("Failed to touch the session: {}. caused by: {}", session.getSessionId(), th.getMessage());
+                }
+            });
+            return true;
+        }
+        return put(session);
     }
 
     @Override
     public boolean remove(String sessionId) {
+        discardHeartbeat(sessionId);
+        return doRemove(sessionId);
+    }
+
+    @Override
+    public boolean replace(String oldSessionId, ShellSession session) {
+        discardHeartbeat(oldSessionId);
+        discardHeartbeat(session.getSessionId());
+        return doReplace(oldSessionId, session);
+    }
+
+    @Override
+    public void close() {
+        if (nonNull(heartbeats)) {
+            heartbeats.close();
+        }
+    }
+
+    protected ShellSession doGet(String sessionId) {
+        return shellCache.hget(sessionId, ShellSession.class);
+    }
+
+    protected List<ShellSession> doGetAll() {
+        return shellCache.hgetAll(ShellSession.class);
+    }
+
+    protected Iterator<ShellSession> doIterate(int pageSize) {
+        return shellCache.hscan(pageSize, ShellSession.class);
+    }
+
+    protected boolean doPut(ShellSession session) {
+        return shellCache.hset(session.getSessionId(), session);
+    }
+
+    /**
+     * Only called if the cache is {@link AsyncShellCache}.
+     */
+    protected CompletionStage<Boolean> doPutAsync(ShellSession session) {
+        return ((AsyncShellCache) shellCache).hsetAsync(session.getSessionId(), session);
+    }
+
+    protected boolean doPutAll(List<ShellSession> sessions) {
+        Map<String, ShellSession> values = new LinkedHashMap<>(sessions.size() * 2);
+        for (ShellSession session : sessions) {
+            values.put(session.getSessionId(), session);
+        }
+        return shellCache.hmset(values);
+    }
+
+    protected boolean doRemove(String sessionId) {
         return shellCache.hdel(sessionId);
     }
 
+    protected boolean doReplace(String oldSessionId, ShellSession session) {
+        List<Object> results = shellCache.pipeline().hdel(oldSessionId).hset(session.getSessionId(), session).sync();
+        return (Boolean) results.get(1);
+    }
+
+    private void discardHeartbeat(@Nullable String sessionId) {
+        if (nonNull(heartbeats)) {
+            heartbeats.discard(sessionId);
+        }
+    }
+
 }
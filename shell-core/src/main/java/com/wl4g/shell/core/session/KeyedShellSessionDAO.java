@@ -0,0 +1,230 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.core.session;
+
+import static com.wl4g.infra.common.lang.Assert2.isTrue;
+import static java.lang.System.currentTimeMillis;
+import static java.util.Collections.emptyIterator;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletionStage;
+
+import com.wl4g.shell.core.cache.AsyncShellCache;
+import com.wl4g.shell.core.cache.ShellCache;
+import com.wl4g.shell.core.cache.ShellCachePipeline;
+
+/**
+ * Key per session layout of the {@link ShellCache}, each session is stored in
+ * its own key with the native expiration (SET PX) of the idle timeout, which
+ * is reset on each write (e.g. the heartbeats flush), so that the dead
+ * sessions are evicted by the cache itself. The {@link #getAll()} iterates
+ * the keys by the SCAN cursor page by page instead of pulling one big hash.
+ *
+ * <p>
+ * The sessions of the legacy single hash layout (see
+ * {@link CachingShellSessionDAO}) can be migrated by
+ * {@link #migrateLegacySessions()} at startup, and on read miss if
+ * migrateLegacy is enabled (e.g. written by the nodes not upgraded yet).
+ * </p>
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+public class KeyedShellSessionDAO extends CachingShellSessionDAO {
+
+    /** Expiration of the session key, i.e. the idle timeout. */
+    private final long expireMs;
+
+    /** Hint of the number of keys per SCAN. */
+    private final int scanCount;
+
+    /** Whether to migrate the legacy hash session on read miss. */
+    private final boolean migrateLegacy;
+
+    /**
+     * @param shellCache
+     * @param heartbeatFlushIntervalMs
+     *            interval of writing the touched sessions in batch, if
+     *            &lt;=0 then the touched is written through.
+     * @param expireMs
+     *            expiration of the session key since the latest write.
+     * @param scanCount
+     *            hint of the number of keys per SCAN.
+     * @param migrateLegacy
+     *            whether to migrate the legacy hash session on read miss.
+     */
+    public KeyedShellSessionDAO(ShellCache shellCache, long heartbeatFlushIntervalMs, long expireMs, int scanCount,
+            boolean migrateLegacy) {
+        super(shellCache, heartbeatFlushIntervalMs);
+        isTrue(expireMs > 0, "expireMs must greater than 0");
+        isTrue(scanCount > 0, "scanCount must greater than 0");
+        this.expireMs = expireMs;
+        this.scanCount = scanCount;
+        this.migrateLegacy = migrateLegacy;
+    }
+
+    /**
+     * Migrate all sessions of the legacy hash layout, the not expired are
+     * moved to the keys (unless the key already exists) with the remaining
+     * expiration, and the expired are dropped.
+     *
+     * @return number of the moved sessions.
+     */
+    public int migrateLegacySessions() {
+        int moved = 0;
+        for (ShellSession session : shellCache.hgetAll(ShellSession.class)) {
+            if (nonNull(session) && moveLegacy(session)) {
+                ++moved;
+            }
+        }
+        return moved;
+    }
+
+    @Override
+    protected ShellSession doGet(String sessionId) {
+        ShellSession session = shellCache.get(getSessionKey(sessionId), ShellSession.class);
+        if (isNull(session) && migrateLegacy) {
+            ShellSession legacy = shellCache.hget(sessionId, ShellSession.class);
+            if (nonNull(legacy)) {
+                // Moved, or the key is written concurrently, or expired.
+                session = moveLegacy(legacy) ? legacy : shellCache.get(getSessionKey(sessionId), ShellSession.class);
+            }
+        }
+        return session;
+    }
+
+    @Override
+    protected List<ShellSession> doGetAll() {
+        // The SCAN may return a key more than once.
+        Map<String, ShellSession> sessions = new LinkedHashMap<>();
+        for (Iterator<ShellSession> it = doIterate(scanCount); it.hasNext();) {
+            ShellSession session = it.next();
+            sessions.put(session.getSessionId(), session);
+        }
+        return new ArrayList<>(sessions.values());
+    }
+
+    /**
+     * Iterate the keys by SCAN, and batch get the sessions of each page. The
+     * sessions expired during the iteration are skipped.
+     */
+    @Override
+    protected Iterator<ShellSession> doIterate(int pageSize) {
+        Iterator<String> keys = shellCache.scan(SESSION_KEY_PREFIX.concat("*"), pageSize);
+        return new Iterator<ShellSession>() {
+            private Iterator<ShellSession> page = emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!page.hasNext() && keys.hasNext()) {
+                    List<String> pageKeys = new ArrayList<>(pageSize);
+                    while (pageKeys.size() < pageSize && keys.hasNext()) {
+                        pageKeys.add(keys.next());
+                    }
+                    List<ShellSession> sessions = shellCache.mget(pageKeys, ShellSession.class);
+                    sessions.removeIf(session -> isNull(session));
+                    page = sessions.iterator();
+                }
+                return page.hasNext();
+            }
+
+            @Override
+            public ShellSession next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.next();
+            }
+        };
+    }
+
+    @Override
+    protected boolean doPut(ShellSession session) {
+        return shellCache.set(getSessionKey(session.getSessionId()), session, expireMs);
+    }
+
+    @Override
+    protected CompletionStage<Boolean> doPutAsync(ShellSession session) {
+        return ((AsyncShellCache) shellCache).setAsync(getSessionKey(session.getSessionId()), session, expireMs);
+    }
+
+    @Override
+    protected boolean doPutAll(List<ShellSession> sessions) {
+        if (sessions.isEmpty()) {
+            return true;
+        }
+        ShellCachePipeline pipeline = shellCache.pipeline();
+        for (ShellSession session : sessions) {
+            pipeline.set(getSessionKey(session.getSessionId()), session, expireMs);
+        }
+        return !pipeline.sync().contains(false);
+    }
+
+    @Override
+    protected boolean doRemove(String sessionId) {
+        ShellCachePipeline pipeline = shellCache.pipeline().del(getSessionKey(sessionId));
+        if (migrateLegacy) {
+            pipeline.hdel(sessionId); // Not resurrected on read miss.
+        }
+        return (Boolean) pipeline.sync().get(0);
+    }
+
+    @Override
+    protected boolean doReplace(String oldSessionId, ShellSession session) {
+        ShellCachePipeline pipeline = shellCache.pipeline()
+                .set(getSessionKey(session.getSessionId()), session, expireMs)
+                .del(getSessionKey(oldSessionId));
+        if (migrateLegacy) {
+            pipeline.hdel(oldSessionId);
+        }
+        return (Boolean) pipeline.sync().get(0);
+    }
+
+    /**
+     * Move the legacy hash session to the key if not expired.
+     *
+     * @param legacy
+     * @return whether the key is set.
+     */
+    private boolean moveLegacy(ShellSession legacy) {
+        long remainingMs = expireMs - Math.abs(currentTimeMillis() - legacy.getLatestTimestamp());
+        ShellCachePipeline pipeline = shellCache.pipeline();
+        if (remainingMs > 0) {
+            pipeline.setnx(getSessionKey(legacy.getSessionId()), legacy, remainingMs);
+        }
+        List<Object> results = pipeline.hdel(legacy.getSessionId()).sync();
+        return remainingMs > 0 && (Boolean) results.get(0);
+    }
+
+    public static String getSessionKey(String sessionId) {
+        return SESSION_KEY_PREFIX.concat(sessionId);
+    }
+
+    /**
+     * The hash tag {shell} puts the sessions in the same slot, so that the
+     * SCAN and MGET are supported by the redis cluster.
+     */
+    public static final String SESSION_KEY_PREFIX = "shell:session:{shell}:";
+
+}
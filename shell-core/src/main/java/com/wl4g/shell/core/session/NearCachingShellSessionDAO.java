@@ -0,0 +1,133 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.core.session;
+
+import static com.wl4g.infra.common.lang.Assert2.isTrue;
+import static com.wl4g.infra.common.lang.Assert2.notNullOf;
+import static java.util.Objects.nonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.wl4g.shell.core.config.ServerShellProperties.SessionInfo;
+
+/**
+ * Per node near cache in front of the shared {@link ShellSessionDAO} (e.g.
+ * {@link CachingShellSessionDAO} of redis), the sessions are cached with
+ * bounded size and TTL, so that the signals of a channel no longer read the
+ * shared cache each time.
+ *
+ * <p>
+ * The writes are passed to the shared DAO, e.g. the
+ * {@link #touch(ShellSession)} may be written behind by the
+ * {@link SessionHeartbeatAggregator}. The {@link #remove(String)} invalidates
+ * the near cache.
+ * </p>
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+public class NearCachingShellSessionDAO implements ShellSessionDAO, Closeable {
+
+    private final ShellSessionDAO delegate;
+    private final Cache<String, ShellSession> nearCache;
+
+    public NearCachingShellSessionDAO(ShellSessionDAO delegate, SessionInfo config) {
+        this.delegate = notNullOf(delegate, "delegate");
+        notNullOf(config, "config");
+        isTrue(config.getNearCacheMaxSize() > 0, "nearCacheMaxSize must greater than 0");
+        isTrue(config.getNearCacheTtlMs() > 0, "nearCacheTtlMs must greater than 0");
+        this.nearCache = CacheBuilder.newBuilder()
+                .maximumSize(config.getNearCacheMaxSize())
+                .expireAfterWrite(config.getNearCacheTtlMs(), MILLISECONDS)
+                .build();
+    }
+
+    @Override
+    public ShellSession get(String sessionId) {
+        ShellSession session = nearCache.getIfPresent(sessionId);
+        if (nonNull(session)) {
+            return session;
+        }
+        session = delegate.get(sessionId);
+        if (nonNull(session)) {
+            nearCache.put(sessionId, session);
+        }
+        return session;
+    }
+
+    @Override
+    public List<ShellSession> getAll() {
+        return delegate.getAll();
+    }
+
+    /**
+     * The iterated are not near cached, e.g. listing all sessions.
+     */
+    @Override
+    public Iterator<ShellSession> iterate(int pageSize) {
+        return delegate.iterate(pageSize);
+    }
+
+    @Override
+    public boolean put(ShellSession session) {
+        nearCache.put(session.getSessionId(), session);
+        return delegate.put(session);
+    }
+
+    @Override
+    public boolean putIfAbsent(ShellSession session) {
+        nearCache.put(session.getSessionId(), session);
+        return delegate.putIfAbsent(session);
+    }
+
+    /**
+     * The touched is the near cached instance mostly, and does not extend the
+     * TTL, so that the changes of other nodes are seen within TTL.
+     */
+    @Override
+    public boolean touch(ShellSession session) {
+        return delegate.touch(session);
+    }
+
+    @Override
+    public boolean remove(String sessionId) {
+        nearCache.invalidate(sessionId);
+        return delegate.remove(sessionId);
+    }
+
+    @Override
+    public boolean replace(String oldSessionId, ShellSession session) {
+        nearCache.invalidate(oldSessionId);
+        nearCache.put(session.getSessionId(), session);
+        return delegate.replace(oldSessionId, session);
+    }
+
+    @Override
+    public void close() throws IOException {
+        nearCache.invalidateAll();
+        if (delegate instanceof Closeable) {
+            ((Closeable) delegate).close();
+        }
+    }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.core.session;
+
+import static com.wl4g.infra.common.lang.Assert2.isTrue;
+import static com.wl4g.infra.common.lang.Assert2.notNullOf;
+import static com.wl4g.infra.common.log.SmartLoggerFactory.getLogger;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.function.Consumer;
+
+import com.wl4g.infra.common.log.SmartLogger;
+
+/**
+ * Aggregator of the sessions activity (latest access timestamp), the activity
+ * is recorded in a lock-free map, and only the changed sessions since the last
+ * flush are written per interval in one batch. So the timestamp of the shared
+ * session lags at most one flush interval, i.e. the idle timeout is still
+ * correct within one flush interval.
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+public class SessionHeartbeatAggregator implements Closeable {
+    protected final SmartLogger log = getLogger(getClass());
+
+    /** Writer of the changed sessions batch. */
+    private final Consumer<List<ShellSession>> batchWriter;
+
+    /** Changed sessions since the last flush. */
+    private final Map<String, ShellSession> changed = new ConcurrentHashMap<>(16);
+
+    private final ScheduledThreadPoolExecutor flushTimer;
+
+    public SessionHeartbeatAggregator(Consumer<List<ShellSession>> batchWriter, long flushIntervalMs) {
+        this.batchWriter = notNullOf(batchWriter, "batchWriter");
+        isTrue(flushIntervalMs > 0, "flushIntervalMs must greater than 0");
+        this.flushTimer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, getClass().getSimpleName() + "-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+        this.flushTimer.scheduleWithFixedDelay(() -> flushQuietly(), flushIntervalMs, flushIntervalMs, MILLISECONDS);
+    }
+
+    /**
+     * Record activity of the session, the later recorded of the same session
+     * replaces the earlier.
+     *
+     * @param session
+     */
+    public void record(ShellSession session) {
+        changed.put(session.getSessionId(), session);
+    }
+
+    /**
+     * Gets the recorded session that not flushed yet.
+     *
+     * @param sessionId
+     * @return recorded session, or null if none.
+     */
+    public ShellSession getRecorded(String sessionId) {
+        return changed.get(sessionId);
+    }
+
+    /**
+     * Discard the recorded activity of session, e.g. the session is rewritten
+     * or removed.
+     *
+     * @param sessionId
+     */
+    public void discard(String sessionId) {
+        changed.remove(sessionId);
+    }
+
+    /**
+     * Flush the changed sessions in one batch, if the writing failed then the
+     * batch is recorded again for the next time (unless recorded again
+     * concurrently, i.e. the later wins).
+     */
+    public void flush() {
+        if (changed.isEmpty()) {
+            return;
+        }
+        List<ShellSession> batch = new ArrayList<>(changed.size());
+        for (Entry<String, ShellSession> ent : changed.entrySet()) {
+            // Skip if discarded or recorded again concurrently(next time).
+            if (changed.remove(ent.getKey(), ent.getValue())) {
+                batch.add(ent.getValue());
+            }
+        }
+        if (!batch.isEmpty()) {
+            try {
+                batchWriter.accept(batch);
+            } catch (RuntimeException e) {
+                batch.forEach(s -> changed.putIfAbsent(s.getSessionId(), s));
+                throw e;
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Throwable e) {
+            log.warn("Failed to flush the sessions heartbeats. caused by: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        flushTimer.shutdownNow();
+        flushQuietly();
+    }
+
+}
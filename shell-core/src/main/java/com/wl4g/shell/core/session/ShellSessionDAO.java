@@ -15,6 +15,10 @@
  */
 package com.wl4g.shell.core.session;
 
+import static java.util.Collections.emptyIterator;
+import static java.util.Objects.isNull;
+
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -34,16 +38,70 @@ public interface ShellSessionDAO {
         return null;
     }
 
+    /**
+     * Iterate the sessions page by page (e.g. the cursor of redis) instead of
+     * loading all at once, e.g. listing the online sessions of a large fleet.
+     * The iteration is weakly consistent, the sessions changed during the
+     * iteration may or may not be returned, and a session may be returned more
+     * than once.
+     * 
+     * @param pageSize
+     *            hint of the number of sessions fetched per page.
+     * @return
+     */
+    default Iterator<ShellSession> iterate(int pageSize) {
+        List<ShellSession> sessions = getAll();
+        return isNull(sessions) ? emptyIterator() : sessions.iterator();
+    }
+
     default boolean put(ShellSession session) {
         return false;
     }
 
+    /**
+     * Batch put the sessions.
+     * 
+     * @param sessions
+     * @return
+     */
+    default boolean putAll(List<ShellSession> sessions) {
+        boolean result = true;
+        for (ShellSession session : sessions) {
+            result &= put(session);
+        }
+        return result;
+    }
+
     default boolean putIfAbsent(ShellSession session) {
         return false;
     }
 
+    /**
+     * Update the session of only the latest access timestamp changed, which
+     * may be written behind.
+     * 
+     * @param session
+     * @return
+     */
+    default boolean touch(ShellSession session) {
+        return put(session);
+    }
+
     default boolean remove(String sessionId) {
         return false;
     }
 
+    /**
+     * Remove the old session and put the new session, e.g. the old is
+     * expired.
+     * 
+     * @param oldSessionId
+     * @param session
+     * @return
+     */
+    default boolean replace(String oldSessionId, ShellSession session) {
+        remove(oldSessionId);
+        return put(session);
+    }
+
 }
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.core.cache;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import com.wl4g.shell.core.config.ServerShellProperties;
+
+/**
+ * {@link JedisRedisTemplateShellCacheTests}
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+public class JedisRedisTemplateShellCacheTests extends ShellCacheContractTests {
+
+    private static RedisStandIn redis;
+    private static JedisConnectionFactory connectionFactory;
+
+    @BeforeClass
+    public static void startRedis() throws Exception {
+        redis = new RedisStandIn();
+        connectionFactory = new JedisConnectionFactory(new RedisStandaloneConfiguration("127.0.0.1", redis.getPort()));
+        connectionFactory.afterPropertiesSet();
+    }
+
+    @AfterClass
+    public static void stopRedis() throws Exception {
+        connectionFactory.destroy();
+        redis.close();
+    }
+
+    @Override
+    protected ShellCache newCache(ServerShellProperties config) {
+        redis.flushAll();
+        return ShellCache.Factory.build(config, new StringRedisTemplate(connectionFactory));
+    }
+
+    @Test
+    public void testBuildByFactory() {
+        assertTrue(cache instanceof RedisTemplateShellCache);
+    }
+
+}
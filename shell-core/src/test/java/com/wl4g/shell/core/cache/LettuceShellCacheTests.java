@@ -0,0 +1,148 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.core.cache;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.wl4g.shell.core.config.ServerShellProperties;
+import com.wl4g.shell.core.locks.FencedLock;
+import com.wl4g.shell.core.locks.ShellLockManager;
+import com.wl4g.shell.core.session.CachingShellSessionDAO;
+import com.wl4g.shell.core.session.ShellSession;
+
+import io.lettuce.core.RedisClient;
+
+/**
+ * {@link LettuceShellCacheTests}
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+public class LettuceShellCacheTests extends ShellCacheContractTests {
+
+    private static RedisStandIn redis;
+    private static RedisClient client;
+
+    @BeforeClass
+    public static void startRedis() throws Exception {
+        redis = new RedisStandIn();
+        client = RedisClient.create(redis.getUri());
+    }
+
+    @AfterClass
+    public static void stopRedis() throws Exception {
+        client.shutdown();
+        redis.close();
+    }
+
+    @Override
+    protected ShellCache newCache(ServerShellProperties config) {
+        redis.flushAll();
+        return ShellCache.Factory.build(config, client);
+    }
+
+    @Test
+    public void testBuildByFactory() {
+        assertTrue(cache instanceof LettuceShellCache);
+    }
+
+    @Test
+    public void testOverlappedAsync() throws Exception {
+        AsyncShellCache async = (AsyncShellCache) cache;
+        async.setAsync("k1", "v1", 10_000L).toCompletableFuture().get(5, SECONDS);
+
+        // Sent without waiting for the replies of each other.
+        CompletableFuture<String> get = async.getAsync("k1", String.class).toCompletableFuture();
+        CompletableFuture<Boolean> setnx = async.setnxAsync("lock1", "r1", 10_000L).toCompletableFuture();
+        CompletableFuture<Boolean> hset = async.hsetAsync("s1", newSession("s1", 1L)).toCompletableFuture();
+        CompletableFuture<Long> incr = async.incrAsync("counter1").toCompletableFuture();
+
+        assertEquals("v1", get.get(5, SECONDS));
+        assertTrue(setnx.get(5, SECONDS));
+        assertTrue(hset.get(5, SECONDS));
+        assertEquals(1L, (long) incr.get(5, SECONDS));
+        assertTrue(async.expireeqAsync("lock1", "r1", 10_000L).toCompletableFuture().get(5, SECONDS));
+        assertTrue(AbstractRedisShellCache.isSuccessReply(async.deleqAsync("lock1", "r1").toCompletableFuture().get(5, SECONDS)));
+    }
+
+    @Test
+    public void testPipelineAsync() throws Exception {
+        List<Object> results = cache.pipeline()
+                .setnx("lock1", "r1", 10_000L)
+                .get("lock1", String.class)
+                .incr("counter1")
+                .async()
+                .toCompletableFuture()
+                .get(5, SECONDS);
+        assertEquals(asList(true, "r1", 1L), results);
+    }
+
+    @Test
+    public void testSessionTouchWithoutWaiting() throws Exception {
+        CachingShellSessionDAO sessionDAO = new CachingShellSessionDAO(cache);
+        assertTrue(sessionDAO.touch(newSession("s1", 1L)));
+        // Ordered by the connection, so it's visible to the later reads.
+        assertEquals(1L, sessionDAO.get("s1").getLatestTimestamp());
+        sessionDAO.close();
+    }
+
+    @Test
+    public void testLockAcquireAndRenew() throws Exception {
+        ShellLockManager lockManager = new ShellLockManager(cache);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            FencedLock lock = lockManager.getLock("lettuce-lock", 600L, MILLISECONDS);
+            assertTrue(lock.tryLock());
+            long token = lock.getFencingToken();
+            assertTrue(token > 0);
+            assertTrue(lock.tryLock()); // Reentrant
+            assertEquals(token, lock.getFencingToken());
+
+            // Held longer than the expiration, i.e. renewed by the renewer.
+            Thread.sleep(1500L);
+            assertFalse(executor.submit(() -> lock.tryLock()).get(5, SECONDS));
+
+            lock.unlock();
+            lock.unlock();
+            assertTrue(executor.submit(() -> {
+                boolean locked = lock.tryLock();
+                if (locked) {
+                    lock.unlock();
+                }
+                return locked;
+            }).get(5, SECONDS));
+        } finally {
+            executor.shutdown();
+            lockManager.close();
+        }
+    }
+
+}
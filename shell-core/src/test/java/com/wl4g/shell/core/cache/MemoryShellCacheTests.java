@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.core.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.wl4g.shell.core.config.ServerShellProperties;
+import com.wl4g.shell.core.session.ShellSession;
+
+/**
+ * {@link MemoryShellCacheTests}
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+public class MemoryShellCacheTests extends ShellCacheContractTests {
+
+    @Override
+    protected ShellCache newCache(ServerShellProperties config) {
+        return new MemoryShellCache(config);
+    }
+
+    @Test
+    public void testLocksNotEvictedWhenFull() throws Exception {
+        ServerShellProperties config = new ServerShellProperties();
+        config.getMemoryCache().setMaxKeys(2);
+        MemoryShellCache cache = new MemoryShellCache(config);
+
+        assertTrue(cache.setnx("lock1", "r1", 10_000L));
+        assertTrue(cache.setnx("lock2", "r2", 100L));
+        assertFalse(cache.setnx("lock3", "r3", 10_000L)); // Rejected
+        assertFalse(cache.set("key3", "v3", 10_000L));
+        assertEquals("r1", cache.get("lock1", String.class));
+        assertTrue(cache.expireeq("lock1", "r1", 10_000L)); // Existing
+
+        Thread.sleep(200L); // lock2 expired
+        assertTrue(cache.setnx("lock3", "r3", 10_000L));
+        assertEquals("r1", cache.get("lock1", String.class));
+        assertTrue(cache.del("lock1"));
+        assertTrue(cache.setnx("lock4", "r4", 10_000L));
+    }
+
+    @Test
+    public void testHashSessionsEvictedLeastRecentlyWritten() {
+        ServerShellProperties config = new ServerShellProperties();
+        config.getMemoryCache().setMaxSessions(2);
+        MemoryShellCache cache = new MemoryShellCache(config);
+
+        cache.hset("s1", newSession("s1", 1L));
+        cache.hset("s2", newSession("s2", 2L));
+        cache.hset("s1", newSession("s1", 3L)); // Touched
+        cache.hset("s3", newSession("s3", 4L));
+        assertNull(cache.hget("s2", ShellSession.class));
+        assertEquals(3L, cache.hget("s1", ShellSession.class).getLatestTimestamp());
+        assertEquals(4L, cache.hget("s3", ShellSession.class).getLatestTimestamp());
+    }
+
+}
@@ -0,0 +1,441 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.core.cache;
+
+import static java.lang.System.currentTimeMillis;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+/**
+ * Minimal in-process stand-in of redis server (RESP2) for the tests, only the
+ * commands used by the redis based {@link ShellCache} are supported, and the
+ * lua scripts are recognized by the script body, i.e. the deleq and expireeq
+ * of {@link AbstractRedisShellCache}.
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+public class RedisStandIn implements Closeable {
+
+    private final ServerSocket server;
+    private final Map<String, byte[]> values = new HashMap<>();
+    private final Map<String, Long> expireAts = new HashMap<>();
+    private final Map<String, Map<String, byte[]>> hashes = new HashMap<>();
+    private final Map<String, List<OutputStream>> subscribers = new ConcurrentHashMap<>();
+    private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+    private final List<String> commands = new CopyOnWriteArrayList<>();
+
+    public RedisStandIn() throws IOException {
+        this.server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(() -> accept(), "redis-standin-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    public String getUri() {
+        return "redis://127.0.0.1:" + getPort();
+    }
+
+    /**
+     * The names of received commands, e.g. to check the round trips.
+     */
+    public List<String> getCommands() {
+        return commands;
+    }
+
+    public synchronized void flushAll() {
+        values.clear();
+        expireAts.clear();
+        hashes.clear();
+        commands.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+        for (Socket client : clients) {
+            client.close();
+        }
+    }
+
+    private void accept() {
+        while (!server.isClosed()) {
+            try {
+                Socket client = server.accept();
+                clients.add(client);
+                Thread t = new Thread(() -> serve(client), "redis-standin-" + client.getPort());
+                t.setDaemon(true);
+                t.start();
+            } catch (IOException e) {
+                // Closed
+            }
+        }
+    }
+
+    private void serve(Socket client) {
+        OutputStream out = null;
+        try (Socket s = client) {
+            InputStream in = new BufferedInputStream(s.getInputStream());
+            out = s.getOutputStream();
+            List<byte[]> args;
+            while (nonNull(args = readCommand(in))) {
+                ByteArrayOutputStream reply = new ByteArrayOutputStream(64);
+                String name = str(args.get(0)).toUpperCase();
+                commands.add(name);
+                if ("SUBSCRIBE".equals(name)) {
+                    for (int i = 1; i < args.size(); i++) {
+                        subscribers.computeIfAbsent(str(args.get(i)), c -> new CopyOnWriteArrayList<>()).add(out);
+                        writeArray(reply, Arrays.asList("subscribe".getBytes(UTF_8), args.get(i), 1L));
+                    }
+                } else if ("PUBLISH".equals(name)) {
+                    writeValue(reply, (long) publish(str(args.get(1)), args.get(2)));
+                } else {
+                    synchronized (this) {
+                        execute(name, args, reply);
+                    }
+                }
+                write(out, reply);
+            }
+        } catch (IOException e) {
+            // Disconnected
+        } finally {
+            clients.remove(client);
+            for (List<OutputStream> outs : subscribers.values()) {
+                outs.remove(out);
+            }
+        }
+    }
+
+    private void execute(String name, List<byte[]> args, ByteArrayOutputStream reply) throws IOException {
+        switch (name) {
+        case "PING":
+            writeStatus(reply, "PONG");
+            break;
+        case "SELECT":
+        case "CLIENT":
+            writeStatus(reply, "OK");
+            break;
+        case "SET": {
+            String key = str(args.get(1));
+            boolean nx = false;
+            long px = 0;
+            for (int i = 3; i < args.size(); i++) {
+                String opt = str(args.get(i)).toUpperCase();
+                if ("NX".equals(opt)) {
+                    nx = true;
+                } else if ("PX".equals(opt)) {
+                    px = Long.parseLong(str(args.get(++i)));
+                }
+            }
+            if (nx && nonNull(live(key))) {
+                writeValue(reply, null);
+            } else {
+                put(key, args.get(2), px);
+                writeStatus(reply, "OK");
+            }
+            break;
+        }
+        case "GET":
+            writeValue(reply, live(str(args.get(1))));
+            break;
+        case "MGET": {
+            List<Object> results = new ArrayList<>();
+            for (int i = 1; i < args.size(); i++) {
+                results.add(live(str(args.get(i))));
+            }
+            writeArray(reply, results);
+            break;
+        }
+        case "DEL": {
+            long n = 0;
+            for (int i = 1; i < args.size(); i++) {
+                n += remove(str(args.get(i))) ? 1 : 0;
+            }
+            writeValue(reply, n);
+            break;
+        }
+        case "INCR": {
+            String key = str(args.get(1));
+            byte[] value = live(key);
+            long n = isNull(value) ? 1 : Long.parseLong(str(value)) + 1;
+            values.put(key, String.valueOf(n).getBytes(UTF_8));
+            writeValue(reply, n);
+            break;
+        }
+        case "HSET":
+        case "HMSET": {
+            Map<String, byte[]> hash = hashes.computeIfAbsent(str(args.get(1)), k -> new LinkedHashMap<>());
+            long created = 0;
+            for (int i = 2; i + 1 < args.size(); i += 2) {
+                created += isNull(hash.put(str(args.get(i)), args.get(i + 1))) ? 1 : 0;
+            }
+            if ("HSET".equals(name)) {
+                writeValue(reply, created);
+            } else {
+                writeStatus(reply, "OK");
+            }
+            break;
+        }
+        case "HSETNX": {
+            Map<String, byte[]> hash = hashes.computeIfAbsent(str(args.get(1)), k -> new LinkedHashMap<>());
+            writeValue(reply, isNull(hash.putIfAbsent(str(args.get(2)), args.get(3))) ? 1L : 0L);
+            break;
+        }
+        case "HGET":
+            writeValue(reply, hash(args.get(1)).get(str(args.get(2))));
+            break;
+        case "HMGET": {
+            List<Object> results = new ArrayList<>();
+            for (int i = 2; i < args.size(); i++) {
+                results.add(hash(args.get(1)).get(str(args.get(i))));
+            }
+            writeArray(reply, results);
+            break;
+        }
+        case "HDEL": {
+            long n = 0;
+            for (int i = 2; i < args.size(); i++) {
+                n += nonNull(hash(args.get(1)).remove(str(args.get(i)))) ? 1 : 0;
+            }
+            writeValue(reply, n);
+            break;
+        }
+        case "HGETALL":
+            writeArray(reply, flatten(hash(args.get(1))));
+            break;
+        case "HSCAN":
+            // Always the whole hash in one page.
+            writeArray(reply, Arrays.asList("0".getBytes(UTF_8), flatten(hash(args.get(1)))));
+            break;
+        case "SCAN": {
+            Pattern pattern = Pattern.compile(".*");
+            for (int i = 2; i < args.size(); i++) {
+                if ("MATCH".equalsIgnoreCase(str(args.get(i)))) {
+                    pattern = globToRegex(str(args.get(++i)));
+                }
+            }
+            List<Object> keys = new ArrayList<>();
+            for (String key : new ArrayList<>(values.keySet())) {
+                if (nonNull(live(key)) && pattern.matcher(key).matches()) {
+                    keys.add(key.getBytes(UTF_8));
+                }
+            }
+            writeArray(reply, Arrays.asList("0".getBytes(UTF_8), keys));
+            break;
+        }
+        case "EVAL":
+        case "EVALSHA":
+            writeValue(reply, eval(str(args.get(1)), args));
+            break;
+        default:
+            writeError(reply, "ERR unknown command '" + name + "'");
+        }
+    }
+
+    /**
+     * Only the compare-and-delete and compare-and-pexpire scripts.
+     */
+    private long eval(String script, List<byte[]> args) {
+        String key = str(args.get(3));
+        byte[] value = live(key);
+        if (isNull(value) || !Arrays.equals(value, args.get(4))) {
+            return 0L;
+        }
+        if (script.contains("pexpire")) {
+            expireAts.put(key, currentTimeMillis() + Long.parseLong(str(args.get(5))));
+        } else {
+            remove(key);
+        }
+        return 1L;
+    }
+
+    private int publish(String channel, byte[] message) throws IOException {
+        List<OutputStream> outs = subscribers.getOrDefault(channel, new ArrayList<>());
+        for (OutputStream out : outs) {
+            ByteArrayOutputStream push = new ByteArrayOutputStream(64);
+            writeArray(push, Arrays.asList("message".getBytes(UTF_8), channel.getBytes(UTF_8), message));
+            write(out, push);
+        }
+        return outs.size();
+    }
+
+    private void put(String key, byte[] value, long px) {
+        values.put(key, value);
+        if (px > 0) {
+            expireAts.put(key, currentTimeMillis() + px);
+        } else {
+            expireAts.remove(key);
+        }
+    }
+
+    private boolean remove(String key) {
+        boolean existed = nonNull(live(key));
+        values.remove(key);
+        expireAts.remove(key);
+        return existed;
+    }
+
+    private byte[] live(String key) {
+        Long expireAt = expireAts.get(key);
+        if (nonNull(expireAt) && expireAt <= currentTimeMillis()) {
+            values.remove(key);
+            expireAts.remove(key);
+        }
+        return values.get(key);
+    }
+
+    private Map<String, byte[]> hash(byte[] key) {
+        return hashes.getOrDefault(str(key), new HashMap<>());
+    }
+
+    private static List<Object> flatten(Map<String, byte[]> hash) {
+        List<Object> fields = new ArrayList<>(hash.size() * 2);
+        for (Entry<String, byte[]> ent : hash.entrySet()) {
+            fields.add(ent.getKey().getBytes(UTF_8));
+            fields.add(ent.getValue());
+        }
+        return fields;
+    }
+
+    /**
+     * The replies and the pushed messages of subscription may be written
+     * concurrently.
+     */
+    private static void write(OutputStream out, ByteArrayOutputStream data) throws IOException {
+        synchronized (out) {
+            out.write(data.toByteArray());
+            out.flush();
+        }
+    }
+
+    private static List<byte[]> readCommand(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            return null;
+        }
+        if (b != '*') {
+            throw new IOException("Unsupported inline command");
+        }
+        int n = Integer.parseInt(readLine(in));
+        List<byte[]> args = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            if (in.read() != '$') {
+                throw new IOException("Expected bulk string");
+            }
+            byte[] arg = new byte[Integer.parseInt(readLine(in))];
+            for (int off = 0; off < arg.length;) {
+                int r = in.read(arg, off, arg.length - off);
+                if (r < 0) {
+                    throw new EOFException();
+                }
+                off += r;
+            }
+            readLine(in); // CRLF
+            args.add(arg);
+        }
+        return args;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != '\r') {
+            if (b < 0) {
+                throw new EOFException();
+            }
+            line.append((char) b);
+        }
+        in.read(); // LF
+        return line.toString();
+    }
+
+    private static void writeStatus(OutputStream out, String status) throws IOException {
+        out.write(("+" + status + "\r\n").getBytes(UTF_8));
+    }
+
+    private static void writeError(OutputStream out, String error) throws IOException {
+        out.write(("-" + error + "\r\n").getBytes(UTF_8));
+    }
+
+    private static void writeValue(OutputStream out, Object value) throws IOException {
+        if (isNull(value)) {
+            out.write("$-1\r\n".getBytes(UTF_8));
+        } else if (value instanceof Long) {
+            out.write((":" + value + "\r\n").getBytes(UTF_8));
+        } else if (value instanceof List) {
+            writeArray(out, (List<?>) value);
+        } else {
+            byte[] bytes = (byte[]) value;
+            out.write(("$" + bytes.length + "\r\n").getBytes(UTF_8));
+            out.write(bytes);
+            out.write("\r\n".getBytes(UTF_8));
+        }
+    }
+
+    private static void writeArray(OutputStream out, List<?> elements) throws IOException {
+        out.write(("*" + elements.size() + "\r\n").getBytes(UTF_8));
+        for (Object element : elements) {
+            writeValue(out, element);
+        }
+    }
+
+    private static Pattern globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (char c : glob.toCharArray()) {
+            if (c == '*') {
+                regex.append(".*");
+            } else if (c == '?') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    private static String str(byte[] bytes) {
+        return new String(bytes, UTF_8);
+    }
+
+}
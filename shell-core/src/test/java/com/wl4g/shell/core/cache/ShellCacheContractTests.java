@@ -0,0 +1,282 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.core.cache;
+
+import static java.lang.System.currentTimeMillis;
+import static java.util.Arrays.asList;
+import static java.util.Collections.sort;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.wl4g.shell.core.config.ServerShellProperties;
+import com.wl4g.shell.core.session.ShellSession;
+
+/**
+ * The contract of {@link ShellCache} that all implementations must agree on,
+ * i.e. the local {@link MemoryShellCache} must behave the same as the redis
+ * based caches, so that switching the cache never changes the behavior of the
+ * sessions and the locks.
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+public abstract class ShellCacheContractTests {
+
+    protected ShellCache cache;
+
+    /**
+     * New cache instance of the empty store.
+     */
+    protected abstract ShellCache newCache(ServerShellProperties config) throws Exception;
+
+    @Before
+    public void setUp() throws Exception {
+        this.cache = newCache(new ServerShellProperties());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (cache instanceof Closeable) {
+            ((Closeable) cache).close();
+        }
+    }
+
+    @Test
+    public void testSetAndGet() {
+        assertNull(cache.get("k1", String.class));
+        assertTrue(cache.set("k1", "v1", 10_000L));
+        assertEquals("v1", cache.get("k1", String.class));
+        assertTrue(cache.set("k1", "v2", 10_000L));
+        assertEquals("v2", cache.get("k1", String.class));
+    }
+
+    @Test
+    public void testSetExpired() throws Exception {
+        assertTrue(cache.set("k1", "v1", 100L));
+        Thread.sleep(200L);
+        assertNull(cache.get("k1", String.class));
+    }
+
+    @Test
+    public void testMget() {
+        cache.set("k1", "v1", 10_000L);
+        cache.set("k3", "v3", 10_000L);
+        assertEquals(asList("v1", null, "v3"), cache.mget(asList("k1", "k2", "k3"), String.class));
+    }
+
+    @Test
+    public void testSetnx() {
+        assertTrue(cache.setnx("lock1", "r1", 10_000L));
+        assertFalse(cache.setnx("lock1", "r2", 10_000L));
+        assertEquals("r1", cache.get("lock1", String.class));
+    }
+
+    @Test
+    public void testSetnxAfterExpired() throws Exception {
+        assertTrue(cache.setnx("lock1", "r1", 100L));
+        Thread.sleep(200L);
+        assertTrue(cache.setnx("lock1", "r2", 10_000L));
+        assertEquals("r2", cache.get("lock1", String.class));
+    }
+
+    @Test
+    public void testDel() {
+        cache.set("k1", "v1", 10_000L);
+        assertTrue(cache.del("k1"));
+        assertNull(cache.get("k1", String.class));
+        assertFalse(cache.del("k1"));
+    }
+
+    @Test
+    public void testDeleq() {
+        cache.setnx("lock1", "r1", 10_000L);
+        assertFalse(AbstractRedisShellCache.isSuccessReply(cache.deleq("lock1", "r2")));
+        assertEquals("r1", cache.get("lock1", String.class));
+        assertTrue(AbstractRedisShellCache.isSuccessReply(cache.deleq("lock1", "r1")));
+        assertNull(cache.get("lock1", String.class));
+        assertFalse(AbstractRedisShellCache.isSuccessReply(cache.deleq("lock1", "r1")));
+    }
+
+    @Test
+    public void testExpireeq() throws Exception {
+        cache.setnx("lock1", "r1", 300L);
+        assertFalse(cache.expireeq("lock1", "r2", 10_000L));
+        assertTrue(cache.expireeq("lock1", "r1", 10_000L));
+        Thread.sleep(400L);
+        assertEquals("r1", cache.get("lock1", String.class));
+        assertFalse(cache.expireeq("absent", "r1", 10_000L));
+    }
+
+    @Test
+    public void testIncr() {
+        assertEquals(1L, cache.incr("counter1"));
+        assertEquals(2L, cache.incr("counter1"));
+        assertEquals(1L, cache.incr("counter2"));
+    }
+
+    @Test
+    public void testHsetReturnsTrueOnOverwrite() {
+        assertTrue(cache.hset("s1", newSession("s1", 1L)));
+        assertTrue(cache.hset("s1", newSession("s1", 2L)));
+        assertEquals(2L, cache.hget("s1", ShellSession.class).getLatestTimestamp());
+    }
+
+    @Test
+    public void testHsetnx() {
+        assertTrue(cache.hsetnx("s1", newSession("s1", 1L)));
+        assertFalse(cache.hsetnx("s1", newSession("s1", 2L)));
+        assertEquals(1L, cache.hget("s1", ShellSession.class).getLatestTimestamp());
+    }
+
+    @Test
+    public void testHdel() {
+        cache.hset("s1", newSession("s1", 1L));
+        assertTrue(cache.hdel("s1"));
+        assertNull(cache.hget("s1", ShellSession.class));
+        assertFalse(cache.hdel("s1"));
+    }
+
+    @Test
+    public void testHmsetAndHmget() {
+        Map<String, ShellSession> values = new LinkedHashMap<>();
+        values.put("s1", newSession("s1", 1L));
+        values.put("s2", newSession("s2", 2L));
+        assertTrue(cache.hmset(values));
+
+        List<ShellSession> sessions = cache.hmget(asList("s2", "s0", "s1"), ShellSession.class);
+        assertEquals("s2", sessions.get(0).getSessionId());
+        assertNull(sessions.get(1));
+        assertEquals("s1", sessions.get(2).getSessionId());
+    }
+
+    @Test
+    public void testHgetAllAndHscan() {
+        for (int i = 0; i < 5; i++) {
+            cache.hset("s" + i, newSession("s" + i, i));
+        }
+        List<String> all = new ArrayList<>();
+        cache.hgetAll(ShellSession.class).forEach(s -> all.add(s.getSessionId()));
+        sort(all);
+        assertEquals(asList("s0", "s1", "s2", "s3", "s4"), all);
+
+        List<String> scanned = new ArrayList<>();
+        Iterator<ShellSession> it = cache.hscan(2, ShellSession.class);
+        while (it.hasNext()) {
+            String sessionId = it.next().getSessionId();
+            if (!scanned.contains(sessionId)) { // Maybe returned more than once
+                scanned.add(sessionId);
+            }
+        }
+        sort(scanned);
+        assertEquals(all, scanned);
+    }
+
+    @Test
+    public void testHashIsSeparatedFromKeys() {
+        cache.hset("k1", newSession("s1", 1L));
+        assertNull(cache.get("k1", String.class));
+        cache.set("k2", "v2", 10_000L);
+        assertNull(cache.hget("k2", ShellSession.class));
+    }
+
+    @Test
+    public void testScan() {
+        cache.set("shell:test:a", "1", 10_000L);
+        cache.set("shell:test:b", "2", 10_000L);
+        cache.set("shell:other:c", "3", 10_000L);
+        List<String> keys = new ArrayList<>();
+        Iterator<String> it = cache.scan("shell:test:*", 10);
+        while (it.hasNext()) {
+            String key = it.next();
+            if (!keys.contains(key)) {
+                keys.add(key);
+            }
+        }
+        sort(keys);
+        assertEquals(asList("shell:test:a", "shell:test:b"), keys);
+    }
+
+    @Test
+    public void testPipeline() {
+        cache.hset("s1", newSession("s1", 1L));
+        List<Object> results = cache.pipeline()
+                .setnx("lock1", "r1", 10_000L)
+                .setnx("lock1", "r2", 10_000L)
+                .get("lock1", String.class)
+                .expireeq("lock1", "r1", 10_000L)
+                .incr("counter1")
+                .hset("s1", newSession("s1", 2L))
+                .hget("s1", ShellSession.class)
+                .hdel("s1")
+                .del("lock1")
+                .sync();
+
+        assertEquals(9, results.size());
+        assertEquals(true, results.get(0));
+        assertEquals(false, results.get(1));
+        assertEquals("r1", results.get(2));
+        assertEquals(true, results.get(3));
+        assertEquals(1L, ((Number) results.get(4)).longValue());
+        assertEquals(true, results.get(5)); // Overwritten is also written
+        assertEquals(2L, ((ShellSession) results.get(6)).getLatestTimestamp());
+        assertEquals(true, results.get(7));
+        assertEquals(true, results.get(8));
+    }
+
+    @Test
+    public void testPipelineSetWithExpiration() throws Exception {
+        cache.set("k2", "v0", 10_000L);
+        List<Object> results = cache.pipeline()
+                .set("k1", "v1", 10_000L)
+                .get("k1", String.class)
+                .set("k2", "v2", 100L)
+                .get("k2", String.class)
+                .setnx("k1", "v3", 10_000L)
+                .incr("counter1")
+                .set("k3", "v3", 10_000L)
+                .sync();
+
+        // The status replies of SET must keep the results aligned.
+        assertEquals(asList(true, "v1", true, "v2", false), results.subList(0, 5));
+        assertEquals(1L, ((Number) results.get(5)).longValue());
+        assertEquals(true, results.get(6));
+        assertEquals(7, results.size());
+
+        Thread.sleep(200L);
+        assertNull(cache.get("k2", String.class));
+        assertEquals("v1", cache.get("k1", String.class));
+        assertEquals("v3", cache.get("k3", String.class));
+    }
+
+    protected static ShellSession newSession(String sessionId, long latestTimestamp) {
+        return new ShellSession(sessionId, "user1", true, "localhost", currentTimeMillis(), latestTimestamp);
+    }
+
+}
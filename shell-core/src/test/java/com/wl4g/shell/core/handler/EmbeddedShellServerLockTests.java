@@ -0,0 +1,203 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.core.handler;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.wl4g.shell.common.annotation.ShellMethod;
+import com.wl4g.shell.common.annotation.ShellMethod.LockScope;
+import com.wl4g.shell.common.annotation.ShellOption;
+import com.wl4g.shell.common.exception.UnableObtainLockShellException;
+import com.wl4g.shell.common.registry.ShellHandlerRegistrar;
+import com.wl4g.shell.common.registry.TargetMethodWrapper;
+import com.wl4g.shell.core.cache.MemoryShellCache;
+import com.wl4g.shell.core.config.ServerShellProperties;
+
+/**
+ * The execution locks of {@link EmbeddedShellServer} by the lock scopes of
+ * {@link ShellMethod}.
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+public class EmbeddedShellServerLockTests {
+
+    private final LockedCommands commands = new LockedCommands();
+    private final List<Socket> sockets = new ArrayList<>();
+    private ShellHandlerRegistrar registrar;
+    private ServerSocket serverSocket;
+    private EmbeddedShellServer server;
+    private ExecutorService holder;
+
+    @Before
+    public void setUp() throws Exception {
+        ServerShellProperties config = new ServerShellProperties();
+        this.registrar = new ShellHandlerRegistrar();
+        this.server = new EmbeddedShellServer(config, "lock-tests", registrar, new MemoryShellCache(config));
+        this.serverSocket = new ServerSocket(0, 8, InetAddress.getLoopbackAddress());
+        this.holder = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        commands.released.countDown();
+        holder.shutdownNow();
+        server.outputLingerTimer.shutdownNow();
+        server.closeSessionDAO();
+        server.closeLockManager();
+        for (Socket s : sockets) {
+            s.close();
+        }
+        serverSocket.close();
+    }
+
+    @Test
+    public void testGroupsLockedInParallel() throws Exception {
+        Future<Object> held = hold("group1");
+        assertEquals("group2", invoke("group2"));
+        assertRejected("group1");
+        assertRejected("group1b"); // Same group
+
+        commands.released.countDown();
+        assertEquals("group1", held.get(5, SECONDS));
+        assertEquals("group1b", invoke("group1b"));
+    }
+
+    @Test
+    public void testArgumentsLockedInParallel() throws Exception {
+        Future<Object> held = hold("deploy", "-i", "node1");
+        assertEquals("node2", invoke("deploy", "--instance", "node2"));
+        assertRejected("deploy", "-i", "node1");
+        assertRejected("deploy", "--instance", "node1"); // Same by lopt
+
+        commands.released.countDown();
+        assertEquals("node1", held.get(5, SECONDS));
+        assertEquals("node1", invoke("deploy", "-i", "node1"));
+    }
+
+    @Test
+    public void testMissingArgumentRejected() throws Exception {
+        try {
+            invoke("deploy");
+            fail("Should be rejected of the missing lock argument");
+        } catch (IllegalArgumentException e) {
+            assertEquals("The lock argument: 'i' of command: 'deploy' is required.", e.getMessage());
+        }
+        assertEquals(0, commands.invoked);
+    }
+
+    /**
+     * Invoke the command by the holder thread, and wait until it's entered
+     * (i.e. the lock is held) and blocked until released.
+     */
+    private Future<Object> hold(String mainArg, String... args) throws Exception {
+        Future<Object> held = holder.submit(() -> {
+            commands.holder = Thread.currentThread();
+            return invoke(mainArg, args);
+        });
+        assertTrue(commands.entered.await(5, SECONDS));
+        return held;
+    }
+
+    private void assertRejected(String mainArg, String... args) throws Exception {
+        try {
+            invoke(mainArg, args);
+            fail("Should be rejected of the held lock, command: " + mainArg);
+        } catch (UnableObtainLockShellException e) {
+            // Expected
+        }
+    }
+
+    private Object invoke(String mainArg, String... args) throws Exception {
+        Socket client = new Socket(serverSocket.getInetAddress(), serverSocket.getLocalPort());
+        sockets.add(client);
+        sockets.add(serverSocket.accept());
+        server.bind(server.new ServerSignalHandler(registrar, client, line -> null, holder));
+
+        List<String> cmds = new ArrayList<>(asList(args));
+        TargetMethodWrapper tm = target(mainArg);
+        List<Object> params = tm.getBindingPlan().bind(cmds);
+        return server.doInvoke(mainArg, cmds, mainArg, tm, params);
+    }
+
+    private TargetMethodWrapper target(String mainArg) throws Exception {
+        for (Method m : LockedCommands.class.getMethods()) {
+            ShellMethod sm = m.getAnnotation(ShellMethod.class);
+            if (sm != null && sm.keys()[0].equals(mainArg)) {
+                return new TargetMethodWrapper(sm, m, commands);
+            }
+        }
+        throw new IllegalArgumentException(mainArg);
+    }
+
+    public static class LockedCommands {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch released = new CountDownLatch(1);
+        volatile Thread holder;
+        volatile int invoked;
+
+        @ShellMethod(keys = "group1", group = "g1", lockScope = LockScope.GROUP, help = "Locked by group g1")
+        public String group1() throws InterruptedException {
+            return hold("group1");
+        }
+
+        @ShellMethod(keys = "group1b", group = "g1", lockScope = LockScope.GROUP, help = "Locked by group g1")
+        public String group1b() throws InterruptedException {
+            return hold("group1b");
+        }
+
+        @ShellMethod(keys = "group2", group = "g2", lockScope = LockScope.GROUP, help = "Locked by group g2")
+        public String group2() throws InterruptedException {
+            return hold("group2");
+        }
+
+        @ShellMethod(keys = "deploy", group = "g1", lockScope = LockScope.ARGUMENT, lockArgument = "i", help = "Locked by instance")
+        public String deploy(@ShellOption(opt = "i", lopt = "instance", required = false, help = "Instance") String instance)
+                throws InterruptedException {
+            return hold(instance);
+        }
+
+        private String hold(String result) throws InterruptedException {
+            ++invoked;
+            if (Thread.currentThread() == holder) {
+                entered.countDown();
+                released.await(5, SECONDS);
+            }
+            return result;
+        }
+    }
+
+}
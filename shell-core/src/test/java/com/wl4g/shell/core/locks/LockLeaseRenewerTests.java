@@ -0,0 +1,107 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.core.locks;
+
+import static java.lang.System.currentTimeMillis;
+import static java.lang.Thread.currentThread;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.wl4g.shell.core.cache.MemoryShellCache;
+import com.wl4g.shell.core.config.ServerShellProperties;
+import com.wl4g.shell.core.locks.LockLeaseRenewer.Lease;
+
+/**
+ * {@link LockLeaseRenewerTests}
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+public class LockLeaseRenewerTests {
+
+    private static final long EXPIRED_MS = 300L;
+
+    private MemoryShellCache cache;
+    private CacheLockBackend backend;
+    private LockLeaseRenewer renewer;
+
+    @Before
+    public void setUp() {
+        this.cache = new MemoryShellCache(new ServerShellProperties());
+        this.backend = new CacheLockBackend(cache);
+        this.renewer = new LockLeaseRenewer(backend, 10L, 16);
+    }
+
+    @After
+    public void tearDown() {
+        renewer.close();
+    }
+
+    @Test
+    public void testHeldPastExpiration() throws Exception {
+        Lease lease = acquire("lock1", "r1");
+        renewer.schedule(lease);
+
+        Thread.sleep(EXPIRED_MS * 3);
+        assertEquals("r1", cache.get("lock1", String.class));
+        assertEquals(-1L, backend.tryAcquire("lock1", "r2", EXPIRED_MS));
+        assertTrue(lease.getDeadline() > currentTimeMillis());
+        assertTrue(lease.isActive());
+    }
+
+    @Test
+    public void testCancelledOnUnlock() throws Exception {
+        Lease lease = acquire("lock1", "r1");
+        renewer.schedule(lease);
+        Thread.sleep(EXPIRED_MS * 2);
+
+        // Same as the last unlock of ShellLockManager.
+        lease.cancel();
+        assertTrue(backend.release("lock1", "r1"));
+        assertNull(cache.get("lock1", String.class));
+        assertFalse(lease.isActive());
+
+        Thread.sleep(EXPIRED_MS);
+        assertNull(cache.get("lock1", String.class));
+        assertTrue(backend.tryAcquire("lock1", "r2", EXPIRED_MS) > 0);
+    }
+
+    @Test
+    public void testCancelledNoLongerRenewed() throws Exception {
+        Lease lease = acquire("lock1", "r1");
+        renewer.schedule(lease);
+        Thread.sleep(EXPIRED_MS * 2);
+
+        lease.cancel(); // e.g. the holder crashed before deleting
+        Thread.sleep(EXPIRED_MS * 2);
+        assertNull(cache.get("lock1", String.class));
+        assertTrue(backend.tryAcquire("lock1", "r2", EXPIRED_MS) > 0);
+    }
+
+    private Lease acquire(String name, String requestId) {
+        long fencingToken = backend.tryAcquire(name, requestId, EXPIRED_MS);
+        assertTrue(fencingToken > 0);
+        return new Lease(name, requestId, EXPIRED_MS, currentThread(), fencingToken, currentTimeMillis() + EXPIRED_MS);
+    }
+
+}
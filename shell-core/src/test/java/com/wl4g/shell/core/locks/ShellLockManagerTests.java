@@ -0,0 +1,143 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <wanglsir@gmail.com, 983708408@qq.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wl4g.shell.core.locks;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.wl4g.shell.core.cache.ShellCache;
+import com.wl4g.shell.core.config.ServerShellProperties;
+
+/**
+ * The reentrant and release behavior of {@link ShellLockManager} that must be
+ * the same on the local and the shared caches.
+ *
+ * @author Wangl.sir &lt;wanglsir@gmail.com, 983708408@qq.com&gt;
+ * @version 2021-07-12 v1.0.0
+ * @since v1.0
+ */
+public abstract class ShellLockManagerTests {
+
+    protected ShellCache cache;
+    protected ShellLockManager lockManager;
+    protected ExecutorService executor;
+
+    /**
+     * New cache instance of the empty store.
+     */
+    protected abstract ShellCache newCache(ServerShellProperties config) throws Exception;
+
+    @Before
+    public void setUp() throws Exception {
+        this.cache = newCache(new ServerShellProperties());
+        this.lockManager = new ShellLockManager(cache);
+        this.executor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        lockManager.close();
+    }
+
+    @Test
+    public void testReentrantHoldsReleasedByCount() throws Exception {
+        FencedLock lock = lockManager.getLock("reentrant1");
+        lock.lock();
+        long token = lock.getFencingToken();
+        assertTrue(token > 0);
+        lock.lock();
+        assertTrue(lock.tryLock());
+        assertEquals(token, lock.getFencingToken()); // Reentered, not acquired
+
+        lock.unlock();
+        lock.unlock();
+        assertFalse(tryLockByOthers("reentrant1"));
+        assertEquals(token, lock.getFencingToken());
+
+        lock.unlock();
+        assertEquals(-1L, lock.getFencingToken());
+        assertTrue(tryLockByOthers("reentrant1"));
+        lock.unlock(); // Not held, ignored
+        assertTrue(tryLockByOthers("reentrant1"));
+    }
+
+    @Test
+    public void testUnlockByOtherHandleAfterGc() throws Exception {
+        lockManager.getLock("handle1").lock();
+        System.gc(); // The handle is unreferenced
+        assertFalse(tryLockByOthers("handle1"));
+
+        lockManager.getLock("handle1").unlock();
+        assertTrue(tryLockByOthers("handle1"));
+    }
+
+    @Test
+    public void testTryLockFailedWhileHeldByOthers() throws Exception {
+        FencedLock lock = lockManager.getLock("contended1");
+        assertTrue(executor.submit(() -> lock.tryLock()).get(5, SECONDS));
+        assertFalse(lock.tryLock());
+        assertEquals(-1L, lock.getFencingToken());
+
+        executor.submit(() -> lock.unlock()).get(5, SECONDS);
+        assertTrue(lock.tryLock());
+        assertTrue(lock.getFencingToken() > 0);
+        lock.unlock();
+    }
+
+    @Test
+    public void testLockWaitsUntilReleased() throws Exception {
+        FencedLock lock = lockManager.getLock("waiting1");
+        lock.lock();
+        Future<Boolean> waiting = executor.submit(() -> {
+            boolean locked = lock.tryLock(5, SECONDS);
+            if (locked) {
+                lock.unlock();
+            }
+            return locked;
+        });
+        Thread.sleep(100L);
+        assertFalse(waiting.isDone());
+
+        lock.unlock();
+        assertTrue(waiting.get(5, SECONDS));
+    }
+
+    /**
+     * Try the lock of name by the other thread, and release if acquired.
+     */
+    protected boolean tryLockByOthers(String name) throws Exception {
+        return executor.submit(() -> {
+            FencedLock lock = lockManager.getLock(name);
+            boolean locked = lock.tryLock();
+            if (locked) {
+                lock.unlock();
+            }
+            return locked;
+        }).get(5, SECONDS);
+    }
+
+}
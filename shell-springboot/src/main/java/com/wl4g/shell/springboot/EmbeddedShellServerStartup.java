@@ -19,10 +19,14 @@ import static com.wl4g.infra.common.lang.Assert2.notNullOf;
 import static com.wl4g.shell.core.cache.ShellCache.Factory.JEDIS_CLASS;
 import static com.wl4g.shell.core.cache.ShellCache.Factory.JEDIS_CLIENT_CLASS;
 import static com.wl4g.shell.core.cache.ShellCache.Factory.JEDIS_CLUSTER_CLASS;
+import static com.wl4g.shell.core.cache.ShellCache.Factory.LETTUCE_CLIENT_CLASS;
+import static com.wl4g.shell.core.cache.ShellCache.Factory.LETTUCE_CLUSTER_CLIENT_CLASS;
 import static com.wl4g.shell.core.cache.ShellCache.Factory.REDIS_TEMPLATE_CLASS;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 
+import java.io.Closeable;
+
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -35,6 +39,7 @@ import com.wl4g.shell.core.cache.MemoryShellCache;
 import com.wl4g.shell.core.cache.ShellCache;
 import com.wl4g.shell.core.config.ServerShellProperties;
 import com.wl4g.shell.core.handler.EmbeddedShellServer;
+import com.wl4g.shell.core.handler.ShellExecutorFactory;
 import com.wl4g.shell.springboot.config.AnnotationShellHandlerRegistrar;
 
 import lombok.CustomLog;
@@ -61,6 +66,9 @@ public class EmbeddedShellServerStartup implements ApplicationRunner, Disposable
     /** {@link EmbeddedShellServer} */
     protected EmbeddedShellServer shellServer;
 
+    /** {@link ShellCache} */
+    protected ShellCache shellCache;
+
     public EmbeddedShellServerStartup(ServerShellProperties config, AnnotationShellHandlerRegistrar registrar) {
         this.config = notNullOf(config, "config");
         this.registrar = notNullOf(registrar, "registrar");
@@ -72,37 +80,53 @@ public class EmbeddedShellServerStartup implements ApplicationRunner, Disposable
 
         // Create shell session DAO.
         // Redis clients in CLASSPATH. (if neccssary)
+        // The explicit lettuce clients take precedence over the auto
+        // configured RedisTemplate.
         ShellCache shellCache = new MemoryShellCache(config);
-        if (nonNull(JEDIS_CLUSTER_CLASS) && nonNull(JEDIS_CLASS)) {
-            Object jedisCluster = obtainNullableBean(JEDIS_CLUSTER_CLASS);
-            Object jedis = obtainNullableBean(JEDIS_CLASS);
-            Object jedisClient = obtainNullableBean(JEDIS_CLIENT_CLASS);
-            Object redisTemplate = obtainNullableBean(REDIS_TEMPLATE_CLASS);
-            if (nonNull(jedisCluster)) {
-                shellCache = ShellCache.Factory.build(config, jedisCluster);
-            } else if (nonNull(jedis)) {
-                shellCache = ShellCache.Factory.build(config, jedis);
-            } else if (nonNull(jedisClient)) {
-                shellCache = ShellCache.Factory.build(config, jedisClient);
-            } else if (nonNull(redisTemplate)) {
-                shellCache = ShellCache.Factory.build(config, redisTemplate);
-            }
+        Object jedisCluster = obtainNullableBean(JEDIS_CLUSTER_CLASS);
+        Object jedis = obtainNullableBean(JEDIS_CLASS);
+        Object jedisClient = obtainNullableBean(JEDIS_CLIENT_CLASS);
+        Object lettuceCluster = obtainNullableBean(LETTUCE_CLUSTER_CLIENT_CLASS);
+        Object lettuce = obtainNullableBean(LETTUCE_CLIENT_CLASS);
+        Object redisTemplate = obtainNullableBean(REDIS_TEMPLATE_CLASS);
+        if (nonNull(jedisCluster)) {
+            shellCache = ShellCache.Factory.build(config, jedisCluster);
+        } else if (nonNull(jedis)) {
+            shellCache = ShellCache.Factory.build(config, jedis);
+        } else if (nonNull(jedisClient)) {
+            shellCache = ShellCache.Factory.build(config, jedisClient);
+        } else if (nonNull(lettuceCluster)) {
+            shellCache = ShellCache.Factory.build(config, lettuceCluster);
+        } else if (nonNull(lettuce)) {
+            shellCache = ShellCache.Factory.build(config, lettuce);
+        } else if (nonNull(redisTemplate)) {
+            shellCache = ShellCache.Factory.build(config, redisTemplate);
         }
+        this.shellCache = shellCache;
         log.info("Using shell cache: {}", shellCache);
 
         // Build shell server.
-        this.shellServer = EmbeddedShellServerBuilder.newBuilder()
+        EmbeddedShellServerBuilder builder = EmbeddedShellServerBuilder.newBuilder()
                 .withAppName(applicationContext.getEnvironment().getRequiredProperty("spring.application.name"))
                 .withConfiguration(config)
                 .withRegistrar(registrar)
-                .withShellCache(shellCache)
-                .build();
+                .withShellCache(shellCache);
+        // Custom executor factory. (if necessary)
+        Object executorFactory = obtainNullableBean(ShellExecutorFactory.class);
+        if (nonNull(executorFactory)) {
+            builder.withExecutorFactory((ShellExecutorFactory) executorFactory);
+        }
+        this.shellServer = builder.build();
         this.shellServer.start();
     }
 
     @Override
     public void destroy() throws Exception {
         shellServer.close();
+        // e.g. the connections opened by LettuceShellCache
+        if (shellCache instanceof Closeable) {
+            ((Closeable) shellCache).close();
+        }
     }
 
     private Object obtainNullableBean(Class<?> beanClazz) {